@@ -13,7 +13,7 @@ public class AdvancedSearch {
     public List<Student> searchByRegexOnField(String regex, String field, boolean caseInsensitive) {
         Pattern p = caseInsensitive ? Pattern.compile(regex, Pattern.CASE_INSENSITIVE) : Pattern.compile(regex);
         List<Student> out = new ArrayList<>();
-        for (Student s : store.getAllStudents()) {
+        for (Student s : store.students()) {
             String target = switch (field.toLowerCase()) {
                 case "email" -> s.getEmail() == null ? "" : s.getEmail();
                 case "phone" -> s.getPhone() == null ? "" : s.getPhone();
@@ -41,6 +41,8 @@ public class AdvancedSearch {
     }
 
     public List<Student> findByEmailDomain(String domain) {
+        // plain domains are answered from the store's email-domain index
+        if (domain.indexOf('@') < 0) return new ArrayList<>(store.getStudentsByEmailDomain(domain));
         String regex = ".*@" + Pattern.quote(domain) + "$";
         return searchByRegexOnField(regex, "email", true);
     }
@@ -0,0 +1,392 @@
+package org.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Compact, versioned binary format for student/grade snapshots.
+ *
+ * Replaces Java serialization (which `Student`/`Subject` never supported)
+ * with an explicit layout that is small and fast to read back:
+ * <pre>
+ *   magic "SGMS" | version | student count
+ *   course dictionary: count, then (subject type, code, name) entries
+ *   students: type, numeric id, id, name, age, email, phone, grade count,
+ *             then per grade: course ref, score, flags, [level code],
+ *             [gpa], [timestamp delta], [import source]
+ *   CRC32 of everything before it
+ * </pre>
+ * - Integers, strings, level codes and subject types use the shared
+ *   {@link GradeEncoding}: unsigned/zig-zag varints, and strings prefixed
+ *   with a varint (0 = null, otherwise UTF-8 length + 1).
+ * - Course codes and names are written once in the dictionary and referenced
+ *   by index from each grade.
+ * - Timestamps are epoch milliseconds (the LocalDateTime is read as UTC),
+ *   stored as a delta from the previous grade of the same student.
+ * - Version 2 added the import source of a grade (flag HAS_SOURCE); version 1
+ *   files, which are the same apart from that flag, are still read.
+ * - Reads and writes go through a {@link FileChannel} with a large reusable
+ *   direct buffer instead of stream wrappers.
+ */
+public final class BinarySnapshotCodec {
+    private static final int MAGIC = 0x53474d53; // "SGMS"
+    private static final int VERSION = 2;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private static final String[] TYPES = {"", "Regular", "Honors"};
+
+    // Grade flag bits; PASSING is GradeEncoding.PASSING
+    private static final int HAS_LEVEL = 1 << 1;
+    private static final int HAS_GPA = 1 << 2;
+    private static final int HAS_TIMESTAMP = 1 << 3;
+    private static final int HAS_SOURCE = 1 << 4;
+
+    private BinarySnapshotCodec() {}
+
+    /**
+     * Write students and their grade histories to a snapshot file
+     * @return number of students written
+     */
+    public static int write(Path path, Collection<Student> students) throws IOException {
+        // Pass 1: course dictionary. Histories are captured once so both passes
+        // see the same grades even if students keep receiving new ones.
+        CourseDictionary courses = new CourseDictionary();
+        List<List<Grade>> histories = new ArrayList<>(students.size());
+        for (Student s : students) {
+            List<Grade> history = s.getGradeHistory();
+            histories.add(history);
+            for (Grade g : history) courses.refOf(g);
+        }
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = new Writer(ch);
+            out.putInt(MAGIC);
+            out.putVarInt(VERSION);
+            out.putVarInt(students.size());
+
+            out.putVarInt(courses.entries.size());
+            for (Grade g : courses.entries) {
+                out.putByte(GradeEncoding.subjectType(g.getSubject()));
+                out.putString(g.getCourseCode());
+                out.putString(g.getCourseName());
+            }
+
+            // Pass 2: students
+            int written = 0;
+            for (Student s : students) {
+                List<Grade> grades = histories.get(written);
+                out.putByte(typeCode(s.getStudentType()));
+                out.putVarInt(s.getStudentId());
+                out.putString(s.getId());
+                out.putString(s.getName());
+                out.putVarInt(s.getAge());
+                out.putString(s.getEmail());
+                out.putString(s.getPhone());
+                out.putVarInt(grades.size());
+                long previousMillis = 0;
+                for (Grade g : grades) {
+                    int flags = g.isPassing() ? GradeEncoding.PASSING : 0;
+                    int level = GradeEncoding.levelCode(g.getGradeLevel());
+                    if (level >= 0) flags |= HAS_LEVEL;
+                    if (g.getGpa() != 0.0) flags |= HAS_GPA;
+                    if (g.getTimestamp() != null) flags |= HAS_TIMESTAMP;
+                    if (g.getSource() != null) flags |= HAS_SOURCE;
+
+                    out.putVarInt(courses.refOf(g));
+                    out.putDouble(g.getScore());
+                    out.putByte(flags);
+                    if (level >= 0) out.putByte(level);
+                    if ((flags & HAS_GPA) != 0) out.putDouble(g.getGpa());
+                    if (g.getTimestamp() != null) {
+                        long millis = GradeEncoding.toEpochMillis(g.getTimestamp());
+                        out.putVarLong(GradeEncoding.zigZag(millis - previousMillis));
+                        previousMillis = millis;
+                    }
+                    if (g.getSource() != null) out.putString(g.getSource());
+                }
+                written++;
+            }
+            out.finish();
+            return written;
+        }
+    }
+
+    /**
+     * Read a snapshot into a list
+     */
+    public static List<Student> read(Path path) throws IOException {
+        List<Student> out = new ArrayList<>();
+        read(path, out::add);
+        return out;
+    }
+
+    /**
+     * Read a snapshot and hand its students to the sink, in file order. The
+     * students are decoded first and only handed over once the trailing
+     * CRC32 has been checked, so a corrupt or truncated file throws without
+     * anything having reached the sink. Counts, references and ordinals are
+     * range-checked while decoding and anything else a damaged file trips
+     * over is reported as an IOException as well. The numeric id counter is
+     * advanced past the restored ids only after the CRC has passed.
+     * @return number of students read
+     */
+    public static int read(Path path, Consumer<Student> sink) throws IOException {
+        List<Student> students;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            students = decode(new Reader(ch), path);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot " + path + ": " + e, e);
+        }
+        for (Student s : students) Student.reserveId(s.getStudentId());
+        for (Student s : students) sink.accept(s);
+        return students.size();
+    }
+
+    private static List<Student> decode(Reader in, Path path) throws IOException {
+        if (in.getInt() != MAGIC) throw new IOException("Not a student snapshot: " + path);
+        int version = in.getVarInt();
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version + " in " + path);
+        int studentCount = in.getVarInt();
+        List<Student> students = new ArrayList<>(Math.max(0, Math.min(studentCount, 1 << 16))); // the count is not trusted before the CRC
+
+        int courseCount = in.getVarInt();
+        if (courseCount < 0 || 3L * courseCount > in.size) throw corrupt(path, "course count " + courseCount); // 3+ bytes per entry
+        String[] codes = new String[courseCount];
+        String[] names = new String[courseCount];
+        Subject[] subjects = new Subject[courseCount];
+        for (int i = 0; i < courseCount; i++) {
+            int type = ordinal(in.getByte(), 3, path, "subject type");
+            codes[i] = in.getString();
+            names[i] = in.getString();
+            // one shared Subject per dictionary entry
+            subjects[i] = GradeEncoding.subjectOfType(type, names[i], codes[i]);
+        }
+
+        for (int n = 0; n < studentCount; n++) {
+            String type = TYPES[ordinal(in.getByte(), TYPES.length, path, "student type")];
+            int numericId = in.getVarInt();
+            String id = in.getString();
+            if (id == null) throw corrupt(path, "student without an id");
+            String name = in.getString();
+            int age = in.getVarInt();
+            Student s = restoreStudent(type, id, numericId, name, age);
+            s.restoreContact(in.getString(), in.getString());
+
+            int gradeCount = in.getVarInt();
+            long previousMillis = 0;
+            for (int i = 0; i < gradeCount; i++) {
+                int ref = ordinal(in.getVarInt(), courseCount, path, "course reference");
+                double score = in.getDouble();
+                int flags = in.getByte();
+                String level = (flags & HAS_LEVEL) != 0
+                        ? GradeEncoding.level(ordinal(in.getByte(), GradeEncoding.LEVELS.length, path, "grade level")) : null;
+                double gpa = (flags & HAS_GPA) != 0 ? in.getDouble() : 0.0;
+                LocalDateTime ts = null;
+                if ((flags & HAS_TIMESTAMP) != 0) {
+                    previousMillis += GradeEncoding.unZigZag(in.getVarLong());
+                    ts = GradeEncoding.fromEpochMillis(previousMillis);
+                }
+                String source = (flags & HAS_SOURCE) != 0 ? in.getString() : null;
+                s.addGrade(new Grade(numericId, subjects[ref], codes[ref], names[ref], score, level,
+                        (flags & GradeEncoding.PASSING) != 0, gpa, ts, source));
+            }
+            students.add(s);
+        }
+        in.verifyChecksum();
+        return students;
+    }
+
+    private static int ordinal(int value, int bound, Path path, String what) throws IOException {
+        if (value < 0 || value >= bound) throw corrupt(path, what + " " + value);
+        return value;
+    }
+
+    private static IOException corrupt(Path path, String what) {
+        return new IOException("Corrupt snapshot " + path + ": " + what);
+    }
+
+    /**
+     * Recreate a student of the recorded type without re-running id generation
+     * or validation. The numeric id counter is left alone; callers advance it
+     * with {@link Student#reserveId} once the data is known to be intact.
+     */
+    static Student restoreStudent(String type, String id, int numericId, String name, int age) {
+        switch (type) {
+            case "Regular": return new RegularStudent(id, numericId, name, age);
+            case "Honors": return new HonorsStudent(id, numericId, name, age);
+            default: return new Student(id, numericId, name, age);
+        }
+    }
+
+    // Distinct (subject type, code, name) entries; lookups allocate nothing once an entry exists
+    private static final class CourseDictionary {
+        final List<Grade> entries = new ArrayList<>();
+        private final Map<String, Map<String, int[]>> refs = new HashMap<>();
+
+        int refOf(Grade g) {
+            int[] byType = refs.computeIfAbsent(g.getCourseCode(), k -> new HashMap<>())
+                               .computeIfAbsent(g.getCourseName(), k -> new int[] {-1, -1, -1});
+            int type = GradeEncoding.subjectType(g.getSubject());
+            if (byType[type] < 0) {
+                byType[type] = entries.size();
+                entries.add(g);
+            }
+            return byType[type];
+        }
+    }
+
+    private static int typeCode(String type) {
+        for (int i = 0; i < TYPES.length; i++) if (TYPES[i].equals(type)) return i;
+        return 0;
+    }
+
+    // Buffered channel writer; keeps a running CRC of everything written
+    private static final class Writer {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CRC32 crc = new CRC32();
+        private final byte[] varint = new byte[GradeEncoding.MAX_VARLONG_BYTES];
+
+        Writer(FileChannel ch) { this.ch = ch; }
+
+        void putByte(int v) throws IOException { ensure(1); buf.put((byte) v); }
+        void putInt(int v) throws IOException { ensure(4); buf.putInt(v); }
+        void putDouble(double v) throws IOException { ensure(8); buf.putDouble(v); }
+
+        void putVarInt(int v) throws IOException { putVarLong(v & 0xFFFFFFFFL); }
+
+        void putVarLong(long v) throws IOException {
+            ensure(GradeEncoding.MAX_VARLONG_BYTES);
+            buf.put(varint, 0, GradeEncoding.putVarLong(varint, 0, v));
+        }
+
+        void putString(String s) throws IOException {
+            byte[] bytes = s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+            putVarInt(GradeEncoding.lengthPrefix(bytes));
+            if (bytes == null) return;
+            int off = 0;
+            while (off < bytes.length) {
+                ensure(1);
+                int n = Math.min(buf.remaining(), bytes.length - off);
+                buf.put(bytes, off, n);
+                off += n;
+            }
+        }
+
+        void finish() throws IOException {
+            drain();
+            buf.putInt((int) crc.getValue());
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        private void ensure(int n) throws IOException {
+            if (buf.remaining() < n) drain();
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            crc.update(buf.duplicate());
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+    }
+
+    // Buffered channel reader mirroring Writer, including the CRC
+    private static final class Reader {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CRC32 crc = new CRC32();
+        final long size; // no count or length in an intact file exceeds the file size
+        private byte[] scratch = new byte[256];
+        private int windowStart; // first buffered byte not yet folded into the CRC
+
+        Reader(FileChannel ch) throws IOException {
+            this.ch = ch;
+            this.size = ch.size();
+            buf.flip(); // start empty
+        }
+
+        byte getByte() throws IOException { require(1); return buf.get(); }
+        int getInt() throws IOException { require(4); return buf.getInt(); }
+        double getDouble() throws IOException { require(8); return buf.getDouble(); }
+
+        int getVarInt() throws IOException { return (int) getVarLong(); }
+
+        long getVarLong() throws IOException {
+            fill(GradeEncoding.MAX_VARLONG_BYTES); // fewer near the end of the file
+            try {
+                return GradeEncoding.getVarLong(buf);
+            } catch (BufferUnderflowException e) {
+                throw new EOFException("Unexpected end of snapshot");
+            } catch (IllegalStateException e) {
+                throw new IOException("Malformed varint in snapshot");
+            }
+        }
+
+        String getString() throws IOException {
+            int len = GradeEncoding.lengthOf(getVarInt());
+            if (len == -1) return null;
+            if (len < 0 || len > size) throw new IOException("Corrupt snapshot: string of " + len + " bytes");
+            if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+            int off = 0;
+            while (off < len) {
+                require(1);
+                int n = Math.min(buf.remaining(), len - off);
+                buf.get(scratch, off, n);
+                off += n;
+            }
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+
+        void verifyChecksum() throws IOException {
+            // bytes consumed so far in the current window are part of the checksummed body
+            int consumedEnd = buf.position();
+            ByteBuffer consumed = buf.duplicate();
+            consumed.position(windowStart).limit(consumedEnd);
+            crc.update(consumed);
+            windowStart = consumedEnd;
+            int expected = (int) crc.getValue();
+            require(4);
+            int actual = buf.getInt();
+            windowStart = buf.position();
+            if (expected != actual) throw new IOException("Snapshot checksum mismatch");
+        }
+
+        // Make at least n bytes readable, folding consumed bytes into the CRC first
+        private void require(int n) throws IOException {
+            fill(n);
+            if (buf.remaining() < n) throw new EOFException("Unexpected end of snapshot");
+        }
+
+        // As require, but stops early at the end of the file
+        private void fill(int n) throws IOException {
+            if (buf.remaining() >= n) return;
+            ByteBuffer consumed = buf.duplicate();
+            consumed.position(windowStart).limit(buf.position());
+            crc.update(consumed);
+            buf.compact();
+            while (buf.position() < n) {
+                if (ch.read(buf) < 0) break;
+            }
+            buf.flip();
+            windowStart = 0;
+        }
+    }
+}
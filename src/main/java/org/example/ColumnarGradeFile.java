@@ -0,0 +1,584 @@
+package org.example;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Columnar analytics file for grade data, one row per grade.
+ *
+ * Values are stored column by column, so a reader that only needs scores or
+ * course codes reads only those bytes:
+ * <pre>
+ *   magic "SGMC" | version
+ *   row groups of up to BLOCK_ROWS rows, each holding one block per column
+ *   footer: row count, schema (column names and types), then per row group
+ *           its row count and per block: offset, length, encoding, CRC32,
+ *           null count, min, max
+ *   footer length | CRC32 of the footer | magic
+ * </pre>
+ * - Columns: student_id, student_type, course_code, course_name,
+ *   grade_level, score, gpa. Grade level and GPA are the recorded values,
+ *   or, for imported grades without them, the student's own grading rules
+ *   (the same values the text grade report shows).
+ * - String blocks are dictionary-encoded: the block starts with its distinct
+ *   values, then each row is a varint code (0 = null). When the values come
+ *   in long runs (ids and student type, since rows are grouped by student)
+ *   the block stores (code, run length) pairs instead (RLE). The writer
+ *   picks per block; the footer records which.
+ * - Double blocks are plain 8-byte big-endian values.
+ * - Min/max per block (ignoring nulls) let a range scan skip whole blocks.
+ * - Integers are unsigned varints and strings varint-length-prefixed UTF-8,
+ *   as in {@link GradeEncoding}.
+ *
+ * {@link #open} reads only the footer. Each scan then reads the blocks of
+ * one column with positional reads and verifies their CRC; the other
+ * columns are never touched. A reader is not thread-safe.
+ */
+public final class ColumnarGradeFile implements AutoCloseable {
+    /** Rows per row group, i.e. per column block */
+    public static final int BLOCK_ROWS = 1 << 16;
+
+    public static final String STUDENT_ID = "student_id";
+    public static final String STUDENT_TYPE = "student_type";
+    public static final String COURSE_CODE = "course_code";
+    public static final String COURSE_NAME = "course_name";
+    public static final String GRADE_LEVEL = "grade_level";
+    public static final String SCORE = "score";
+    public static final String GPA = "gpa";
+
+    public enum ColumnType { STRING, DOUBLE }
+
+    public enum Encoding { PLAIN, DICTIONARY, RLE }
+
+    private static final int MAGIC = 0x53474d43; // "SGMC"
+    private static final int VERSION = 1;
+    private static final int TRAILER_BYTES = 12;
+
+    // Written columns, in file order: strings first, then doubles
+    private static final String[] STRING_COLUMNS = {STUDENT_ID, STUDENT_TYPE, COURSE_CODE, COURSE_NAME, GRADE_LEVEL};
+    private static final String[] DOUBLE_COLUMNS = {SCORE, GPA};
+
+    /**
+     * One column of the file: its blocks in row order
+     */
+    public static final class Column {
+        public final String name;
+        public final ColumnType type;
+        public final List<Block> blocks;
+
+        Column(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+            this.blocks = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Location, encoding and statistics of one column block
+     */
+    public static final class Block {
+        public final int rows;
+        public final long offset;
+        public final int length;
+        public final Encoding encoding;
+        public final int crc32;
+        public final int nullCount;
+        public final double min, max;              // DOUBLE columns
+        public final String minValue, maxValue;    // STRING columns; null if the block has only nulls
+
+        Block(int rows, long offset, int length, Encoding encoding, int crc32, int nullCount,
+              double min, double max, String minValue, String maxValue) {
+            this.rows = rows;
+            this.offset = offset;
+            this.length = length;
+            this.encoding = encoding;
+            this.crc32 = crc32;
+            this.nullCount = nullCount;
+            this.min = min;
+            this.max = max;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+        }
+    }
+
+    private final FileChannel ch;
+    private final long rowCount;
+    private final Map<String, Column> columns;
+    private long bytesRead;
+
+    private ColumnarGradeFile(FileChannel ch, long rowCount, Map<String, Column> columns, long footerBytes) {
+        this.ch = ch;
+        this.rowCount = rowCount;
+        this.columns = columns;
+        this.bytesRead = footerBytes;
+    }
+
+    /**
+     * Write one row per grade of the given students
+     * @return number of rows written
+     */
+    public static long write(Path path, Iterable<Student> students) throws IOException {
+        String[][] strings = new String[STRING_COLUMNS.length][BLOCK_ROWS];
+        double[][] doubles = new double[DOUBLE_COLUMNS.length][BLOCK_ROWS];
+        Bytes footer = new Bytes(1 << 12);
+        long rows = 0;
+        int groups = 0;
+        Bytes groupInfo = new Bytes(1 << 12);
+
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Bytes header = new Bytes(8);
+            header.putInt(MAGIC);
+            header.putVarInt(VERSION);
+            long position = writeFully(out, header, 0);
+
+            int n = 0;
+            for (Student s : students) {
+                String type = s.getStudentType();
+                for (Grade g : s.getGradeHistory()) {
+                    boolean graded = g.getGradeLevel() != null;
+                    strings[0][n] = s.getId();
+                    strings[1][n] = type;
+                    strings[2][n] = g.getCourseCode();
+                    strings[3][n] = g.getCourseName();
+                    strings[4][n] = graded ? g.getGradeLevel() : s.getGradeLevel(g.getScore());
+                    doubles[0][n] = g.getScore();
+                    doubles[1][n] = graded ? g.getGpa() : s.calculateGPA(g.getScore());
+                    if (++n == BLOCK_ROWS) {
+                        position = writeGroup(out, position, strings, doubles, n, groupInfo);
+                        rows += n;
+                        groups++;
+                        n = 0;
+                    }
+                }
+            }
+            if (n > 0) {
+                position = writeGroup(out, position, strings, doubles, n, groupInfo);
+                rows += n;
+                groups++;
+            }
+
+            footer.putVarLong(rows);
+            footer.putVarInt(STRING_COLUMNS.length + DOUBLE_COLUMNS.length);
+            for (String c : STRING_COLUMNS) {
+                footer.putString(c);
+                footer.putByte(ColumnType.STRING.ordinal());
+            }
+            for (String c : DOUBLE_COLUMNS) {
+                footer.putString(c);
+                footer.putByte(ColumnType.DOUBLE.ordinal());
+            }
+            footer.putVarInt(groups);
+            footer.put(groupInfo);
+            CRC32 crc = new CRC32();
+            crc.update(footer.data, 0, footer.size);
+            footer.putInt(footer.size);
+            footer.putInt((int) crc.getValue());
+            footer.putInt(MAGIC);
+            writeFully(out, footer, position);
+        }
+        return rows;
+    }
+
+    // Encode and write one row group; its block directory goes to info
+    private static long writeGroup(FileChannel out, long position, String[][] strings, double[][] doubles, int rows,
+                                   Bytes info) throws IOException {
+        info.putVarInt(rows);
+        Bytes block = new Bytes(rows * 2);
+        for (String[] values : strings) {
+            block.size = 0;
+            StringStats stats = encodeStrings(block, values, rows);
+            long offset = position;
+            position = writeFully(out, block, position);
+            blockInfo(info, offset, block, stats.encoding, stats.nullCount);
+            info.putString(stats.min);
+            info.putString(stats.max);
+        }
+        for (double[] values : doubles) {
+            block.size = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < rows; i++) {
+                double v = values[i];
+                block.putDouble(v);
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            long offset = position;
+            position = writeFully(out, block, position);
+            blockInfo(info, offset, block, Encoding.PLAIN, 0);
+            info.putDouble(min);
+            info.putDouble(max);
+        }
+        return position;
+    }
+
+    private static void blockInfo(Bytes info, long offset, Bytes block, Encoding encoding, int nullCount) {
+        CRC32 crc = new CRC32();
+        crc.update(block.data, 0, block.size);
+        info.putVarLong(offset);
+        info.putVarInt(block.size);
+        info.putByte(encoding.ordinal());
+        info.putInt((int) crc.getValue());
+        info.putVarInt(nullCount);
+    }
+
+    private static final class StringStats {
+        Encoding encoding;
+        int nullCount;
+        String min, max;
+    }
+
+    private static StringStats encodeStrings(Bytes block, String[] values, int rows) {
+        // Dictionary of the block's distinct values; codes start at 1, 0 is null
+        Map<String, Integer> dict = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] codes = new int[rows];
+        int runs = 0;
+        StringStats stats = new StringStats();
+        for (int i = 0; i < rows; i++) {
+            String v = values[i];
+            int code;
+            if (v == null) {
+                code = 0;
+                stats.nullCount++;
+            } else {
+                Integer known = dict.get(v);
+                if (known == null) {
+                    known = entries.size() + 1;
+                    dict.put(v, known);
+                    entries.add(v);
+                    if (stats.min == null || v.compareTo(stats.min) < 0) stats.min = v;
+                    if (stats.max == null || v.compareTo(stats.max) > 0) stats.max = v;
+                }
+                code = known;
+            }
+            if (i == 0 || code != codes[i - 1]) runs++;
+            codes[i] = code;
+        }
+
+        block.putVarInt(entries.size());
+        for (String e : entries) block.putString(e);
+        // a pair costs about two codes, so runs pay off once they average more than two rows
+        stats.encoding = runs * 2 < rows ? Encoding.RLE : Encoding.DICTIONARY;
+        if (stats.encoding == Encoding.RLE) {
+            int start = 0;
+            for (int i = 1; i <= rows; i++) {
+                if (i == rows || codes[i] != codes[start]) {
+                    block.putVarInt(codes[start]);
+                    block.putVarInt(i - start);
+                    start = i;
+                }
+            }
+        } else {
+            for (int i = 0; i < rows; i++) block.putVarInt(codes[i]);
+        }
+        return stats;
+    }
+
+    private static long writeFully(FileChannel out, Bytes bytes, long position) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes.data, 0, bytes.size);
+        while (buf.hasRemaining()) position += out.write(buf, position);
+        return position;
+    }
+
+    /**
+     * Open a file for reading; only the footer is read
+     */
+    public static ColumnarGradeFile open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = ch.size();
+            if (size < 8 + TRAILER_BYTES) throw new IOException("Not a columnar grade file: " + path);
+            ByteBuffer head = read(ch, 0, 8);
+            ByteBuffer trailer = read(ch, size - TRAILER_BYTES, TRAILER_BYTES);
+            int footerLength = trailer.getInt();
+            int footerCrc = trailer.getInt();
+            if (head.getInt() != MAGIC || trailer.getInt() != MAGIC) throw new IOException("Not a columnar grade file: " + path);
+            int version = getVarInt(head);
+            if (version != VERSION) throw new IOException("Unsupported columnar file version " + version + " in " + path);
+            if (footerLength < 0 || footerLength > size - 8 - TRAILER_BYTES) throw new IOException("Corrupt columnar file footer: " + path);
+
+            ByteBuffer footer = read(ch, size - TRAILER_BYTES - footerLength, footerLength);
+            CRC32 crc = new CRC32();
+            crc.update(footer.duplicate());
+            if ((int) crc.getValue() != footerCrc) throw new IOException("Columnar file footer checksum mismatch: " + path);
+
+            long rowCount = getVarLong(footer);
+            int columnCount = getVarInt(footer);
+            Column[] schema = new Column[columnCount];
+            Map<String, Column> columns = new LinkedHashMap<>();
+            for (int i = 0; i < columnCount; i++) {
+                String name = getString(footer);
+                schema[i] = new Column(name, ColumnType.values()[footer.get()]);
+                columns.put(name, schema[i]);
+            }
+            int groups = getVarInt(footer);
+            for (int g = 0; g < groups; g++) {
+                int rows = getVarInt(footer);
+                for (Column c : schema) {
+                    long offset = getVarLong(footer);
+                    int length = getVarInt(footer);
+                    Encoding encoding = Encoding.values()[footer.get()];
+                    int blockCrc = footer.getInt();
+                    int nullCount = getVarInt(footer);
+                    if (c.type == ColumnType.DOUBLE) {
+                        double min = footer.getDouble();
+                        double max = footer.getDouble();
+                        c.blocks.add(new Block(rows, offset, length, encoding, blockCrc, nullCount, min, max, null, null));
+                    } else {
+                        String min = getString(footer);
+                        String max = getString(footer);
+                        c.blocks.add(new Block(rows, offset, length, encoding, blockCrc, nullCount, Double.NaN, Double.NaN, min, max));
+                    }
+                }
+            }
+            return new ColumnarGradeFile(ch, rowCount, columns, 8 + TRAILER_BYTES + footerLength);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            if (e instanceof IOException) throw (IOException) e;
+            throw new IOException("Corrupt columnar file footer: " + path, e);
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /** Columns in file order */
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(new ArrayList<>(columns.values()));
+    }
+
+    public Column getColumn(String name) {
+        Column c = columns.get(name);
+        if (c == null) throw new IllegalArgumentException("No column " + name + " in columnar file");
+        return c;
+    }
+
+    /** Bytes read from the file so far, footer included */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Every value of a DOUBLE column, in row order
+     */
+    public void scanDoubles(String column, DoubleConsumer action) throws IOException {
+        scanDoubles(column, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, action);
+    }
+
+    /**
+     * Values of a DOUBLE column within [lo, hi], in row order. Blocks whose
+     * min/max lie outside the range are skipped without being read.
+     * @return number of values passed to the action
+     */
+    public long scanDoubles(String column, double lo, double hi, DoubleConsumer action) throws IOException {
+        Column c = column(column, ColumnType.DOUBLE);
+        long matched = 0;
+        for (Block b : c.blocks) {
+            if (b.max < lo || b.min > hi) continue;
+            ByteBuffer data = readBlock(b);
+            for (int i = 0; i < b.rows; i++) {
+                double v = data.getDouble();
+                if (v >= lo && v <= hi) {
+                    action.accept(v);
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * A whole DOUBLE column as an array, in row order
+     */
+    public double[] readDoubles(String column) throws IOException {
+        double[] out = new double[Math.toIntExact(rowCount)];
+        int[] n = {0};
+        scanDoubles(column, v -> out[n[0]++] = v);
+        return out;
+    }
+
+    /**
+     * Every value of a STRING column, in row order (null for missing values).
+     * Equal values within a block are the same String instance.
+     */
+    public void scanStrings(String column, Consumer<String> action) throws IOException {
+        Column c = column(column, ColumnType.STRING);
+        for (Block b : c.blocks) {
+            ByteBuffer data = readBlock(b);
+            String[] dict = readDictionary(data);
+            if (b.encoding == Encoding.RLE) {
+                for (int row = 0; row < b.rows; ) {
+                    String v = dict[getVarInt(data)];
+                    int run = getVarInt(data);
+                    for (int i = 0; i < run; i++) action.accept(v);
+                    row += run;
+                }
+            } else {
+                for (int i = 0; i < b.rows; i++) action.accept(dict[getVarInt(data)]);
+            }
+        }
+    }
+
+    /**
+     * A whole STRING column as an array, in row order
+     */
+    public String[] readStrings(String column) throws IOException {
+        String[] out = new String[Math.toIntExact(rowCount)];
+        int[] n = {0};
+        scanStrings(column, v -> out[n[0]++] = v);
+        return out;
+    }
+
+    /**
+     * Occurrences of each value of a STRING column (null for missing
+     * values), in order of first occurrence. Works on the encoded codes and
+     * runs, without producing a value per row.
+     */
+    public Map<String, Long> countValues(String column) throws IOException {
+        Column c = column(column, ColumnType.STRING);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Block b : c.blocks) {
+            ByteBuffer data = readBlock(b);
+            String[] dict = readDictionary(data);
+            long[] perCode = new long[dict.length];
+            int[] order = new int[dict.length]; // codes in order of first occurrence in the block
+            int seen = 0;
+            for (int row = 0; row < b.rows; ) {
+                int code = getVarInt(data);
+                int run = b.encoding == Encoding.RLE ? getVarInt(data) : 1;
+                if (perCode[code] == 0) order[seen++] = code;
+                perCode[code] += run;
+                row += run;
+            }
+            for (int i = 0; i < seen; i++) counts.merge(dict[order[i]], perCode[order[i]], Long::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+
+    private Column column(String name, ColumnType type) {
+        Column c = getColumn(name);
+        if (c.type != type) throw new IllegalArgumentException("Column " + name + " is " + c.type + ", not " + type);
+        return c;
+    }
+
+    private ByteBuffer readBlock(Block b) throws IOException {
+        ByteBuffer data = read(ch, b.offset, b.length);
+        bytesRead += b.length;
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        if ((int) crc.getValue() != b.crc32) throw new IOException("Columnar block checksum mismatch at offset " + b.offset);
+        return data;
+    }
+
+    // Index 0 is null, matching the codes
+    private static String[] readDictionary(ByteBuffer data) {
+        String[] dict = new String[getVarInt(data) + 1];
+        for (int i = 1; i < dict.length; i++) dict[i] = getString(data);
+        return dict;
+    }
+
+    private static ByteBuffer read(FileChannel ch, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) throw new EOFException("Unexpected end of columnar file");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        return (int) getVarLong(in);
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        return GradeEncoding.getVarLong(in);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int len = GradeEncoding.lengthOf(getVarInt(in));
+        if (len == -1) return null;
+        String s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+        return s;
+    }
+
+    // Growable byte array with the encoders the format needs
+    private static final class Bytes {
+        byte[] data;
+        int size;
+
+        Bytes(int capacity) {
+            data = new byte[Math.max(16, capacity)];
+        }
+
+        void putByte(int v) {
+            ensure(1);
+            data[size++] = (byte) v;
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            data[size++] = (byte) (v >>> 24);
+            data[size++] = (byte) (v >>> 16);
+            data[size++] = (byte) (v >>> 8);
+            data[size++] = (byte) v;
+        }
+
+        void putDouble(double d) {
+            long v = Double.doubleToRawLongBits(d);
+            putInt((int) (v >>> 32));
+            putInt((int) v);
+        }
+
+        void putVarInt(int v) {
+            putVarLong(v & 0xFFFFFFFFL);
+        }
+
+        void putVarLong(long v) {
+            ensure(GradeEncoding.MAX_VARLONG_BYTES);
+            size = GradeEncoding.putVarLong(data, size, v);
+        }
+
+        // GradeEncoding's string form: length 0 = null, otherwise UTF-8 length + 1
+        void putString(String s) {
+            byte[] bytes = s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+            putVarInt(GradeEncoding.lengthPrefix(bytes));
+            if (bytes == null) return;
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void put(Bytes other) {
+            ensure(other.size);
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+        }
+
+        private void ensure(int n) {
+            if (size + n > data.length) data = java.util.Arrays.copyOf(data, Math.max(size + n, data.length * 2));
+        }
+    }
+}
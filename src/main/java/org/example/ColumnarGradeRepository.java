@@ -0,0 +1,200 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented grade repository backed by primitive arrays.
+ *
+ * Instead of keeping one {@link Grade} object per record (each with a
+ * `LocalDateTime`, two Strings and a `Subject` reference) every field is
+ * stored in its own contiguous column:
+ * - `int[]` student ids
+ * - `double[]` scores and GPA points
+ * - `long[]` timestamps as epoch millis (UTC)
+ * - `byte[]` grade-level codes and flag bits (passing, subject type)
+ * - `int[]` course references into a small dictionary of distinct
+ *   (type, code, name) course entries
+ *
+ * Statistics scans ({@link #getAllScores()}, {@link #getPassingCount()},
+ * {@link #getGradeDistribution()}) run directly over these columns. Grade
+ * objects are only materialised when a caller asks for them through
+ * {@link #getStudentGrades(int)} or {@link #getAllGrades()}; materialised
+ * grades share one Subject instance per dictionary entry and keep the
+ * timestamp they were added with, to the millisecond. A per-student list of
+ * row numbers keeps {@link #getStudentGrades(int)} proportional to that
+ * student's grades.
+ */
+public class ColumnarGradeRepository implements IGradeRepository {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final Grade[] EMPTY = new Grade[0];
+
+    // Level codes and flag bits are those of GradeEncoding; level code -1 means "no level recorded"
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private int[] studentIds = new int[INITIAL_CAPACITY];
+    private double[] scores = new double[INITIAL_CAPACITY];
+    private double[] gpas = new double[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private byte[] levels = new byte[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int[] courses = new int[INITIAL_CAPACITY];
+    private int count;
+    private final Map<Integer, RowList> rowsByStudent = new HashMap<>();
+
+    // Course dictionary: distinct (type, code, name) entries
+    private final Map<String, Integer> courseIndex = new HashMap<>();
+    private final List<String> courseCodes = new ArrayList<>();
+    private final List<String> courseNames = new ArrayList<>();
+    private final List<Subject> courseSubjects = new ArrayList<>();
+
+    /**
+     * Append a grade as one row across all columns
+     */
+    @Override
+    public synchronized void addGrade(Grade grade) {
+        ensureCapacity(count + 1);
+        byte flagBits = GradeEncoding.flags(grade);
+
+        studentIds[count] = grade.getStudentId();
+        scores[count] = grade.getScore();
+        gpas[count] = grade.getGpa();
+        LocalDateTime ts = grade.getTimestamp();
+        timestamps[count] = ts == null ? NO_TIMESTAMP : GradeEncoding.toEpochMillis(ts);
+        levels[count] = GradeEncoding.levelCode(grade.getGradeLevel());
+        flags[count] = flagBits;
+        courses[count] = courseRef(grade.getCourseCode(), grade.getCourseName(), flagBits);
+        rowsByStudent.computeIfAbsent(grade.getStudentId(), k -> new RowList()).add(count);
+        count++;
+    }
+
+    /**
+     * Get all grades for a student (insertion order). Only that student's
+     * rows are visited, through the per-student row index.
+     */
+    @Override
+    public synchronized Grade[] getStudentGrades(int studentId) {
+        RowList rows = rowsByStudent.get(studentId);
+        if (rows == null) return EMPTY;
+        Grade[] result = new Grade[rows.size];
+        for (int i = 0; i < rows.size; i++) {
+            result[i] = materialise(rows.rows[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Materialise every row as a Grade (insertion order)
+     */
+    @Override
+    public synchronized Grade[] getAllGrades() {
+        Grade[] result = new Grade[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = materialise(i);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int getGradeCount() {
+        return count;
+    }
+
+    /**
+     * Columns grow on demand, so the repository is never full
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    /**
+     * Copy of the score column (no Grade objects involved)
+     */
+    @Override
+    public synchronized double[] getAllScores() {
+        return Arrays.copyOf(scores, count);
+    }
+
+    @Override
+    public synchronized int getPassingCount() {
+        int passing = 0;
+        for (int i = 0; i < count; i++) {
+            passing += flags[i] & GradeEncoding.PASSING;
+        }
+        return passing;
+    }
+
+    @Override
+    public synchronized int[] getGradeDistribution() {
+        // Histogram over level codes first, then fold codes into letter bands
+        int[] perLevel = new int[GradeEncoding.LEVELS.length];
+        for (int i = 0; i < count; i++) {
+            byte level = levels[i];
+            if (level >= 0) perLevel[level]++;
+        }
+        int[] distribution = new int[6];
+        for (int code = 0; code < perLevel.length; code++) {
+            int band = IGradeRepository.gradeBand(GradeEncoding.level(code));
+            if (band >= 0) distribution[band] += perLevel[code];
+        }
+        return distribution;
+    }
+
+    /**
+     * Number of distinct course dictionary entries
+     */
+    public synchronized int getCourseDictionarySize() {
+        return courseCodes.size();
+    }
+
+    private Grade materialise(int row) {
+        int course = courses[row];
+        byte level = levels[row];
+        long millis = timestamps[row];
+        return new Grade(studentIds[row], courseSubjects.get(course), courseCodes.get(course), courseNames.get(course),
+                scores[row], GradeEncoding.level(level), (flags[row] & GradeEncoding.PASSING) != 0, gpas[row],
+                millis == NO_TIMESTAMP ? null : GradeEncoding.fromEpochMillis(millis));
+    }
+
+    private int courseRef(String code, String name, byte flagBits) {
+        int type = GradeEncoding.subjectType(flagBits);
+        String key = type + "|" + code + "|" + name;
+        Integer existing = courseIndex.get(key);
+        if (existing != null) return existing;
+
+        int ref = courseCodes.size();
+        courseCodes.add(code);
+        courseNames.add(name);
+        courseSubjects.add(GradeEncoding.subjectOfType(type, name, code));
+        courseIndex.put(key, ref);
+        return ref;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= studentIds.length) return;
+        int newCapacity = Math.max(required, studentIds.length * 2);
+        studentIds = Arrays.copyOf(studentIds, newCapacity);
+        scores = Arrays.copyOf(scores, newCapacity);
+        gpas = Arrays.copyOf(gpas, newCapacity);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        levels = Arrays.copyOf(levels, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        courses = Arrays.copyOf(courses, newCapacity);
+    }
+
+    // Growable primitive list of row numbers for one student
+    private static final class RowList {
+        int[] rows = new int[4];
+        int size;
+
+        void add(int row) {
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Transparent gzip support for the importers.
+ *
+ * Input is recognised by the gzip magic bytes (1f 8b) rather than by the file
+ * name, so "grades.csv.gz", a renamed file or a compressed upload stream are
+ * all handled the same way. Compressed input is decompressed while it is
+ * read, through a large inflater buffer, so nothing is ever unpacked to disk.
+ * Concatenated gzip members (e.g. daily extracts appended with cat) are read
+ * as one stream.
+ */
+public final class CompressedInput {
+    /** Read buffer for compressed input; large enough that the inflater rarely waits on the file */
+    public static final int BUFFER_BYTES = 1 << 16;
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private CompressedInput() {}
+
+    /**
+     * True if the file starts with the gzip magic bytes
+     */
+    public static boolean isGzip(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(2);
+            while (head.hasRemaining() && ch.read(head) > 0) {
+                // a 2-byte read can come back short
+            }
+            return head.position() == 2 && (head.get(0) & 0xff) == GZIP_MAGIC_1 && (head.get(1) & 0xff) == GZIP_MAGIC_2;
+        }
+    }
+
+    /**
+     * The stream itself (buffered) for plain input, or a decompressing view of
+     * it for gzip input. Closing the returned stream closes {@code in}.
+     */
+    public static InputStream decompressIfGzip(InputStream in) throws IOException {
+        BufferedInputStream buffered = in instanceof BufferedInputStream ? (BufferedInputStream) in : new BufferedInputStream(in, BUFFER_BYTES);
+        buffered.mark(2);
+        int b1 = buffered.read();
+        int b2 = b1 < 0 ? -1 : buffered.read();
+        buffered.reset();
+        if (b1 == GZIP_MAGIC_1 && b2 == GZIP_MAGIC_2) return new GZIPInputStream(buffered, BUFFER_BYTES);
+        return buffered;
+    }
+}
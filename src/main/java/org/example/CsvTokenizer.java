@@ -0,0 +1,254 @@
+package org.example;
+
+/**
+ * Reusable, allocation-light CSV line tokenizer.
+ *
+ * {@link #reset(CharSequence)} scans one line in place and records the
+ * start/end offset of every field; nothing is copied until a caller asks for
+ * a field's text. Numbers are parsed straight from the line, and repeated
+ * values (student ids, course codes and names) come from a small intern
+ * cache, so tokenizing a typical import row allocates next to nothing.
+ *
+ * Rules:
+ * - fields are separated by ','; whitespace around a field is trimmed the
+ *   same way as {@link String#trim()}
+ * - a field may be wrapped in double quotes, which lets it contain commas
+ *   ("O'Neill, Anne"); a doubled quote inside quotes stands for one quote.
+ *   Text inside the quotes is kept as-is
+ * - an unterminated quote runs to the end of the line
+ *
+ * One instance per thread; it holds the state of the last line only.
+ */
+public final class CsvTokenizer {
+    private static final int CACHE_SIZE = 1024; // power of two
+
+    private CharSequence line;
+    private int count;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16]; // quoted field containing "" escapes
+    private final String[] cache = new String[CACHE_SIZE];
+
+    /**
+     * Tokenize a line (without its line terminator)
+     * @return number of fields
+     */
+    public int reset(CharSequence line) {
+        this.line = line;
+        count = 0;
+        int len = line.length();
+        int pos = 0;
+        while (true) {
+            while (pos < len && line.charAt(pos) <= ' ') pos++;
+            int start;
+            int end;
+            boolean esc = false;
+            if (pos < len && line.charAt(pos) == '"') {
+                start = ++pos;
+                while (pos < len) {
+                    if (line.charAt(pos) == '"') {
+                        if (pos + 1 < len && line.charAt(pos + 1) == '"') {
+                            esc = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                end = pos;
+                if (pos < len) pos++; // closing quote
+                while (pos < len && line.charAt(pos) != ',') pos++; // ignore anything after the closing quote
+            } else {
+                start = pos;
+                while (pos < len && line.charAt(pos) != ',') pos++;
+                end = pos;
+                while (end > start && line.charAt(end - 1) <= ' ') end--;
+            }
+            add(start, end, esc);
+            if (pos >= len) break;
+            pos++; // the comma
+        }
+        return count;
+    }
+
+    public int fieldCount() {
+        return count;
+    }
+
+    /**
+     * The line last passed to {@link #reset(CharSequence)}; with {@link #start(int)}
+     * and {@link #end(int)} a field can be checked in place, e.g. by the
+     * slice validators in {@link ValidationUtils}
+     */
+    public CharSequence line() {
+        return line;
+    }
+
+    /**
+     * Offset of a field's first character in {@link #line()} (inside the quotes
+     * for a quoted field; doubled quotes are not resolved in this raw range)
+     */
+    public int start(int field) {
+        check(field);
+        return starts[field];
+    }
+
+    /**
+     * Offset just past a field's last character in {@link #line()}
+     */
+    public int end(int field) {
+        check(field);
+        return ends[field];
+    }
+
+    public boolean isEmpty(int field) {
+        check(field);
+        return starts[field] == ends[field];
+    }
+
+    /**
+     * Text of a field as a new String (quotes removed, escapes resolved)
+     */
+    public String getString(int field) {
+        check(field);
+        if (escaped[field]) return unescape(starts[field], ends[field]);
+        return line.subSequence(starts[field], ends[field]).toString();
+    }
+
+    /**
+     * Text of a field, shared with earlier rows that had the same value.
+     * Meant for values that repeat across rows; a small direct-mapped cache
+     * keeps the most recent string for each hash slot.
+     */
+    public String intern(int field) {
+        check(field);
+        if (escaped[field]) return unescape(starts[field], ends[field]);
+        int start = starts[field];
+        int end = ends[field];
+        if (start == end) return "";
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + line.charAt(i);
+        int slot = (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+        String cached = cache[slot];
+        if (cached != null && cached.hashCode() == h && contentEquals(cached, start, end)) return cached;
+        String s = line.subSequence(start, end).toString();
+        cache[slot] = s;
+        return s;
+    }
+
+    /**
+     * Compare a field with a string without materialising the field
+     */
+    public boolean fieldEquals(int field, String s, boolean ignoreCase) {
+        check(field);
+        if (escaped[field]) return ignoreCase ? getString(field).equalsIgnoreCase(s) : getString(field).equals(s);
+        int start = starts[field];
+        if (ends[field] - start != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char a = line.charAt(start + i);
+            char b = s.charAt(i);
+            if (a != b && !(ignoreCase && Character.toLowerCase(a) == Character.toLowerCase(b))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse a field as an int, with {@link Integer#parseInt(String)} semantics
+     * @throws NumberFormatException if the field is not a valid int
+     */
+    public int parseInt(int field) {
+        check(field);
+        int start = starts[field];
+        int end = ends[field];
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) negative = line.charAt(i++) == '-';
+        // up to 9 digits cannot overflow; anything else goes through the JDK
+        if (escaped[field] || i == end || end - i > 9) return Integer.parseInt(getString(field));
+        int value = 0;
+        for (; i < end; i++) {
+            int d = line.charAt(i) - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a field as a double, with {@link Double#parseDouble(String)} semantics.
+     * Plain decimals ("85", "-3.25") are converted directly; other forms
+     * (exponents, NaN, hex, long mantissas) fall back to the JDK parser.
+     * @throws NumberFormatException if the field is not a valid number
+     */
+    public double parseDouble(int field) {
+        check(field);
+        int start = starts[field];
+        int end = ends[field];
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) negative = line.charAt(i++) == '-';
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1; // digits after the decimal point, -1 when there is no point
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction >= 0) fraction++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                break;
+            }
+        }
+        // A mantissa below 2^53 and a power of ten up to 10^22 are both exact
+        // doubles, so one division gives the correctly rounded result.
+        if (i == end && !escaped[field] && digits > 0 && digits <= 15 && fraction <= 22) {
+            double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(getString(field));
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private void add(int start, int end, boolean esc) {
+        if (count == starts.length) {
+            int n = count * 2;
+            starts = java.util.Arrays.copyOf(starts, n);
+            ends = java.util.Arrays.copyOf(ends, n);
+            escaped = java.util.Arrays.copyOf(escaped, n);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        escaped[count] = esc;
+        count++;
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            sb.append(c);
+            if (c == '"' && i + 1 < end && line.charAt(i + 1) == '"') i++;
+        }
+        return sb.toString();
+    }
+
+    private boolean contentEquals(String s, int start, int end) {
+        if (s.length() != end - start) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != line.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private void check(int field) {
+        if (field < 0 || field >= count) throw new IndexOutOfBoundsException("field " + field + " of " + count);
+    }
+}
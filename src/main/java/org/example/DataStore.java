@@ -1,24 +1,94 @@
 package org.example;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Central in-memory data store. Thread-safe student lookup and synchronized ranking updates.
+ *
+ * This is the one canonical copy of the students: they are indexed both by
+ * "STUxxx" id and by numeric id, and insertion order is kept for listings.
+ * {@link StudentManager} and {@link StoreGradeRepository} are thin adapters
+ * over a store, so the console menus, imports and reports all read and write
+ * the same objects.
+ *
+ * GPA rankings are kept in an order-statistic {@link GpaRankingIndex}. Each
+ * student's last ranked GPA is remembered so an update removes exactly one
+ * entry and inserts one, O(log n), instead of sweeping every bucket. Rank,
+ * top-K, bottom-K and percentile queries are answered from the same index.
+ *
+ * Secondary indexes (course code -> students, email domain -> students) are
+ * maintained alongside the rankings. The store listens to every student it
+ * holds, so `Student.addGrade` and `Student.setEmail` keep the rankings and
+ * indexes current without callers having to notify the store. GPA range
+ * queries are answered from the ranking index.
+ *
+ * Bulk loads: between {@link #beginBulkLoad()} and the session's commit,
+ * ranking and secondary-index maintenance is suspended. Students touched by
+ * the load are only collected; the commit patches them in once each, or
+ * rebuilds the ranking index in one pass when most students changed.
+ * Id lookups see new students immediately (the loader needs them), while
+ * rankings, GPA ranges and the course/email indexes keep answering from the
+ * last committed state until the commit.
+ *
+ * When a {@link JournalService} is attached, students added to the store and
+ * grades added to those students are appended to its write-ahead journal.
  */
 public class DataStore {
     private final ConcurrentHashMap<String, Student> studentMap = new ConcurrentHashMap<>(); // O(1) lookup
-    private final NavigableMap<Double, List<Student>> gpaRankings = new TreeMap<>(Comparator.reverseOrder()); // sorted by GPA desc
+    private final ConcurrentHashMap<Integer, Student> numericIdMap = new ConcurrentHashMap<>();
+    private final List<Student> insertionOrder = new ArrayList<>(); // guarded by itself
+    private final GpaRankingIndex gpaRankings = new GpaRankingIndex(); // sorted by GPA desc
+    private final Map<String, Double> rankedGpa = new HashMap<>(); // GPA each student is currently ranked under
     private final Object rankingLock = new Object();
+    private volatile Map<Double, List<Student>> rankingsSnapshot; // rebuilt lazily after a ranking change
+    private final ConcurrentHashMap<String, Set<Student>> courseIndex = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Student>> emailDomainIndex = new ConcurrentHashMap<>();
+    private final Student.StudentListener listener = new Student.StudentListener() {
+        @Override
+        public void onGradeAdded(Student student, Grade grade, int ordinal) {
+            DataStore.this.onGradeAdded(student, grade, ordinal);
+        }
+
+        @Override
+        public void onEmailChanged(Student student, String oldEmail, String newEmail) {
+            DataStore.this.onEmailChanged(student, oldEmail, newEmail);
+        }
+    };
+    private volatile JournalService journal;
+    private final Object bulkLock = new Object();
+    private int bulkDepth; // open bulk-load sessions, guarded by bulkLock
+    private Set<Student> bulkDirty = newIdentitySet(); // guarded by bulkLock
+    private volatile boolean bulkLoading;
 
     public void addStudent(Student s) {
-        studentMap.put(s.getId(), s);
+        Student previous = studentMap.put(s.getId(), s);
+        if (previous != null && previous != s) unindex(previous);
+        if (previous != s) {
+            numericIdMap.put(s.getStudentId(), s);
+            synchronized (insertionOrder) {
+                // a replacement keeps the listing position of the student it replaces
+                int at = previous == null ? -1 : insertionOrder.indexOf(previous);
+                if (at >= 0) insertionOrder.set(at, s);
+                else insertionOrder.add(s);
+            }
+        }
+        s.addListener(listener);
+        JournalService j = journal;
+        if (j != null && previous != s) j.logStudent(s);
+        if (deferMaintenance(s)) return;
+        indexStudent(s);
         updateRankingFor(s);
     }
 
@@ -26,25 +96,286 @@ public class DataStore {
         return studentMap.get(id);
     }
 
+    /**
+     * Lookup by numeric student id
+     */
+    public Student getStudent(int studentId) {
+        return numericIdMap.get(studentId);
+    }
+
+    /**
+     * Snapshot of all students in the order they were added
+     */
     public List<Student> getAllStudents() {
-        return new ArrayList<>(studentMap.values());
+        synchronized (insertionOrder) {
+            return new ArrayList<>(insertionOrder);
+        }
+    }
+
+    /**
+     * Read-only live view of all students. Iteration is weakly consistent
+     * and does not copy the store; prefer this over {@link #getAllStudents()}
+     * for scans.
+     */
+    public Collection<Student> students() {
+        return Collections.unmodifiableCollection(studentMap.values());
+    }
+
+    public int getStudentCount() {
+        return studentMap.size();
+    }
+
+    /**
+     * Students with at least one grade in the given course
+     */
+    public Set<Student> getStudentsInCourse(String courseCode) {
+        Set<Student> set = courseCode == null ? null : courseIndex.get(courseCode);
+        return set == null ? Set.of() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Students whose email is at the given domain (case-insensitive, e.g. "uni.edu")
+     */
+    public Set<Student> getStudentsByEmailDomain(String domain) {
+        Set<Student> set = domain == null ? null : emailDomainIndex.get(domain.toLowerCase());
+        return set == null ? Set.of() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Students whose GPA lies within [minGpa, maxGpa], highest GPA first
+     */
+    public List<Student> getStudentsInGpaRange(double minGpa, double maxGpa) {
+        synchronized (rankingLock) {
+            int from = gpaRankings.countAbove(maxGpa, false);
+            int to = gpaRankings.countAbove(minGpa, true);
+            return gpaRankings.range(from, to);
+        }
     }
 
     public void updateRankingFor(Student s) {
         synchronized (rankingLock) {
-            // remove from old entry if present
-            gpaRankings.values().forEach(list -> list.remove(s));
+            // remove the entry keyed by the previous GPA, if any
+            Double previous = rankedGpa.get(s.getId());
+            if (previous != null) gpaRankings.remove(previous, s);
             double gpa = s.computeGPA();
-            gpaRankings.computeIfAbsent(round(gpa), k -> new ArrayList<>()).add(s);
+            gpaRankings.insert(gpa, s);
+            rankedGpa.put(s.getId(), gpa);
+            rankingsSnapshot = null;
         }
     }
 
+    /**
+     * Rankings grouped by GPA (rounded to two decimals), highest first. The
+     * returned map is immutable and shared between callers until the next
+     * ranking change, so repeated calls do not copy the rankings.
+     */
     public Map<Double, List<Student>> getGpaRankingsSnapshot() {
+        Map<Double, List<Student>> snap = rankingsSnapshot;
+        if (snap != null) return snap;
+        synchronized (rankingLock) {
+            if (rankingsSnapshot == null) {
+                NavigableMap<Double, List<Student>> grouped = new TreeMap<>(Comparator.reverseOrder());
+                gpaRankings.forEach((gpa, student) -> grouped.computeIfAbsent(round(gpa), k -> new ArrayList<>()).add(student));
+                grouped.replaceAll((k, list) -> Collections.unmodifiableList(list));
+                rankingsSnapshot = Collections.unmodifiableNavigableMap(grouped);
+            }
+            return rankingsSnapshot;
+        }
+    }
+
+    /**
+     * 1-based GPA rank of a student (1 = highest GPA)
+     * @return rank, or -1 if the student is not ranked
+     */
+    public int getRank(Student s) {
+        synchronized (rankingLock) {
+            Double gpa = rankedGpa.get(s.getId());
+            return gpa == null ? -1 : gpaRankings.rankOf(gpa, s);
+        }
+    }
+
+    /**
+     * The k students with the highest GPA, best first
+     */
+    public List<Student> getTopStudents(int k) {
+        synchronized (rankingLock) {
+            return gpaRankings.top(k);
+        }
+    }
+
+    /**
+     * The k students with the lowest GPA, in ranking order (best of them first)
+     */
+    public List<Student> getBottomStudents(int k) {
+        synchronized (rankingLock) {
+            return gpaRankings.bottom(k);
+        }
+    }
+
+    /**
+     * Percentile of a student within the ranking: the percentage of ranked
+     * students placed at or below this student (top student = 100).
+     * @return percentile in (0, 100], or -1 if the student is not ranked
+     */
+    public double getPercentile(Student s) {
+        synchronized (rankingLock) {
+            Double gpa = rankedGpa.get(s.getId());
+            if (gpa == null) return -1;
+            int n = gpaRankings.size();
+            int rank = gpaRankings.rankOf(gpa, s);
+            return (n - rank + 1) * 100.0 / n;
+        }
+    }
+
+    public int getRankedCount() {
         synchronized (rankingLock) {
-            return Collections.unmodifiableMap(new TreeMap<>(gpaRankings));
+            return gpaRankings.size();
         }
     }
 
+    /**
+     * Start a bulk load. Commit (or close) the returned session when the load
+     * is done, in a finally block. Sessions may overlap; maintenance resumes
+     * when the last one is committed.
+     */
+    public BulkLoad beginBulkLoad() {
+        synchronized (bulkLock) {
+            bulkDepth++;
+            bulkLoading = true;
+        }
+        return new BulkLoad();
+    }
+
+    /**
+     * An open bulk-load session on this store
+     */
+    public final class BulkLoad implements AutoCloseable {
+        private boolean committed;
+
+        private BulkLoad() {}
+
+        /**
+         * End this session; if it was the last open one, bring rankings and
+         * indexes up to date for every student touched while loading
+         */
+        public void commit() {
+            Set<Student> dirty;
+            synchronized (bulkLock) {
+                if (committed) return;
+                committed = true;
+                if (--bulkDepth > 0) return;
+                bulkLoading = false;
+                dirty = bulkDirty;
+                bulkDirty = newIdentitySet();
+            }
+            applyDeferred(dirty);
+        }
+
+        @Override
+        public void close() {
+            commit();
+        }
+    }
+
+    // During a bulk load, remember the student instead of maintaining indexes now
+    private boolean deferMaintenance(Student s) {
+        if (!bulkLoading) return false;
+        synchronized (bulkLock) {
+            if (bulkDepth == 0) return false;
+            bulkDirty.add(s);
+            return true;
+        }
+    }
+
+    // Students compare equal by id; a replaced object and its replacement must both be tracked
+    private static Set<Student> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private void applyDeferred(Set<Student> dirty) {
+        if (dirty.isEmpty()) return;
+        for (Student s : dirty) {
+            // a student replaced during the load is no longer indexed
+            if (studentMap.get(s.getId()) == s) indexStudent(s);
+        }
+        synchronized (rankingLock) {
+            if (dirty.size() * 2 < gpaRankings.size()) {
+                for (Student s : dirty) {
+                    if (studentMap.get(s.getId()) == s) updateRankingFor(s);
+                }
+                return;
+            }
+            // most of the ranking changed: rebuild it from every stored student
+            Student[] all = studentMap.values().toArray(new Student[0]);
+            double[] gpas = new double[all.length];
+            rankedGpa.clear();
+            for (int i = 0; i < all.length; i++) {
+                gpas[i] = all[i].computeGPA();
+                rankedGpa.put(all[i].getId(), gpas[i]);
+            }
+            gpaRankings.rebuild(gpas, all);
+            rankingsSnapshot = null;
+        }
+    }
+
+    /**
+     * Journal used for durability; set through {@link JournalService#attach(DataStore)}
+     */
+    void setJournal(JournalService journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Block until every change journaled so far is on disk; returns at once
+     * when no journal is attached
+     */
+    public void syncJournal() throws IOException {
+        JournalService j = journal;
+        if (j != null) j.sync();
+    }
+
+    private void onGradeAdded(Student s, Grade g, int ordinal) {
+        JournalService j = journal;
+        if (j != null) j.logGrade(s, g, ordinal);
+        if (deferMaintenance(s)) return;
+        courseIndex.computeIfAbsent(g.getCourseCode(), k -> ConcurrentHashMap.newKeySet()).add(s);
+        updateRankingFor(s);
+    }
+
+    private void onEmailChanged(Student s, String oldEmail, String newEmail) {
+        removeFrom(emailDomainIndex, emailDomain(oldEmail), s);
+        String domain = emailDomain(newEmail);
+        if (domain != null) emailDomainIndex.computeIfAbsent(domain, k -> ConcurrentHashMap.newKeySet()).add(s);
+    }
+
+    private void indexStudent(Student s) {
+        for (String course : s.getCourses()) {
+            courseIndex.computeIfAbsent(course, k -> ConcurrentHashMap.newKeySet()).add(s);
+        }
+        onEmailChanged(s, null, s.getEmail());
+    }
+
+    // Drop a replaced student object from the secondary indexes
+    private void unindex(Student s) {
+        s.removeListener(listener);
+        numericIdMap.remove(s.getStudentId(), s);
+        for (String course : s.getCourses()) removeFrom(courseIndex, course, s);
+        removeFrom(emailDomainIndex, emailDomain(s.getEmail()), s);
+    }
+
+    private static void removeFrom(ConcurrentHashMap<String, Set<Student>> index, String key, Student s) {
+        if (key == null) return;
+        Set<Student> set = index.get(key);
+        // Students are equal by id, so only remove the exact object that was indexed
+        if (set != null) set.removeIf(x -> x == s);
+    }
+
+    private static String emailDomain(String email) {
+        if (email == null) return null;
+        int at = email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).toLowerCase();
+    }
+
     private double round(double v) {
         return Math.round(v * 100.0) / 100.0; // keep two decimals for grouping
     }
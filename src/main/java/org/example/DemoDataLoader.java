@@ -1,13 +1,11 @@
 package org.example;
 
-import java.util.List;
-
 /**
  * Populates the app with demo students and grades for presentation.
  */
 public class DemoDataLoader {
 
-    public static void loadSampleData(StudentManager sm, DataStore ds) {
+    public static void loadSampleData(StudentManager sm) {
         String[] names = new String[] {"John Doe","Anne O'Neill","Sam Carter","Maria Gomez","Liam Smith","Noah Brown","Olivia Davis","Emma Wilson","Ava Johnson","Sophia Lee","Mason Clark","Lucas Hall","Evelyn Young","Amelia King","Harper Wright"};
         String[] subjects = new String[] {"MAT101","ENG203","CS105","HIST210","BIO110"};
         String[] subjectNames = new String[] {"Mathematics","English","Computer Science","History","Biology"};
@@ -30,9 +28,8 @@ public class DemoDataLoader {
                 s.addGrade(grade);
             }
 
-            // Add to manager and central store
+            // The manager writes through to its DataStore
             sm.addStudent(s);
-            ds.addStudent(s);
         }
         System.out.println("Demo data loaded: " + names.length + " students (with sample grades)");
     }
@@ -3,33 +3,81 @@ package org.example;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * FileService: CSV streaming import, simple JSON export, and binary serialization.
+ * FileService: CSV streaming import, simple JSON export, compact binary export/import,
+ * columnar analytics export, and sharded (partitioned, concurrent) export of the whole store.
  */
 public class FileService {
 
+    /** Files at least this large are worth importing with {@link #importStudentsFromCsvParallel} */
+    public static final long PARALLEL_IMPORT_THRESHOLD = 4L * 1024 * 1024;
+    // Target size of one parallel import chunk; chunks end on line boundaries
+    private static final int IMPORT_CHUNK_BYTES = 4 * 1024 * 1024;
+    // A JSON number literal; course scores in a JSON import must look like this whether quoted or not
+    private static final Pattern JSON_SCORE = Pattern.compile("-?(0|[1-9]\\d*)(\\.\\d+)?([eE][+-]?\\d+)?");
+
     public static final Path DATA_DIR = Paths.get("data");
     public static final Path CSV_DIR = DATA_DIR.resolve("csv");
     public static final Path JSON_DIR = DATA_DIR.resolve("json");
     public static final Path BINARY_DIR = DATA_DIR.resolve("binary");
+    /** Where {@link #exportColumnar} writes analytics files */
+    public static final Path COLUMNAR_DIR = DATA_DIR.resolve("columnar");
+    /** Parent of the directories written by {@link #exportSharded} */
+    public static final Path SHARD_DIR = DATA_DIR.resolve("shards");
+    /** Name of the manifest in a sharded export directory */
+    public static final String MANIFEST_FILE = "manifest.json";
+    /** Where {@link #importStudentsFromCsvResumable} keeps its per-file checkpoints */
+    public static final Path CHECKPOINT_DIR = DATA_DIR.resolve("checkpoints");
+    /** File name suffix of quarantine files written by {@link #importStudentsFromCsvWithQuarantine} */
+    public static final String QUARANTINE_SUFFIX = ".rejected.csv";
+    /** Number of rejection messages an {@link ImportSummary} keeps */
+    public static final int MAX_LISTED_REJECTS = 1000;
+
+    private final Path checkpointDir;
 
     public FileService() throws IOException {
+        this(CHECKPOINT_DIR);
+    }
+
+    /**
+     * @param checkpointDir where the resumable imports keep their checkpoints
+     *        instead of {@link #CHECKPOINT_DIR}; created on first use
+     */
+    public FileService(Path checkpointDir) throws IOException {
         // ensure directories exist
         Files.createDirectories(CSV_DIR);
         Files.createDirectories(JSON_DIR);
         Files.createDirectories(BINARY_DIR);
+        this.checkpointDir = checkpointDir;
     }
 
     /**
@@ -37,117 +85,1155 @@ public class FileService {
      * id,name,email,phone,courseCode,courseName,score
         *
         * Implementation notes for demo/lab:
-        * - Uses `Files.lines(...)` to stream the file using NIO.2 and avoid
-        *   loading the entire file into memory (suitable for large files).
+        * - The file is read through a `FileChannel` a few MB at a time, so it
+        *   is never loaded into memory as a whole (suitable for large files).
+        * - Rows are split by a reusable `CsvTokenizer` (quoted fields such as
+        *   "O'Neill, Anne" are supported) instead of `split` + `trim`.
         * - Validation is delegated to `ValidationUtils` so parsing and
         *   validation responsibilities are separated and reusable.
         * - Error collection is returned to the caller so the UI can display
         *   which records failed and why.
+        * - Every grade records its source row (file name and byte offset), so
+        *   importing the same file into the same store again adds nothing.
+        *   This only holds for files that grow at the end: inserting,
+        *   removing or editing a row moves every later row to a new offset,
+        *   and those rows are then imported again as new grades.
+        * - gzip input (recognised by its magic bytes, whatever the file name)
+        *   is decompressed on the fly through `CompressedInput`; this applies
+        *   to every CSV import method, and nothing is unpacked to disk.
      */
     public List<String> importStudentsFromCsv(Path csvPath, DataStore store) throws IOException {
-        List<String> errors = new ArrayList<>();
-        try (Stream<String> lines = Files.lines(csvPath, StandardCharsets.UTF_8)) {
-            lines.skip(1).forEachOrdered(line -> {
-                try {
-                    String[] parts = line.split(",", -1);
-                    if (parts.length < 7) {
-                        errors.add("Invalid CSV line: " + line);
-                        return;
-                    }
-                    String id = parts[0].trim();
-                    String name = parts[1].trim();
-                    String email = parts[2].trim();
-                    String phone = parts[3].trim();
-                    String courseCode = parts[4].trim();
-                    String courseName = parts[5].trim();
-                    String scoreS = parts[6].trim();
-
-                    if (!ValidationUtils.isValidStudentId(id)) {
-                        errors.add(id + ": invalid student id");
-                        return;
-                    }
-                    if (!ValidationUtils.isValidName(name)) {
-                        errors.add(id + ": invalid name");
-                        return;
+        ErrorList errors = new ErrorList();
+        importCsv(csvPath, store, 1, IMPORT_CHUNK_BYTES, null, false, errors);
+        return errors.errors;
+    }
+
+    /**
+     * Parallel variant of {@link #importStudentsFromCsv(Path, DataStore)} for
+     * large extracts. Same CSV format, same resulting store contents and the
+     * same error list, in file order.
+     *
+     * The file is cut into byte ranges of about {@link #IMPORT_CHUNK_BYTES}
+     * whose boundaries are moved forward to the next line start, so no line
+     * is split. Chunks are split into lines, tokenized and validated
+     * concurrently on a fork-join pool; that is where the CPU time goes.
+     * Parsed rows are then applied to the store on the calling thread, chunk
+     * by chunk in file order, so students are created and grades appended in
+     * exactly the order the sequential import would use. Only a bounded
+     * window of parsed chunks is held in memory at a time.
+     *
+     * @param parallelism number of parser threads
+     */
+    public List<String> importStudentsFromCsvParallel(Path csvPath, DataStore store, int parallelism) throws IOException {
+        return importStudentsFromCsvParallel(csvPath, store, parallelism, IMPORT_CHUNK_BYTES);
+    }
+
+    // Chunk size is a parameter so tests can force many chunks on a small file
+    List<String> importStudentsFromCsvParallel(Path csvPath, DataStore store, int parallelism, int chunkBytes) throws IOException {
+        ErrorList errors = new ErrorList();
+        importCsv(csvPath, store, parallelism, chunkBytes, null, false, errors);
+        return errors.errors;
+    }
+
+    /**
+     * Incremental variant of the CSV import for files that only ever grow,
+     * such as the registrar's cumulative daily extract.
+     *
+     * After each chunk is applied the import records a checkpoint in the
+     * checkpoint directory (by default {@link #CHECKPOINT_DIR}): the byte
+     * offset reached plus a fingerprint of the file (CRC32 of its first 64 KB
+     * and of the 4 KB before the offset).
+     * The next run over a file with the same name checks the fingerprint and,
+     * if the bytes it covers are unchanged, starts at the offset, so only rows
+     * appended since are read. A file that was rewritten is imported from the
+     * start. Rows still at the offset they were imported from are recognised
+     * by their source and skipped, but rows that moved are imported again,
+     * so re-running is only free of duplicates for append-only files.
+     *
+     * When the store is journaled, the journal is synced before each
+     * checkpoint is written, so a checkpoint never covers rows that could be
+     * lost in a crash. An unterminated last line is applied but left outside
+     * the checkpoint, in case the file is still being written. A gzip file
+     * cannot be entered part way and is always read in full; its rows are
+     * still recognised and skipped by source.
+     *
+     * @param parallelism number of parser threads; 1 parses on the calling thread
+     */
+    public List<String> importStudentsFromCsvResumable(Path csvPath, DataStore store, int parallelism) throws IOException {
+        ErrorList errors = new ErrorList();
+        importCsv(csvPath, store, parallelism, IMPORT_CHUNK_BYTES, checkpointPath(csvPath), false, errors);
+        return errors.errors;
+    }
+
+    /**
+     * CSV import for files of any size and quality. Instead of returning a
+     * message for every bad line, rejected rows are streamed to a quarantine
+     * file next to the source ({@link #quarantinePathFor(Path)}): the original
+     * line, padded to the 7 import columns, plus a "reason" column. The import
+     * ignores columns after the seventh, so the quarantine file can be fixed
+     * and imported again as it is. Blank lines are counted but not
+     * quarantined.
+     *
+     * Only counts per rejection category and the first
+     * {@link #MAX_LISTED_REJECTS} messages are kept in memory.
+     *
+     * A full import replaces the previous quarantine file (and removes it if
+     * nothing was rejected); a run that resumes from a checkpoint appends to it.
+     *
+     * @param parallelism number of parser threads; 1 parses on the calling thread
+     * @param resume continue from the file's checkpoint, as
+     *               {@link #importStudentsFromCsvResumable(Path, DataStore, int)} does
+     */
+    public ImportSummary importStudentsFromCsvWithQuarantine(Path csvPath, DataStore store, int parallelism, boolean resume) throws IOException {
+        return importStudentsFromCsvWithQuarantine(csvPath, store, parallelism, resume, false);
+    }
+
+    // With completeLinesOnly an unterminated last line is left for a later run
+    // instead of being applied; used when tailing files that are still being written
+    ImportSummary importStudentsFromCsvWithQuarantine(Path csvPath, DataStore store, int parallelism, boolean resume,
+                                                      boolean completeLinesOnly) throws IOException {
+        Quarantine quarantine = new Quarantine(quarantinePathFor(csvPath));
+        try {
+            importCsv(csvPath, store, parallelism, IMPORT_CHUNK_BYTES, resume ? checkpointPath(csvPath) : null,
+                    completeLinesOnly, quarantine);
+        } finally {
+            quarantine.close();
+        }
+        return quarantine.summary();
+    }
+
+    /**
+     * Quarantine file for a CSV file: "grades.csv" (or "grades.csv.gz") -> "grades.rejected.csv" in the same directory
+     */
+    public static Path quarantinePathFor(Path csvPath) {
+        String name = csvPath.getFileName().toString();
+        if (name.toLowerCase().endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        return csvPath.resolveSibling(stem + QUARANTINE_SUFFIX);
+    }
+
+    /**
+     * Forget the checkpoint of a file so the next resumable import reads it from the start
+     */
+    public void resetCheckpoint(Path csvPath) throws IOException {
+        Files.deleteIfExists(checkpointPath(csvPath));
+    }
+
+    private Path checkpointPath(Path csvPath) {
+        return checkpointDir.resolve(csvPath.getFileName() + ".ckpt");
+    }
+
+    // Shared driver for the CSV imports: parse chunks of [start, size) on a pool
+    // (or inline when parallelism is 1) and apply them in file order
+    private static void importCsv(Path csvPath, DataStore store, int parallelism, int chunkBytes, Path checkpoint,
+                                  boolean completeLinesOnly, Rejects rejects) throws IOException {
+        if (CompressedInput.isGzip(csvPath)) {
+            // offsets are positions in the decompressed text, so grade sources still identify rows;
+            // a compressed file cannot be resumed part way, so it is always read in full
+            importGzipCsv(csvPath, store, parallelism, chunkBytes, rejects);
+            return;
+        }
+        String source = csvPath.getFileName().toString();
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        // rankings and indexes are brought up to date once, when the load commits
+        DataStore.BulkLoad load = store.beginBulkLoad();
+        try (FileChannel ch = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long start = alignToLineStart(ch, 0, size, true); // skip the header line
+            ImportCheckpoint resumeFrom = checkpoint == null ? null : ImportCheckpoint.read(checkpoint);
+            if (resumeFrom != null && resumeFrom.offset > start && resumeFrom.matches(ch)) {
+                start = resumeFrom.offset;
+                rejects.resumed = true;
+            }
+            // the checkpoint never moves past the last complete line
+            long complete = checkpoint == null && !completeLinesOnly ? size : completeLinesEnd(ch, size);
+            if (completeLinesOnly) size = complete;
+            long checkpointed = start;
+
+            ArrayDeque<ForkJoinTask<List<CsvRow>>> window = new ArrayDeque<>();
+            ArrayDeque<Long> windowEnds = new ArrayDeque<>();
+            int maxInFlight = Math.max(2, parallelism * 2);
+            while (start < size || !window.isEmpty()) {
+                long applied;
+                if (pool == null) {
+                    long end = alignToLineStart(ch, Math.min(size, start + Math.max(1, chunkBytes)), size, false);
+                    for (CsvRow row : parseChunk(ch, start, end, source)) applyRow(row, store, rejects);
+                    applied = start = end;
+                } else {
+                    while (start < size && window.size() < maxInFlight) {
+                        long end = alignToLineStart(ch, Math.min(size, start + Math.max(1, chunkBytes)), size, false);
+                        long chunkStart = start;
+                        window.add(pool.submit(() -> parseChunk(ch, chunkStart, end, source)));
+                        windowEnds.add(end);
+                        start = end;
                     }
+                    for (CsvRow row : join(window.poll())) applyRow(row, store, rejects);
+                    applied = windowEnds.poll();
+                }
+                if (checkpoint != null && Math.min(applied, complete) > checkpointed) {
+                    checkpointed = Math.min(applied, complete);
+                    store.syncJournal();
+                    ImportCheckpoint.of(ch, checkpointed).write(checkpoint);
+                }
+            }
+        } finally {
+            load.commit();
+            if (pool != null) pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Outcome of {@link #importStudentsFromCsvWithQuarantine}
+     */
+    public static class ImportSummary {
+        public final long rowsRead;
+        public final long rowsRejected;
+        public final Map<String, Long> rejectedByCategory; // e.g. "invalid course or grade" -> 12, in order of first occurrence
+        public final List<String> errors;                  // the first MAX_LISTED_REJECTS messages
+        public final Path quarantine;                      // null when this run quarantined no row
+
+        public ImportSummary(long rowsRead, long rowsRejected, Map<String, Long> rejectedByCategory, List<String> errors, Path quarantine) {
+            this.rowsRead = rowsRead;
+            this.rowsRejected = rowsRejected;
+            this.rejectedByCategory = Collections.unmodifiableMap(rejectedByCategory);
+            this.errors = Collections.unmodifiableList(errors);
+            this.quarantine = quarantine;
+        }
 
-                    Student s = store.getStudent(id);
-                    if (s == null) {
-                        s = new Student(id, name);
-                        s.setEmail(email.isEmpty() ? null : email);
-                        s.setPhone(phone.isEmpty() ? null : phone);
-                        store.addStudent(s);
+        @Override
+        public String toString() {
+            return "ImportSummary{rows=" + rowsRead + ", rejected=" + rowsRejected + ", byCategory=" + rejectedByCategory
+                    + ", quarantine=" + quarantine + "}";
+        }
+    }
+
+    // Where rejected rows go during a CSV import
+    private abstract static class Rejects {
+        long rowsRead;
+        boolean resumed; // the import continued from a checkpoint
+
+        abstract void reject(CsvRow row, String category, String message, String reason) throws IOException;
+    }
+
+    // Every message, in file order (the List<String> import methods)
+    private static final class ErrorList extends Rejects {
+        final List<String> errors = new ArrayList<>();
+
+        @Override
+        void reject(CsvRow row, String category, String message, String reason) {
+            errors.add(message);
+        }
+    }
+
+    // Rejected lines streamed to a file; bounded counts and messages in memory
+    private static final class Quarantine extends Rejects {
+        private final Path path;
+        private final Map<String, Long> byCategory = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private long rejected;
+        private long written;
+        private BufferedWriter out; // opened on the first quarantined line
+
+        Quarantine(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        void reject(CsvRow row, String category, String message, String reason) throws IOException {
+            rejected++;
+            byCategory.merge(category, 1L, Long::sum);
+            if (errors.size() < MAX_LISTED_REJECTS) errors.add(message);
+            if ("blank line".equals(category)) return;
+            if (out == null) open();
+            out.write(row.line);
+            for (int i = row.fieldCount; i < 7; i++) out.write(',');
+            out.write(",\"");
+            out.write(reason.replace("\"", "\"\""));
+            out.write('"');
+            out.newLine();
+            written++;
+        }
+
+        private void open() throws IOException {
+            boolean append = resumed && Files.exists(path) && Files.size(path) > 0;
+            out = append
+                    ? Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND)
+                    : Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            if (!append) {
+                out.write("id,name,email,phone,courseCode,courseName,score,reason");
+                out.newLine();
+            }
+        }
+
+        void close() throws IOException {
+            if (out != null) out.close();
+            else if (!resumed) Files.deleteIfExists(path); // left over from an earlier run
+        }
+
+        ImportSummary summary() {
+            return new ImportSummary(rowsRead, rejected, byCategory, errors, written > 0 ? path : null);
+        }
+    }
+
+    // Result of tokenizing and validating one CSV line; applied to the store separately
+    private static final class CsvRow {
+        String line;         // kept only when the row may be rejected
+        int fieldCount;
+        String error;        // whole line rejected
+        String category;     // rejection category for error / gradeError
+        String reason;       // why the line was rejected, for the quarantine file
+        String id, name, email, phone;
+        String contactError; // email/phone rejected, only matters if the student is new
+        String gradeError;   // student row fine, grade rejected
+        String courseCode, courseName;
+        double score;
+        String file;         // source of the grade: file name and byte offset of the line
+        long offset;
+
+        void reject(String category, String error, String reason) {
+            this.category = category;
+            this.error = error;
+            this.reason = reason;
+        }
+    }
+
+    // Fields are read through the tokenizer; ids, names and course strings are
+    // interned because they repeat across rows, the score is parsed in place
+    private static CsvRow parseRow(String line, CsvTokenizer tok) {
+        CsvRow row = new CsvRow();
+        row.line = line;
+        try {
+            row.fieldCount = tok.reset(line);
+            if (row.fieldCount < 7) {
+                row.reject(line.isBlank() ? "blank line" : "missing fields", "Invalid CSV line: " + line,
+                        "expected 7 fields, found " + row.fieldCount);
+                return row;
+            }
+            String id = tok.intern(0);
+            String name = tok.intern(1);
+            String email = tok.intern(2);
+            String phone = tok.intern(3);
+            String courseCode = tok.intern(4);
+            String courseName = tok.intern(5);
+
+            if (!ValidationUtils.isValidStudentId(id)) {
+                row.reject("invalid student id", id + ": invalid student id", "invalid student id");
+                return row;
+            }
+            if (!ValidationUtils.isValidName(name)) {
+                row.reject("invalid name", id + ": invalid name", "invalid name");
+                return row;
+            }
+            row.id = id;
+            row.name = name;
+            row.email = email.isEmpty() ? null : email;
+            row.phone = phone.isEmpty() ? null : phone;
+            row.contactError = contactError(row.email, row.phone);
+
+            if (!ValidationUtils.isValidCourseCode(courseCode) || !ValidationUtils.isValidGrade(tok.line(), tok.start(6), tok.end(6))) {
+                row.category = "invalid course or grade";
+                row.gradeError = id + ": invalid course or grade -> " + courseCode + "," + tok.getString(6);
+                return row;
+            }
+            row.courseCode = courseCode;
+            row.courseName = courseName;
+            row.score = tok.parseDouble(6);
+            if (row.contactError == null) row.line = null; // cannot be rejected any more
+        } catch (Exception ex) {
+            row.reject("unreadable row", "Exception parsing line: " + line + " -> " + ex.getMessage(), String.valueOf(ex.getMessage()));
+        }
+        return row;
+    }
+
+    private static void applyRow(CsvRow row, DataStore store, Rejects rejects) throws IOException {
+        rejects.rowsRead++;
+        if (row.error != null) {
+            rejects.reject(row, row.category, row.error, row.reason);
+            return;
+        }
+        Student s = studentFor(store, row.id, row.name, row.email, row.phone, row.contactError);
+        if (s == null) {
+            rejects.reject(row, "invalid email or phone", "Exception parsing line: " + row.line + " -> " + row.contactError, row.contactError);
+            return;
+        }
+        if (row.gradeError != null) {
+            rejects.reject(row, row.category, row.gradeError, "invalid course or grade");
+            return;
+        }
+        // the store re-ranks the student and indexes the course; a row imported before is skipped
+        s.addGrade(new Grade(row.courseCode, row.courseName, row.score, row.file + "@" + row.offset));
+    }
+
+    // Same checks and messages as Student.setEmail / setPhone; null when both are fine
+    private static String contactError(String email, String phone) {
+        if (email != null && !ValidationUtils.isValidEmail(email)) return "Invalid email: " + email;
+        if (phone != null && !ValidationUtils.isValidPhone(phone)) return "Invalid phone: " + phone;
+        return null;
+    }
+
+    // Existing student, or a new one added to the store; null when the student
+    // is new and its (already checked) contact details were rejected
+    private static Student studentFor(DataStore store, String id, String name, String email, String phone, String contactError) {
+        Student s = store.getStudent(id);
+        if (s != null) return s;
+        if (contactError != null) return null;
+        s = new Student(id, name);
+        s.restoreContact(email, phone);
+        store.addStudent(s);
+        return s;
+    }
+
+    /**
+     * Stream-import students from a JSON array of student objects, e.g.
+     * data/json/dummy_students_20.json:
+     * [{"id":"STU201","name":"...","email":"...","phone":"...",
+     *   "courses":[{"courseCode":"MAT101","courseName":"Mathematics","score":89}]}]
+     * A "grades" array (as written by {@link #exportStudentsToJson}) is read
+     * the same way as "courses"; other keys are skipped.
+     *
+     * The file is read with {@link JsonPullParser}, one student object at a
+     * time, so memory stays flat however large the file is. Records are
+     * validated and applied like CSV rows, and rejected records or grades are
+     * reported in the returned list with the same messages. A syntax error
+     * stops the import at that point and is reported as the last entry.
+     *
+     * Unlike the CSV import, which takes whole scores only, a score may have
+     * a fraction (the export writes e.g. 88.5). It is accepted as a JSON
+     * number (88.5) or as a string holding one ("88.5"), in [0, 100] either way.
+     */
+    public List<String> importStudentsFromJson(Path jsonPath, DataStore store) throws IOException {
+        List<String> errors = new ArrayList<>();
+        DataStore.BulkLoad load = store.beginBulkLoad();
+        try (JsonPullParser parser = new JsonPullParser(new InputStreamReader(
+                CompressedInput.decompressIfGzip(Files.newInputStream(jsonPath)), StandardCharsets.UTF_8))) {
+            if (parser.next() != JsonPullParser.Token.START_ARRAY) {
+                errors.add("Invalid JSON import: top-level array of students expected");
+                return errors;
+            }
+            JsonRecord record = new JsonRecord();
+            int recordNumber = 0;
+            while (parser.next() != JsonPullParser.Token.END_ARRAY) {
+                recordNumber++;
+                if (parser.current() != JsonPullParser.Token.START_OBJECT) {
+                    errors.add("Invalid JSON record " + recordNumber + ": student object expected");
+                    parser.skipValue();
+                    continue;
+                }
+                readRecord(parser, record);
+                applyRecord(record, recordNumber, jsonPath.getFileName().toString(), store, errors);
+            }
+        } catch (JsonPullParser.SyntaxException ex) {
+            errors.add(ex.getMessage());
+        } finally {
+            load.commit();
+        }
+        return errors;
+    }
+
+    // One student object from a JSON import; reused from record to record
+    private static final class JsonRecord {
+        String id, name, email, phone;
+        boolean typeError; // a student field had a non-string value
+        final List<String> codes = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<String> scores = new ArrayList<>(); // score text, for messages
+        final List<Double> values = new ArrayList<>(); // null when the score is invalid
+
+        void clear() {
+            id = name = email = phone = null;
+            typeError = false;
+            codes.clear();
+            names.clear();
+            scores.clear();
+            values.clear();
+        }
+    }
+
+    private static void readRecord(JsonPullParser parser, JsonRecord record) throws IOException {
+        record.clear();
+        while (parser.next() == JsonPullParser.Token.NAME) {
+            String key = parser.getString();
+            JsonPullParser.Token value = parser.next();
+            switch (key) {
+                case "id": record.id = jsonString(parser, record); break;
+                case "name": record.name = jsonString(parser, record); break;
+                case "email": record.email = jsonString(parser, record); break;
+                case "phone": record.phone = jsonString(parser, record); break;
+                case "courses":
+                case "grades":
+                    if (value == JsonPullParser.Token.START_ARRAY) readCourses(parser, record);
+                    else parser.skipValue();
+                    break;
+                default:
+                    parser.skipValue();
+            }
+        }
+    }
+
+    private static void readCourses(JsonPullParser parser, JsonRecord record) throws IOException {
+        while (parser.next() != JsonPullParser.Token.END_ARRAY) {
+            String code = null;
+            String name = null;
+            String scoreText = null;
+            Double score = null;
+            if (parser.current() == JsonPullParser.Token.START_OBJECT) {
+                while (parser.next() == JsonPullParser.Token.NAME) {
+                    String key = parser.getString();
+                    JsonPullParser.Token value = parser.next();
+                    if (key.equals("courseCode") && value == JsonPullParser.Token.STRING) {
+                        code = parser.getString();
+                    } else if (key.equals("courseName") && value == JsonPullParser.Token.STRING) {
+                        name = parser.getString();
+                    } else if (key.equals("score")
+                            && (value == JsonPullParser.Token.NUMBER || value == JsonPullParser.Token.STRING)) {
+                        scoreText = parser.getString();
+                        score = jsonScore(scoreText);
+                    } else {
+                        parser.skipValue();
                     }
+                }
+            } else {
+                parser.skipValue();
+            }
+            record.codes.add(code);
+            record.names.add(name);
+            record.scores.add(scoreText);
+            record.values.add(score);
+        }
+    }
+
+    // One rule for numeric and quoted scores: a JSON number in [0, 100]; null if it is not
+    private static Double jsonScore(String text) {
+        if (!JSON_SCORE.matcher(text).matches()) return null;
+        double v = Double.parseDouble(text);
+        return v >= 0 && v <= 100 ? v : null;
+    }
+
+    // String value of the current token; null for JSON null, other types flag the record
+    private static String jsonString(JsonPullParser parser, JsonRecord record) throws IOException {
+        switch (parser.current()) {
+            case STRING: return parser.getString().trim();
+            case NULL: return null;
+            default:
+                record.typeError = true;
+                parser.skipValue();
+                return null;
+        }
+    }
+
+    private static void applyRecord(JsonRecord r, int recordNumber, String file, DataStore store, List<String> errors) {
+        if (r.typeError) {
+            errors.add("Invalid JSON record " + recordNumber + ": id, name, email and phone must be strings");
+            return;
+        }
+        if (!ValidationUtils.isValidStudentId(r.id)) {
+            errors.add(r.id + ": invalid student id");
+            return;
+        }
+        if (!ValidationUtils.isValidName(r.name)) {
+            errors.add(r.id + ": invalid name");
+            return;
+        }
+        String email = r.email == null || r.email.isEmpty() ? null : r.email;
+        String phone = r.phone == null || r.phone.isEmpty() ? null : r.phone;
+        String contactError = contactError(email, phone);
+        Student s = studentFor(store, r.id, r.name, email, phone, contactError);
+        if (s == null) {
+            errors.add("Exception parsing record " + recordNumber + " (" + r.id + ") -> " + contactError);
+            return;
+        }
+        for (int i = 0; i < r.codes.size(); i++) {
+            String code = r.codes.get(i);
+            Double score = r.values.get(i);
+            if (!ValidationUtils.isValidCourseCode(code) || score == null) {
+                errors.add(r.id + ": invalid course or grade -> " + code + "," + r.scores.get(i));
+                continue;
+            }
+            // source: record number and position in its course list
+            s.addGrade(new Grade(code, r.names.get(i), score, file + "#" + recordNumber + "." + i));
+        }
+    }
 
-                    if (!ValidationUtils.isValidCourseCode(courseCode) || !ValidationUtils.isValidGrade(scoreS)) {
-                        errors.add(id + ": invalid course or grade -> " + courseCode + "," + scoreS);
-                        return;
+    // Read [start, end) and parse every line in it. Accepts \n and \r\n endings.
+    private static List<CsvRow> parseChunk(FileChannel ch, long start, long end, String file) throws IOException {
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, start + buf.position()) < 0) break;
+        }
+        return parseLines(bytes, 0, buf.position(), start, file);
+    }
+
+    // Parse the lines in bytes[from, limit); offset is the file position of bytes[0]
+    private static List<CsvRow> parseLines(byte[] bytes, int from, int limit, long offset, String file) {
+        List<CsvRow> rows = new ArrayList<>();
+        CsvTokenizer tokenizer = new CsvTokenizer();
+        int pos = from;
+        while (pos < limit) {
+            int nl = pos;
+            while (nl < limit && bytes[nl] != '\n') nl++;
+            int lineEnd = nl > pos && bytes[nl - 1] == '\r' ? nl - 1 : nl;
+            CsvRow row = parseRow(new String(bytes, pos, lineEnd - pos, StandardCharsets.UTF_8), tokenizer);
+            row.file = file;
+            row.offset = offset + pos;
+            rows.add(row);
+            pos = nl + 1;
+        }
+        return rows;
+    }
+
+    // Import from gzip input: decompressed on the calling thread in chunks of
+    // whole lines, which are parsed (on the pool, if any) and applied in order
+    private static void importGzipCsv(Path csvPath, DataStore store, int parallelism, int chunkBytes, Rejects rejects) throws IOException {
+        String source = csvPath.getFileName().toString();
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        DataStore.BulkLoad load = store.beginBulkLoad();
+        try (InputStream in = CompressedInput.decompressIfGzip(Files.newInputStream(csvPath))) {
+            LineChunker chunks = new LineChunker(in, Math.max(1, chunkBytes));
+            ArrayDeque<ForkJoinTask<List<CsvRow>>> window = new ArrayDeque<>();
+            int maxInFlight = Math.max(2, parallelism * 2);
+            boolean header = true;
+            while (true) {
+                while (window.size() < maxInFlight && chunks.next()) {
+                    byte[] bytes = chunks.bytes;
+                    int from = header ? chunks.lineEnd(0) : 0; // skip the header line
+                    int limit = chunks.length;
+                    long offset = chunks.offset;
+                    header = false;
+                    if (pool == null) {
+                        for (CsvRow row : parseLines(bytes, from, limit, offset, source)) applyRow(row, store, rejects);
+                    } else {
+                        window.add(pool.submit(() -> parseLines(bytes, from, limit, offset, source)));
                     }
+                }
+                if (window.isEmpty()) break;
+                for (CsvRow row : join(window.poll())) applyRow(row, store, rejects);
+            }
+        } finally {
+            load.commit();
+            if (pool != null) pool.shutdownNow();
+        }
+    }
+
+    // Cuts a stream into chunks of whole lines. Each chunk gets its own array,
+    // since it may still be being parsed while the next one is read.
+    private static final class LineChunker {
+        private final InputStream in;
+        private final int chunkBytes;
+        private byte[] carry = new byte[0]; // start of a line cut off at the end of the previous chunk
+        private boolean eof;
+        byte[] bytes;
+        int length;
+        long offset; // stream position of bytes[0]
+        private long nextOffset;
 
-                    double score = Double.parseDouble(scoreS);
-                    Grade g = new Grade(courseCode, courseName, score);
-                    s.addGrade(g);
-                    store.updateRankingFor(s);
-                } catch (Exception ex) {
-                    errors.add("Exception parsing line: " + line + " -> " + ex.getMessage());
+        LineChunker(InputStream in, int chunkBytes) {
+            this.in = in;
+            this.chunkBytes = chunkBytes;
+        }
+
+        // Read the next chunk; false at the end of the stream
+        boolean next() throws IOException {
+            if (eof && carry.length == 0) return false;
+            byte[] buf = new byte[Math.max(chunkBytes, carry.length * 2)];
+            System.arraycopy(carry, 0, buf, 0, carry.length);
+            int len = carry.length;
+            int cut = -1;
+            while (!eof) {
+                if (len == buf.length) {
+                    cut = lastLineEnd(buf, len);
+                    if (cut > 0) break;
+                    buf = Arrays.copyOf(buf, buf.length * 2); // a line longer than the chunk
                 }
-            });
+                int n = in.read(buf, len, buf.length - len);
+                if (n < 0) eof = true;
+                else len += n;
+            }
+            if (eof) cut = len; // the last line may be unterminated
+            carry = Arrays.copyOfRange(buf, cut, len);
+            bytes = buf;
+            length = cut;
+            offset = nextOffset;
+            nextOffset += cut;
+            return cut > 0 || !eof;
         }
-        return errors;
+
+        // Position just past the first '\n' at or after from, or the chunk length
+        int lineEnd(int from) {
+            for (int i = from; i < length; i++) {
+                if (bytes[i] == '\n') return i + 1;
+            }
+            return length;
+        }
+
+        private static int lastLineEnd(byte[] buf, int len) {
+            for (int i = len - 1; i >= 0; i--) {
+                if (buf[i] == '\n') return i + 1;
+            }
+            return -1;
+        }
+    }
+
+    // Position of the first line start at or after pos (pos itself if it already
+    // starts a line). With skipLine, the line containing pos is always skipped.
+    private static long alignToLineStart(FileChannel ch, long pos, long size, boolean skipLine) throws IOException {
+        if (pos >= size) return size;
+        if (!skipLine && pos == 0) return 0;
+        long at = skipLine ? pos : pos - 1; // a line starts at pos if the byte before it is '\n'
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        while (at < size) {
+            buf.clear();
+            int n = ch.read(buf, at);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') return at + i + 1;
+            }
+            at += n;
+        }
+        return size;
+    }
+
+    // End of the last '\n'-terminated line: size itself when the file ends with
+    // a newline, otherwise the start of the unterminated last line
+    private static long completeLinesEnd(FileChannel ch, long size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long at = size;
+        while (at > 0) {
+            int n = (int) Math.min(buf.capacity(), at);
+            buf.clear().limit(n);
+            long from = at - n;
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, from + buf.position()) < 0) break;
+            }
+            for (int i = buf.position() - 1; i >= 0; i--) {
+                if (buf.get(i) == '\n') return from + i + 1;
+            }
+            at = from;
+        }
+        return 0;
     }
 
     /**
-     * Export all students to a simple JSON array file.
+     * Progress of a resumable import: how far into the file it got, and a
+     * fingerprint of the bytes before that point so an appended file can be
+     * told apart from a rewritten one. Stored as a small properties file and
+     * replaced atomically.
      */
-    public Path exportStudentsToJson(DataStore store, String fileName) throws IOException {
-        Path out = JSON_DIR.resolve(fileName.endsWith(".json") ? fileName : (fileName + ".json"));
-        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
-            w.write("[");
-            boolean first = true;
-            DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-            for (Student s : store.getAllStudents()) {
-                if (!first) w.write(",\n");
-                first = false;
-                StringBuilder sb = new StringBuilder();
-                sb.append("  {");
-                sb.append("\"id\":\"").append(s.getId()).append('\"');
-                sb.append(", \"name\":\"").append(s.getName()).append('\"');
-                sb.append(", \"email\":\"").append(s.getEmail() == null ? "" : s.getEmail()).append('\"');
-                sb.append(", \"phone\":\"").append(s.getPhone() == null ? "" : s.getPhone()).append('\"');
-                sb.append(", \"gpa\":").append(s.computeGPA());
-                sb.append(", \"grades\": [");
-                boolean gFirst = true;
-                for (Grade g : s.getGradeHistory()) {
-                    if (!gFirst) sb.append(',');
-                    gFirst = false;
-                    sb.append("{\"courseCode\":\"").append(g.getCourseCode()).append('\"');
-                    sb.append(",\"courseName\":\"").append(g.getCourseName()).append('\"');
-                    sb.append(",\"score\":").append(g.getScore()).append('}');
-                }
-                sb.append("]}");
-                w.write(sb.toString());
+    private static final class ImportCheckpoint {
+        private static final int HEAD_BYTES = 64 * 1024;
+        private static final int TAIL_BYTES = 4 * 1024;
+
+        final long offset;
+        final long headCrc; // CRC32 of the first min(offset, 64 KB) bytes
+        final long tailCrc; // CRC32 of the 4 KB before offset
+
+        private ImportCheckpoint(long offset, long headCrc, long tailCrc) {
+            this.offset = offset;
+            this.headCrc = headCrc;
+            this.tailCrc = tailCrc;
+        }
+
+        static ImportCheckpoint of(FileChannel ch, long offset) throws IOException {
+            return new ImportCheckpoint(offset, headCrc(ch, offset), tailCrc(ch, offset));
+        }
+
+        // null if there is no checkpoint or it cannot be read
+        static ImportCheckpoint read(Path path) {
+            if (!Files.exists(path)) return null;
+            Properties p = new Properties();
+            try (java.io.Reader r = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                p.load(r);
+                return new ImportCheckpoint(Long.parseLong(p.getProperty("offset")),
+                        Long.parseLong(p.getProperty("headCrc")), Long.parseLong(p.getProperty("tailCrc")));
+            } catch (IOException | RuntimeException e) {
+                return null;
             }
-            w.write("\n]");
+        }
+
+        boolean matches(FileChannel ch) throws IOException {
+            return ch.size() >= offset && headCrc(ch, offset) == headCrc && tailCrc(ch, offset) == tailCrc;
+        }
+
+        void write(Path path) throws IOException {
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(tmp, "offset=" + offset + "\nheadCrc=" + headCrc + "\ntailCrc=" + tailCrc + "\n",
+                    StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private static long headCrc(FileChannel ch, long offset) throws IOException {
+            return crc(ch, 0, Math.min(offset, HEAD_BYTES));
+        }
+
+        private static long tailCrc(FileChannel ch, long offset) throws IOException {
+            long from = Math.max(0, offset - TAIL_BYTES);
+            return crc(ch, from, offset - from);
+        }
+
+        private static long crc(FileChannel ch, long from, long length) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate((int) length);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, from + buf.position()) < 0) break;
+            }
+            CRC32 crc = new CRC32();
+            buf.flip();
+            crc.update(buf);
+            return crc.getValue();
+        }
+    }
+
+    private static List<CsvRow> join(ForkJoinTask<List<CsvRow>> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("CSV import interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            throw new IOException("CSV import failed: " + cause, cause);
+        }
+    }
+
+    /**
+     * Export all students to a JSON array file in {@link #JSON_DIR}, one
+     * student object per line:
+     * {"id":"STU001","name":"...","email":"...","phone":"...","gpa":87.5,
+     *  "grades":[{"courseCode":"MAT101","courseName":"Mathematics","score":89.0}]}
+     * The file can be read back with {@link #importStudentsFromJson}.
+     */
+    public Path exportStudentsToJson(DataStore store, String fileName) throws IOException {
+        return exportStudentsToJson(store, fileName, false);
+    }
+
+    /**
+     * Export as above, optionally gzip-compressed (".json.gz").
+     *
+     * The export streams: students are written in the order they were added,
+     * from a snapshot of the store's student list (references only), and
+     * their grade histories are read without copying. Everything is encoded
+     * by a {@link JsonStreamWriter} into one reusable buffer that is written
+     * out in large blocks, so apart from that list memory use is the same for
+     * ten students or a million.
+     */
+    public Path exportStudentsToJson(DataStore store, String fileName, boolean gzip) throws IOException {
+        String name = fileName.endsWith(".json") ? fileName : (fileName + ".json");
+        Path out = JSON_DIR.resolve(gzip ? name + ".gz" : name);
+        try (OutputStream file = Files.newOutputStream(out);
+             OutputStream sink = gzip ? new GZIPOutputStream(file, CompressedInput.BUFFER_BYTES) : file;
+             JsonStreamWriter w = new JsonStreamWriter(sink)) {
+            w.beginArray();
+            for (Student s : store.getAllStudents()) writeStudentJson(w, s);
+            w.endArray();
         }
         return out;
     }
 
+    // One student object in the export format; empty strings for missing contact details
+    static void writeStudentJson(JsonStreamWriter w, Student s) throws IOException {
+        w.beginObject();
+        w.name("id").value(s.getId());
+        w.name("name").value(s.getName());
+        w.name("email").value(s.getEmail() == null ? "" : s.getEmail());
+        w.name("phone").value(s.getPhone() == null ? "" : s.getPhone());
+        w.name("gpa").value(s.computeGPA());
+        w.name("grades").beginArray();
+        for (Grade g : s.getGradeHistory()) {
+            w.beginObject();
+            w.name("courseCode").value(g.getCourseCode());
+            w.name("courseName").value(g.getCourseName());
+            w.name("score").value(g.getScore());
+            w.endObject();
+        }
+        w.endArray();
+        w.endObject();
+    }
+
     /**
-     * Binary serialization of the DataStore (students list). Uses ObjectOutputStream.
+     * Binary export of the DataStore (students and grade histories) in the
+     * compact {@link BinarySnapshotCodec} format.
      */
     public Path exportBinary(DataStore store, String fileName) throws IOException {
         Path out = BINARY_DIR.resolve(fileName.endsWith(".bin") ? fileName : (fileName + ".bin"));
-        try (OutputStream os = Files.newOutputStream(out); ObjectOutputStream oos = new ObjectOutputStream(os)) {
-            oos.writeObject(store.getAllStudents());
-        }
+        BinarySnapshotCodec.write(out, store.getAllStudents());
+        return out;
+    }
+
+    public List<Student> importBinary(Path path) throws IOException {
+        return BinarySnapshotCodec.read(path);
+    }
+
+    /**
+     * Export every grade to a {@link ColumnarGradeFile} in {@link #COLUMNAR_DIR}
+     * (".sgc"), for analytics that read a few columns such as score, course
+     * code and student type. Read it back with {@link ColumnarGradeFile#open}.
+     */
+    public Path exportColumnar(DataStore store, String fileName) throws IOException {
+        Files.createDirectories(COLUMNAR_DIR);
+        Path out = COLUMNAR_DIR.resolve(fileName.endsWith(".sgc") ? fileName : (fileName + ".sgc"));
+        ColumnarGradeFile.write(out, store.students());
         return out;
     }
 
-    @SuppressWarnings("unchecked")
-    public List<Student> importBinary(Path path) throws IOException, ClassNotFoundException {
-        try (InputStream is = Files.newInputStream(path); ObjectInputStream ois = new ObjectInputStream(is)) {
-            Object obj = ois.readObject();
-            return (List<Student>) obj;
+    /** Output formats of {@link #exportSharded} */
+    public enum ExportFormat {
+        JSON(".json"), CSV(".csv"), BINARY(".bin");
+
+        public final String extension;
+
+        ExportFormat(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Shard of a student id: {@code floorMod(id.hashCode(), shards)}.
+     * String.hashCode is fixed by the language spec, so consumers can route a
+     * lookup to the right shard without reading the others.
+     */
+    public static int shardOf(String studentId, int shards) {
+        return Math.floorMod(studentId.hashCode(), shards);
+    }
+
+    /**
+     * Export the whole store as {@code shards} files, one per
+     * partition of the student ids (see {@link #shardOf}), written
+     * concurrently. Uses up to one thread per core.
+     */
+    public ShardedExport exportSharded(DataStore store, String name, int shards, ExportFormat format) throws IOException {
+        return exportSharded(store, name, shards, format, Math.min(shards, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Sharded export into {@code SHARD_DIR/name/}:
+     * part-00000.json ... part-{N-1}.json (or .csv / .bin) and manifest.json.
+     *
+     * - One pass over the store's live view splits the students into N
+     *   lists (references only); then each shard is encoded and written by
+     *   its own task, so the export runs as fast as the disk allows instead
+     *   of on one core.
+     * - Shard files use the existing formats and import methods: JSON as
+     *   {@link #exportStudentsToJson}, CSV with the import header (one row per
+     *   grade; a student without grades is one row with empty course fields;
+     *   the CSV import takes whole scores only, so use JSON or binary when
+     *   scores have fractions), binary as {@link #exportBinary}.
+     * - The manifest lists each shard with its student and grade counts,
+     *   size and CRC32. It is written last, with an atomic rename, and the
+     *   previous one is removed first: a directory with a manifest holds a
+     *   complete export. Part files of an earlier export are deleted.
+     *
+     * @param name directory name for this export; a blank name, "." or "..",
+     *        or one containing a path separator is rejected, so an export
+     *        cannot write outside its own directory
+     */
+    public ShardedExport exportSharded(DataStore store, String name, int shards, ExportFormat format, int parallelism) throws IOException {
+        return exportSharded(store, SHARD_DIR, name, shards, format, parallelism);
+    }
+
+    // The output root is a parameter so tests can export into a temporary directory
+    ShardedExport exportSharded(DataStore store, Path root, String name, int shards, ExportFormat format, int parallelism) throws IOException {
+        if (shards < 1) throw new IllegalArgumentException("shards must be at least 1");
+        if (name == null || name.isBlank() || name.equals(".") || name.equals("..")
+                || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0) {
+            throw new IllegalArgumentException("Export name must be a plain directory name: '" + name + "'");
+        }
+        Path dir = root.resolve(name);
+        Files.createDirectories(dir);
+        Path manifest = dir.resolve(MANIFEST_FILE);
+        Files.deleteIfExists(manifest);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(dir, "part-*")) {
+            for (Path p : old) Files.delete(p);
+        }
+
+        List<List<Student>> partitions = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) partitions.add(new ArrayList<>());
+        for (Student s : store.students()) partitions.get(shardOf(s.getId(), shards)).add(s);
+
+        Shard[] written = new Shard[shards];
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            List<ForkJoinTask<Shard>> tasks = new ArrayList<>(shards);
+            for (int i = 0; i < shards; i++) {
+                Path file = dir.resolve(String.format("part-%05d%s", i, format.extension));
+                List<Student> students = partitions.get(i);
+                if (pool == null) {
+                    written[i] = writeShard(file, students, format);
+                } else {
+                    tasks.add(pool.submit(() -> writeShard(file, students, format)));
+                }
+            }
+            for (int i = 0; i < tasks.size(); i++) written[i] = joinShard(tasks.get(i));
+        } finally {
+            if (pool != null) pool.shutdownNow();
+        }
+
+        List<Shard> list = Arrays.asList(written);
+        Path tmp = dir.resolve(MANIFEST_FILE + ".tmp");
+        try (JsonStreamWriter w = new JsonStreamWriter(Files.newOutputStream(tmp), 1 << 12)) {
+            long students = 0;
+            long grades = 0;
+            for (Shard s : list) {
+                students += s.students;
+                grades += s.grades;
+            }
+            w.beginObject();
+            w.name("name").value(name);
+            w.name("format").value(format.name().toLowerCase());
+            w.name("partitioning").value("floorMod(id.hashCode(), shards)");
+            w.name("shards").value(shards);
+            w.name("students").value(students);
+            w.name("grades").value(grades);
+            w.name("files").beginArray();
+            for (int i = 0; i < shards; i++) {
+                Shard s = written[i];
+                w.beginObject();
+                w.name("shard").value(i);
+                w.name("file").value(s.file.getFileName().toString());
+                w.name("students").value(s.students);
+                w.name("grades").value(s.grades);
+                w.name("bytes").value(s.bytes);
+                w.name("crc32").value(s.crc32);
+                w.endObject();
+            }
+            w.endArray();
+            w.endObject();
+        }
+        Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new ShardedExport(dir, manifest, format, list);
+    }
+
+    /**
+     * Result of {@link #exportSharded}; shards are in shard order
+     */
+    public static class ShardedExport {
+        public final Path dir;
+        public final Path manifest;
+        public final ExportFormat format;
+        public final List<Shard> shards;
+
+        public ShardedExport(Path dir, Path manifest, ExportFormat format, List<Shard> shards) {
+            this.dir = dir;
+            this.manifest = manifest;
+            this.format = format;
+            this.shards = Collections.unmodifiableList(shards);
+        }
+
+        public long getStudentCount() {
+            long n = 0;
+            for (Shard s : shards) n += s.students;
+            return n;
+        }
+    }
+
+    /**
+     * One shard file as listed in the manifest
+     */
+    public static class Shard {
+        public final Path file;
+        public final int students;
+        public final long grades;
+        public final long bytes;
+        public final long crc32; // of the whole file
+
+        public Shard(Path file, int students, long grades, long bytes, long crc32) {
+            this.file = file;
+            this.students = students;
+            this.grades = grades;
+            this.bytes = bytes;
+            this.crc32 = crc32;
+        }
+    }
+
+    private static Shard writeShard(Path file, List<Student> students, ExportFormat format) throws IOException {
+        long grades = 0;
+        long crc;
+        if (format == ExportFormat.BINARY) {
+            BinarySnapshotCodec.write(file, students);
+            for (Student s : students) grades += s.getGradeCount();
+            crc = crc32Of(file);
+        } else {
+            // checksum the bytes on their way to the file
+            CheckedOutputStream checked = new CheckedOutputStream(Files.newOutputStream(file), new CRC32());
+            if (format == ExportFormat.JSON) {
+                try (JsonStreamWriter w = new JsonStreamWriter(checked)) {
+                    w.beginArray();
+                    for (Student s : students) {
+                        writeStudentJson(w, s);
+                        grades += s.getGradeCount();
+                    }
+                    w.endArray();
+                }
+            } else {
+                try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(checked, StandardCharsets.UTF_8), JsonStreamWriter.DEFAULT_BUFFER_BYTES)) {
+                    w.write("id,name,email,phone,courseCode,courseName,score\n");
+                    for (Student s : students) grades += writeStudentCsv(w, s);
+                }
+            }
+            crc = checked.getChecksum().getValue();
+        }
+        return new Shard(file, students.size(), grades, Files.size(file), crc);
+    }
+
+    // One row per grade in the import layout; returns the number of grades written
+    private static int writeStudentCsv(BufferedWriter w, Student s) throws IOException {
+        StringBuilder prefix = new StringBuilder(64);
+        csvField(prefix, s.getId()).append(',');
+        csvField(prefix, s.getName()).append(',');
+        csvField(prefix, s.getEmail()).append(',');
+        csvField(prefix, s.getPhone()).append(',');
+        List<Grade> history = s.getGradeHistory();
+        if (history.isEmpty()) {
+            w.append(prefix).append(",,\n");
+            return 0;
+        }
+        StringBuilder row = new StringBuilder(128);
+        for (Grade g : history) {
+            row.setLength(0);
+            row.append(prefix);
+            csvField(row, g.getCourseCode()).append(',');
+            csvField(row, g.getCourseName()).append(',');
+            double score = g.getScore();
+            if (score == (long) score) row.append((long) score); // the import's format for whole scores
+            else row.append(score);
+            row.append('\n');
+            w.append(row);
+        }
+        return history.size();
+    }
+
+    // Quoted only when needed, as CsvTokenizer reads it back
+    private static StringBuilder csvField(StringBuilder sb, String value) {
+        if (value == null) return sb;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return sb.append(value);
+        return sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static long crc32Of(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+            while (ch.read(buf) > 0) {
+                buf.flip();
+                crc.update(buf);
+                buf.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static Shard joinShard(ForkJoinTask<Shard> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sharded export interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Sharded export failed: " + cause, cause);
         }
     }
 }
@@ -0,0 +1,271 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order-statistic index of students sorted by GPA (highest first).
+ *
+ * Implemented as a treap (randomised balanced binary search tree) where
+ * every node also records the size of its subtree. The subtree sizes turn
+ * position questions into a single root-to-leaf walk, so all of the
+ * following run in O(log n) expected time:
+ * - insert / remove a student under a given GPA
+ * - rank of a student, student at a given position
+ * - top-K / bottom-K (plus O(k) to copy the result)
+ *
+ * Entries are ordered by GPA descending and then by student id, which keeps
+ * the order total and deterministic for students with equal GPAs. Callers
+ * must remove an entry with exactly the GPA it was inserted under, so the
+ * owner (see {@link DataStore}) remembers each student's last ranked GPA.
+ *
+ * Not thread-safe; the owner is expected to guard access.
+ */
+public class GpaRankingIndex {
+
+    private static final class Node {
+        final double gpa;
+        final String id;
+        final Student student;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(double gpa, Student student) {
+            this.gpa = gpa;
+            this.id = student.getId();
+            this.student = student;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Insert a student under the given GPA
+     */
+    public void insert(double gpa, Student student) {
+        Node node = new Node(gpa, student);
+        Node[] parts = split(root, gpa, node.id);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /**
+     * Replace the whole index with the given entries (gpas[i] belongs to
+     * students[i]). The entries are sorted once and the treap is built
+     * bottom-up in linear time, which is much cheaper than n inserts when most
+     * of the index changes at once, e.g. after a bulk load.
+     */
+    public void rebuild(double[] gpas, Student[] students) {
+        Node[] nodes = new Node[students.length];
+        for (int i = 0; i < nodes.length; i++) nodes[i] = new Node(gpas[i], students[i]);
+        java.util.Arrays.sort(nodes, (a, b) -> compare(a.gpa, a.id, b));
+        // Cartesian tree build: keep the right spine on a stack, popping
+        // nodes with a lower priority than the incoming one
+        Node[] spine = new Node[nodes.length];
+        int depth = 0;
+        for (Node node : nodes) {
+            Node last = null;
+            while (depth > 0 && spine[depth - 1].priority < node.priority) {
+                last = spine[--depth];
+                update(last);
+            }
+            node.left = last;
+            if (depth > 0) spine[depth - 1].right = node;
+            spine[depth++] = node;
+        }
+        while (depth > 0) update(spine[--depth]);
+        root = nodes.length == 0 ? null : spine[0];
+    }
+
+    /**
+     * Remove the entry for a student that was inserted under the given GPA
+     * @return true if an entry was removed
+     */
+    public boolean remove(double gpa, Student student) {
+        int before = size(root);
+        root = remove(root, gpa, student.getId());
+        return size(root) < before;
+    }
+
+    /**
+     * 1-based rank of the student ranked under the given GPA (1 = highest GPA)
+     * @return rank, or -1 when the entry is not present
+     */
+    public int rankOf(double gpa, Student student) {
+        String id = student.getId();
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            int c = compare(gpa, id, node);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                before += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return before + size(node.left) + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Student at a 0-based position in ranking order
+     */
+    public Student select(int position) {
+        if (position < 0 || position >= size(root)) throw new IndexOutOfBoundsException(position);
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (position < leftSize) {
+                node = node.left;
+            } else if (position == leftSize) {
+                return node.student;
+            } else {
+                position -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Students at positions [from, to) in ranking order
+     */
+    public List<Student> range(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(size(root), to);
+        List<Student> out = new ArrayList<>(Math.max(0, to - from));
+        if (from < to) collect(root, from, to, 0, out);
+        return out;
+    }
+
+    /**
+     * The k highest-ranked students, best first
+     */
+    public List<Student> top(int k) {
+        return range(0, k);
+    }
+
+    /**
+     * The k lowest-ranked students, still in ranking order (best of them first)
+     */
+    public List<Student> bottom(int k) {
+        int n = size(root);
+        return range(n - k, n);
+    }
+
+    /**
+     * Number of entries whose GPA is strictly greater than (or, if
+     * inclusive, greater than or equal to) the given value
+     */
+    public int countAbove(double gpa, boolean inclusive) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            boolean above = inclusive ? node.gpa >= gpa : node.gpa > gpa;
+            if (above) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visit every entry in ranking order
+     */
+    public void forEach(Visitor visitor) {
+        visit(root, visitor);
+    }
+
+    public interface Visitor {
+        void visit(double gpa, Student student);
+    }
+
+    private static void visit(Node node, Visitor visitor) {
+        if (node == null) return;
+        visit(node.left, visitor);
+        visitor.visit(node.gpa, node.student);
+        visit(node.right, visitor);
+    }
+
+    // In-order walk restricted to positions [from, to); base is the position
+    // of the first entry in this subtree. Subtrees outside the window are skipped.
+    private static void collect(Node node, int from, int to, int base, List<Student> out) {
+        if (node == null || base >= to || base + node.size <= from) return;
+        collect(node.left, from, to, base, out);
+        int position = base + size(node.left);
+        if (position >= from && position < to) out.add(node.student);
+        collect(node.right, from, to, position + 1, out);
+    }
+
+    private static Node remove(Node node, double gpa, String id) {
+        if (node == null) return null;
+        int c = compare(gpa, id, node);
+        if (c < 0) {
+            node.left = remove(node.left, gpa, id);
+        } else if (c > 0) {
+            node.right = remove(node.right, gpa, id);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    // Split into entries ordered before (gpa, id) and the rest
+    private static Node[] split(Node node, double gpa, String id) {
+        if (node == null) return new Node[] {null, null};
+        if (compare(gpa, id, node) > 0) {
+            Node[] parts = split(node.right, gpa, id);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        } else {
+            Node[] parts = split(node.left, gpa, id);
+            node.left = parts[1];
+            update(node);
+            parts[1] = node;
+            return parts;
+        }
+    }
+
+    // Merge two treaps where every entry of a is ordered before every entry of b
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+
+    // Ordering: higher GPA first, then student id ascending
+    private static int compare(double gpa, String id, Node node) {
+        int c = Double.compare(node.gpa, gpa);
+        return c != 0 ? c : id.compareTo(node.id);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
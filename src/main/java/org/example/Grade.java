@@ -30,12 +30,26 @@ public class Grade implements Serializable {
     private String gradeLevel;
     private boolean passing;
     private double gpa;
+    // Where an imported grade came from (e.g. "grades.csv@1024"); null for grades entered by hand
+    private final String source;
 
     public Grade(String courseCode, String courseName, double score) {
+        this(courseCode, courseName, score, null);
+    }
+
+    /**
+     * Grade read from an import file. The source names the row it came from
+     * (file name and byte offset or record number) and lets
+     * {@link Student#addGrade(Grade)} recognise the same row when a file is
+     * imported again. Rows are identified by position, so this only works for
+     * files that are appended to: a row that moved gets a new source.
+     */
+    public Grade(String courseCode, String courseName, double score, String source) {
         this.courseCode = courseCode;
         this.courseName = courseName;
         this.score = score;
         this.timestamp = LocalDateTime.now();
+        this.source = source;
     }
 
     // Legacy-compatible constructor
@@ -49,6 +63,28 @@ public class Grade implements Serializable {
         this.gradeLevel = gradeLevel;
         this.passing = passing;
         this.gpa = gpa;
+        this.source = null;
+    }
+
+    // Restore constructor used when reading persisted grades (journal, snapshots).
+    // Every field, including the original timestamp, is supplied by the caller.
+    public Grade(int studentId, Subject subject, String courseCode, String courseName, double score,
+                 String gradeLevel, boolean passing, double gpa, LocalDateTime timestamp) {
+        this(studentId, subject, courseCode, courseName, score, gradeLevel, passing, gpa, timestamp, null);
+    }
+
+    public Grade(int studentId, Subject subject, String courseCode, String courseName, double score,
+                 String gradeLevel, boolean passing, double gpa, LocalDateTime timestamp, String source) {
+        this.courseCode = courseCode;
+        this.courseName = courseName;
+        this.score = score;
+        this.timestamp = timestamp;
+        this.studentId = studentId;
+        this.subject = subject;
+        this.gradeLevel = gradeLevel;
+        this.passing = passing;
+        this.gpa = gpa;
+        this.source = source;
     }
 
     public String getCourseCode() {
@@ -67,6 +103,19 @@ public class Grade implements Serializable {
         return timestamp;
     }
 
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Same import row: equal source, course code and score
+     */
+    boolean isSameImport(Grade other) {
+        return source != null && source.equals(other.source)
+                && java.util.Objects.equals(courseCode, other.courseCode)
+                && Double.compare(score, other.score) == 0;
+    }
+
     // Compatibility getters used by older code
     public int getStudentId() { return studentId; }
     public Subject getSubject() { return subject; }
@@ -0,0 +1,114 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Encodings shared by the binary grade formats: {@link BinarySnapshotCodec},
+ * {@link ColumnarGradeFile}, {@link MappedGradeRepository} and the in-memory
+ * {@link ColumnarGradeRepository} (plus the journal records). Keeping them in
+ * one place means the formats cannot drift apart on what a stored code means.
+ *
+ * - Grade levels are stored as their index in {@link #LEVELS}; -1 means no
+ *   level was recorded. The order is part of the file formats: append only.
+ * - Subject types are 0 (none), 1 (core) and 2 (elective); as flag bits they
+ *   are {@link #CORE} and {@link #ELECTIVE}, next to {@link #PASSING}.
+ * - Integers are unsigned LEB128 varints, signed values zig-zag encoded
+ *   first. Strings are a varint prefix (0 = null, otherwise UTF-8 length + 1)
+ *   followed by the bytes.
+ * - Timestamps are epoch milliseconds, the LocalDateTime read as UTC.
+ */
+final class GradeEncoding {
+    private GradeEncoding() {}
+
+    static final String[] LEVELS = {"A+", "A", "B", "C", "D", "E", "F"};
+
+    // Grade flag bits
+    static final byte PASSING = 1;
+    static final byte CORE = 1 << 1;
+    static final byte ELECTIVE = 1 << 2;
+
+    static final int MAX_VARLONG_BYTES = 10;
+
+    /** Index of a level in {@link #LEVELS}, -1 for null or an unknown level */
+    static byte levelCode(String level) {
+        if (level == null) return -1;
+        for (byte code = 0; code < LEVELS.length; code++) {
+            if (LEVELS[code].equals(level)) return code;
+        }
+        return -1;
+    }
+
+    /** Level for a stored code; -1 is null */
+    static String level(int code) {
+        return code < 0 ? null : LEVELS[code];
+    }
+
+    static int subjectType(Subject subject) {
+        return subject instanceof CoreSubject ? 1 : subject instanceof ElectiveSubject ? 2 : 0;
+    }
+
+    static Subject subjectOfType(int type, String name, String code) {
+        return type == 1 ? new CoreSubject(name, code) : type == 2 ? new ElectiveSubject(name, code) : null;
+    }
+
+    /** PASSING, CORE and ELECTIVE bits of a grade */
+    static byte flags(Grade grade) {
+        int type = subjectType(grade.getSubject());
+        return (byte) ((grade.isPassing() ? PASSING : 0) | (type == 1 ? CORE : type == 2 ? ELECTIVE : 0));
+    }
+
+    /** Subject type recorded in flag bits */
+    static int subjectType(byte flags) {
+        return (flags & CORE) != 0 ? 1 : (flags & ELECTIVE) != 0 ? 2 : 0;
+    }
+
+    /**
+     * Write a varint into dst at pos; dst needs {@link #MAX_VARLONG_BYTES} free
+     * @return the position after it
+     */
+    static int putVarLong(byte[] dst, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            dst[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        dst[pos++] = (byte) v;
+        return pos;
+    }
+
+    /**
+     * @throws IllegalStateException for a varint longer than 64 bits
+     * @throws java.nio.BufferUnderflowException if the buffer ends inside it
+     */
+    static long getVarLong(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static long zigZag(long v) { return (v << 1) ^ (v >> 63); }
+    static long unZigZag(long v) { return (v >>> 1) ^ -(v & 1); }
+
+    /** String length prefix for UTF-8 bytes, null for a null string */
+    static int lengthPrefix(byte[] utf8) {
+        return utf8 == null ? 0 : utf8.length + 1;
+    }
+
+    /** Byte length encoded by a string prefix; -1 for null */
+    static int lengthOf(long prefix) {
+        return (int) (prefix - 1);
+    }
+
+    static long toEpochMillis(LocalDateTime ts) {
+        return ts.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
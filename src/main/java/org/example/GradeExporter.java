@@ -1,86 +1,160 @@
 package org.example;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Handles exporting a student's grade report to a file (text format).
  *
  * Responsible for formatting the report content and writing it to disk.
+ * Single and bulk exports share {@link #appendReport}, so a report reads the
+ * same whichever way it was produced.
  */
 public class GradeExporter implements IFileExporter {
+    // Combined exports hand the file system large writes
+    private static final int WRITE_BUFFER_CHARS = 1 << 16;
+
     private String lastExportedFilename;
-    
+
     @Override
     public void exportGradeReport(Student student, IGradeRepository repository) {
         // Note: This is a simple text exporter intended for demos.
         // For production-quality reports consider using a templating
         // library or a PDF generation library for richer formatting.
-        String filename = "GradeReport_" + student.getStudentId() + "_" + 
-                         student.getName().replace(" ", "_") + ".txt";
+        String filename = reportFileName(student);
         this.lastExportedFilename = filename;
-        
+
         try {
-            FileWriter writer = new FileWriter(filename);
-            
-            // Write header
-            writer.write("========================================\n");
-            writer.write("       GRADE REPORT\n");
-            writer.write("========================================\n\n");
-            writer.write("Student ID: " + student.getStudentId() + "\n");
-            writer.write("Name: " + student.getName() + "\n");
-            writer.write("Age: " + student.getAge() + "\n");
-            writer.write("Type: " + student.getStudentType() + "\n");
-            writer.write("\n========================================\n");
-            writer.write("       GRADES\n");
-            writer.write("========================================\n\n");
-            
             // Get student's grades from repository
             Grade[] studentGrades = repository.getStudentGrades(student.getStudentId());
-            
-            int gradeCount = 0;
-            double total = 0;
-            double totalGPA = 0;
-            
-            // Write each grade
-            for (Grade grade : studentGrades) {
-                writer.write(String.format("%-20s: %6.2f (%2s) - GPA: %.2f\n",
-                           grade.getSubject().getSubjectName(),
-                           grade.getScore(),
-                           grade.getGradeLevel(),
-                           grade.getGpa()));
-                total += grade.getScore();
-                totalGPA += grade.getGpa();
-                gradeCount++;
+            StringBuilder report = new StringBuilder(1024);
+            appendReport(report, new Formatter(report), student, Arrays.asList(studentGrades));
+            try (Writer writer = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8)) {
+                writer.append(report);
             }
-            
-            // Write summary
-            if (gradeCount > 0) {
-                double average = total / gradeCount;
-                double avgGPA = totalGPA / gradeCount;
-                writer.write("\n========================================\n");
-                writer.write("       SUMMARY\n");
-                writer.write("========================================\n\n");
-                writer.write("Total Subjects: " + gradeCount + "\n");
-                writer.write("Average Score: " + String.format("%.2f", average) + "\n");
-                writer.write("Average GPA: " + String.format("%.2f", avgGPA) + "\n");
-            } else {
-                writer.write("\nNo grades recorded yet.\n");
-            }
-            
-            writer.write("\n========================================\n");
-            writer.write("End of Report\n");
-            writer.write("========================================\n");
-            
-            writer.close();
             System.out.println("\n✓ Grade report exported successfully to: " + filename);
-            
+
         } catch (IOException e) {
             System.out.println("Error exporting grade report: " + e.getMessage());
         }
     }
-    
+
+    /**
+     * Bulk export: the repository is read once, with one
+     * {@link IGradeRepository#getAllGrades()} pass grouping grades by
+     * student, instead of one {@link IGradeRepository#getStudentGrades} scan
+     * per student. Each report is built in one reused buffer and written
+     * through a buffered NIO writer; in combined mode all reports go through
+     * a single writer, back to back in student order.
+     */
+    @Override
+    public int exportAllGradeReports(Collection<Student> students, IGradeRepository repository, Path target,
+                                     boolean combined) throws IOException {
+        Map<Integer, List<Grade>> byStudent = new HashMap<>();
+        for (Grade grade : repository.getAllGrades()) {
+            byStudent.computeIfAbsent(grade.getStudentId(), k -> new ArrayList<>()).add(grade);
+        }
+
+        StringBuilder report = new StringBuilder(4096);
+        Formatter formatter = new Formatter(report);
+        int written = 0;
+        if (combined) {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(target), StandardCharsets.UTF_8),
+                    WRITE_BUFFER_CHARS)) {
+                for (Student student : students) {
+                    report.setLength(0);
+                    appendReport(report, formatter, student, byStudent.getOrDefault(student.getStudentId(), Collections.emptyList()));
+                    out.append(report);
+                    written++;
+                }
+            }
+        } else {
+            Files.createDirectories(target);
+            for (Student student : students) {
+                report.setLength(0);
+                appendReport(report, formatter, student, byStudent.getOrDefault(student.getStudentId(), Collections.emptyList()));
+                try (Writer out = Files.newBufferedWriter(target.resolve(reportFileName(student)), StandardCharsets.UTF_8)) {
+                    out.append(report);
+                }
+                written++;
+            }
+        }
+        this.lastExportedFilename = target.toString();
+        return written;
+    }
+
     @Override
     public String getLastExportedFilename() {
         return lastExportedFilename;
     }
+
+    static String reportFileName(Student student) {
+        return "GradeReport_" + student.getStudentId() + "_" +
+               student.getName().replace(" ", "_") + ".txt";
+    }
+
+    // The text report; formatter writes into report
+    static void appendReport(StringBuilder report, Formatter formatter, Student student, List<Grade> studentGrades) {
+        // Write header
+        report.append("========================================\n");
+        report.append("       GRADE REPORT\n");
+        report.append("========================================\n\n");
+        report.append("Student ID: ").append(student.getStudentId()).append('\n');
+        report.append("Name: ").append(student.getName()).append('\n');
+        report.append("Age: ").append(student.getAge()).append('\n');
+        report.append("Type: ").append(student.getStudentType()).append('\n');
+        report.append("\n========================================\n");
+        report.append("       GRADES\n");
+        report.append("========================================\n\n");
+
+        int gradeCount = 0;
+        double total = 0;
+        double totalGPA = 0;
+
+        // Write each grade
+        for (Grade grade : studentGrades) {
+            // grades imported without a level/GPA are graded with the student's rules
+            String level = grade.getGradeLevel() != null ? grade.getGradeLevel() : student.getGradeLevel(grade.getScore());
+            double gpa = grade.getGradeLevel() != null ? grade.getGpa() : student.calculateGPA(grade.getScore());
+            formatter.format("%-20s: %6.2f (%2s) - GPA: %.2f\n",
+                       grade.getCourseName(),
+                       grade.getScore(),
+                       level,
+                       gpa);
+            total += grade.getScore();
+            totalGPA += gpa;
+            gradeCount++;
+        }
+
+        // Write summary
+        if (gradeCount > 0) {
+            double average = total / gradeCount;
+            double avgGPA = totalGPA / gradeCount;
+            report.append("\n========================================\n");
+            report.append("       SUMMARY\n");
+            report.append("========================================\n\n");
+            report.append("Total Subjects: ").append(gradeCount).append('\n');
+            formatter.format("Average Score: %.2f\n", average);
+            formatter.format("Average GPA: %.2f\n", avgGPA);
+        } else {
+            report.append("\nNo grades recorded yet.\n");
+        }
+
+        report.append("\n========================================\n");
+        report.append("End of Report\n");
+        report.append("========================================\n");
+    }
 }
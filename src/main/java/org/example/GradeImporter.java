@@ -1,6 +1,28 @@
 package org.example;
 
-import java.io.*;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Responsible for importing grades from CSV files into the grade repository.
@@ -8,12 +30,37 @@ import java.io.*;
  * Responsibilities include parsing CSV lines, validating fields, locating
  * students, constructing Grade objects, and recording import success/failure
  * counts. The class focuses solely on import concerns.
+ *
+ * The non-interactive {@link #importGrades(Path, IGradeRepository, StudentManager)}
+ * runs a bounded three-stage pipeline:
+ * - a reader thread cuts the input into batches of lines,
+ * - parse workers tokenize, validate and build Grade objects in parallel,
+ * - the calling thread commits batches to the repository in file order, so
+ *   the repository only ever sees a single writer.
+ * The queues are bounded and a semaphore caps the number of batches between
+ * the reader and the committer, so memory stays capped on large files and a
+ * slow repository pushes back on the reader. The interactive
+ * {@link #importGrades(IGradeRepository, StudentManager)} is a thin wrapper.
+ * Compressed (.csv.gz) input is inflated by the reader stage, so it costs no
+ * extra disk space or memory over plain text.
  */
 public class GradeImporter implements IGradeImporter {
+    private static final int BATCH_LINES = 1024;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private final int workers;
     private int successCount;
     private int failCount;
     
     public GradeImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * @param workers number of parse/validate workers in the import pipeline
+     */
+    public GradeImporter(int workers) {
+        this.workers = Math.max(1, workers);
         this.successCount = 0;
         this.failCount = 0;
     }
@@ -28,99 +75,318 @@ public class GradeImporter implements IGradeImporter {
         failCount = 0;
         
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(filename));
-            String line;
-            int lineNumber = 0;
-            
             System.out.println("\nImporting grades from: " + filename);
             System.out.println("Expected format: StudentID,SubjectName,SubjectCode,SubjectType,Score");
             System.out.println("Example: 1,Math,MATH101,Core,85.5\n");
             
+            ImportResult result = importGrades(Paths.get(filename), repository, studentManager);
+            result.errors.forEach(System.out::println);
+            if (result.failed > result.errors.size()) {
+                System.out.println("... " + (result.failed - result.errors.size()) + " more skipped lines not shown");
+            }
+            
+            System.out.println("\n========================================");
+            System.out.println("Import Complete!");
+            System.out.println("Successfully imported: " + successCount + " grades");
+            System.out.println("Failed: " + failCount + " records");
+            System.out.println("Time: " + result.totalMs + " ms");
+            System.out.println("========================================");
+            
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            System.out.println("Error: File not found - " + filename);
+        } catch (IOException e) {
+            System.out.println("Error reading file: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Import grades from a CSV file without any console interaction.
+     * Expected format: StudentID,SubjectName,SubjectCode,SubjectType,Score
+     * (an optional header line is skipped).
+     * @return counts, timings and the messages for skipped lines
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult importGrades(Path csv, IGradeRepository repository, StudentManager studentManager) throws IOException {
+        try (InputStream in = Files.newInputStream(csv)) {
+            return importGrades(in, repository, studentManager);
+        }
+    }
+    
+    /**
+     * Import grades from a UTF-8 CSV stream; see {@link #importGrades(Path, IGradeRepository, StudentManager)}.
+     * gzip-compressed input is recognised by its magic bytes and decompressed
+     * as it is read. The stream is read to the end but not closed.
+     */
+    public ImportResult importGrades(InputStream in, IGradeRepository repository, StudentManager studentManager) throws IOException {
+        long startNanos = System.nanoTime();
+        InputStream text = CompressedInput.decompressIfGzip(in); // inflated by the reader thread
+        int window = workers * 4;
+        BlockingQueue<Batch> toParse = new ArrayBlockingQueue<>(window);
+        BlockingQueue<Batch> toCommit = new ArrayBlockingQueue<>(window);
+        Semaphore inFlight = new Semaphore(window); // batches read but not yet committed
+        AtomicLong parseNanos = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(workers + 1, r -> {
+            Thread t = new Thread(r, "grade-import");
+            t.setDaemon(true);
+            return t;
+        });
+        
+        Counts counts = new Counts();
+        List<String> errors = new ArrayList<>();
+        try {
+            Future<Long> reader = pool.submit(() -> readBatches(text, toParse, inFlight));
+            List<Future<?>> parsers = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                parsers.add(pool.submit(() -> {
+                    CsvTokenizer tokenizer = new CsvTokenizer();
+                    while (true) {
+                        Batch batch = toParse.take();
+                        if (batch.lines == null) {
+                            toCommit.put(batch); // end marker, one per worker
+                            return null;
+                        }
+                        long t = System.nanoTime();
+                        parseBatch(batch, tokenizer, studentManager);
+                        parseNanos.addAndGet(System.nanoTime() - t);
+                        toCommit.put(batch);
+                    }
+                }));
+            }
+            
+            // Commit stage: this thread, batches applied strictly in sequence order
+            long commitNanos = 0;
+            Map<Integer, Batch> pending = new HashMap<>();
+            int nextSeq = 0;
+            int finishedWorkers = 0;
+            // students get ranked and indexed once, after the import, when the repository writes to the store
+            DataStore.BulkLoad load = studentManager.getStore().beginBulkLoad();
+            try {
+                while (finishedWorkers < workers) {
+                    Batch batch = toCommit.poll(100, TimeUnit.MILLISECONDS);
+                    if (batch == null) {
+                        checkFailed(reader);
+                        for (Future<?> p : parsers) checkFailed(p);
+                        continue;
+                    }
+                    if (batch.lines == null) {
+                        finishedWorkers++;
+                        continue;
+                    }
+                    pending.put(batch.seq, batch);
+                    for (Batch next; (next = pending.remove(nextSeq)) != null; nextSeq++) {
+                        long t = System.nanoTime();
+                        commit(next, repository, counts, errors);
+                        commitNanos += System.nanoTime() - t;
+                        inFlight.release();
+                    }
+                }
+            } finally {
+                load.commit();
+            }
+            checkFailed(reader);
+            long readNanos = reader.get();
+            
+            successCount = counts.imported;
+            failCount = counts.failed;
+            return new ImportResult(counts.lines, counts.imported, counts.failed, counts.skipped, errors,
+                    toMillis(System.nanoTime() - startNanos), toMillis(readNanos),
+                    toMillis(parseNanos.get()), toMillis(commitNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Grade import interrupted", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Grade import failed: " + cause, cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Outcome of a non-interactive import
+     */
+    public static class ImportResult {
+        public final int linesRead;
+        public final int imported;
+        public final int failed;
+        public final int skipped;         // blank lines and the header
+        public final List<String> errors; // "Line N skipped - ..." messages, at most the first 1000
+        public final long totalMs;
+        public final long readMs;         // reader stage, including time blocked on a full pipeline
+        public final long parseMs;        // summed over all parse workers
+        public final long commitMs;       // time spent writing to the repository
+        
+        public ImportResult(int linesRead, int imported, int failed, int skipped, List<String> errors,
+                            long totalMs, long readMs, long parseMs, long commitMs) {
+            this.linesRead = linesRead;
+            this.imported = imported;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.errors = Collections.unmodifiableList(errors);
+            this.totalMs = totalMs;
+            this.readMs = readMs;
+            this.parseMs = parseMs;
+            this.commitMs = commitMs;
+        }
+        
+        @Override
+        public String toString() {
+            return "ImportResult{lines=" + linesRead + ", imported=" + imported + ", failed=" + failed
+                    + ", skipped=" + skipped + ", totalMs=" + totalMs + ", readMs=" + readMs
+                    + ", parseMs=" + parseMs + ", commitMs=" + commitMs + "}";
+        }
+    }
+    
+    // A run of consecutive input lines; lines == null marks the end of input
+    private static final class Batch {
+        final int seq;
+        final int firstLine; // 1-based line number of lines[0]
+        final String[] lines;
+        int count;
+        Grade[] grades;      // parse result per line, null when rejected or skipped
+        String[] errors;     // message per rejected line
+        
+        Batch(int seq, int firstLine, String[] lines) {
+            this.seq = seq;
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+    
+    private static final class Counts {
+        int lines;
+        int imported;
+        int failed;
+        int skipped;
+    }
+    
+    // Reader stage; returns the time spent in this stage
+    private long readBatches(InputStream in, BlockingQueue<Batch> toParse, Semaphore inFlight) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+            int seq = 0;
+            int lineNumber = 0;
+            Batch batch = null;
+            String line;
             while ((line = reader.readLine()) != null) {
                 lineNumber++;
+                if (batch == null) {
+                    inFlight.acquire(); // back-pressure: wait for the committer to catch up
+                    batch = new Batch(seq++, lineNumber, new String[BATCH_LINES]);
+                }
+                batch.lines[batch.count++] = line;
+                if (batch.count == BATCH_LINES) {
+                    toParse.put(batch);
+                    batch = null;
+                }
+            }
+            if (batch != null) toParse.put(batch);
+            return System.nanoTime() - start;
+        } finally {
+            // always release the workers, even if reading failed
+            for (int i = 0; i < workers; i++) toParse.put(new Batch(-1, 0, null));
+        }
+    }
+    
+    // Parse stage: the same checks, in the same order, as the original line-by-line import.
+    // Fields may now be quoted; trailing empty fields are dropped as String.split did,
+    // so "1,Math,MATH101,Core,85," (as spreadsheets write it) is still accepted.
+    private static void parseBatch(Batch batch, CsvTokenizer tokenizer, StudentManager studentManager) {
+        batch.grades = new Grade[batch.count];
+        batch.errors = new String[batch.count];
+        for (int i = 0; i < batch.count; i++) {
+            String line = batch.lines[i];
+            int lineNumber = batch.firstLine + i;
+            
+            // Skip empty lines
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            
+            // Skip header line if it exists
+            if (lineNumber == 1 && line.toLowerCase().contains("student")) {
+                continue;
+            }
+            
+            int fields = tokenizer.reset(line);
+            while (fields > 0 && tokenizer.isEmpty(fields - 1)) fields--;
+            if (fields != 5) {
+                batch.errors[i] = "Line " + lineNumber + " skipped - invalid format: " + line;
+                continue;
+            }
+            
+            try {
+                int studentId = tokenizer.parseInt(0);
+                double score = tokenizer.parseDouble(4);
                 
-                // Skip empty lines
-                if (line.trim().isEmpty()) {
+                // Find student
+                Student student = studentManager.findStudent(studentId);
+                if (student == null) {
+                    batch.errors[i] = "Line " + lineNumber + " skipped - student ID " + studentId + " not found";
                     continue;
                 }
                 
-                // Skip header line if it exists
-                if (lineNumber == 1 && line.toLowerCase().contains("student")) {
+                // Create subject
+                Subject subject;
+                if (tokenizer.fieldEquals(3, "Core", true)) {
+                    subject = new CoreSubject(tokenizer.intern(1), tokenizer.intern(2));
+                } else if (tokenizer.fieldEquals(3, "Elective", true)) {
+                    subject = new ElectiveSubject(tokenizer.intern(1), tokenizer.intern(2));
+                } else {
+                    batch.errors[i] = "Line " + lineNumber + " skipped - invalid subject type: " + tokenizer.getString(3);
                     continue;
                 }
                 
-                String[] parts = line.split(",");
-                
-                if (parts.length != 5) {
-                    System.out.println("Line " + lineNumber + " skipped - invalid format: " + line);
-                    failCount++;
+                // Validate score
+                if (score < 0 || score > 100) {
+                    batch.errors[i] = "Line " + lineNumber + " skipped - invalid score: " + score;
                     continue;
                 }
                 
+                // Create grade
+                String level = student.getGradeLevel(score);
+                boolean pass = student.isPassing(score);
+                double gpa = student.calculateGPA(score);
+                batch.grades[i] = new Grade(studentId, subject, score, level, pass, gpa);
+                
+            } catch (NumberFormatException e) {
+                batch.errors[i] = "Line " + lineNumber + " skipped - invalid number format: " + line;
+            }
+        }
+    }
+    
+    // Commit stage: single writer to the repository
+    private static void commit(Batch batch, IGradeRepository repository, Counts counts, List<String> errors) {
+        counts.lines += batch.count;
+        for (int i = 0; i < batch.count; i++) {
+            if (batch.grades[i] != null) {
                 try {
-                    int studentId = Integer.parseInt(parts[0].trim());
-                    String subjectName = parts[1].trim();
-                    String subjectCode = parts[2].trim();
-                    String subjectType = parts[3].trim();
-                    double score = Double.parseDouble(parts[4].trim());
-                    
-                    // Find student
-                    Student student = studentManager.findStudent(studentId);
-                    if (student == null) {
-                        System.out.println("Line " + lineNumber + " skipped - student ID " + studentId + " not found");
-                        failCount++;
-                        continue;
-                    }
-                    
-                    // Create subject
-                    Subject subject;
-                    if (subjectType.equalsIgnoreCase("Core")) {
-                        subject = new CoreSubject(subjectName, subjectCode);
-                    } else if (subjectType.equalsIgnoreCase("Elective")) {
-                        subject = new ElectiveSubject(subjectName, subjectCode);
-                    } else {
-                        System.out.println("Line " + lineNumber + " skipped - invalid subject type: " + subjectType);
-                        failCount++;
-                        continue;
-                    }
-                    
-                    // Validate score
-                    if (score < 0 || score > 100) {
-                        System.out.println("Line " + lineNumber + " skipped - invalid score: " + score);
-                        failCount++;
-                        continue;
-                    }
-                    
-                    // Create and store grade
-                    String level = student.getGradeLevel(score);
-                    boolean pass = student.isPassing(score);
-                    double gpa = student.calculateGPA(score);
-                    
-                    Grade grade = new Grade(studentId, subject, score, level, pass, gpa);
-                    repository.addGrade(grade);
-                    successCount++;
-                    
-                } catch (NumberFormatException e) {
-                    System.out.println("Line " + lineNumber + " skipped - invalid number format: " + line);
-                    failCount++;
+                    repository.addGrade(batch.grades[i]);
+                    counts.imported++;
+                } catch (IllegalArgumentException e) {
+                    // the repository cannot store this grade (e.g. a field too long for a mapped slot)
+                    counts.failed++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) errors.add("Grade skipped - " + e.getMessage());
                 }
+            } else if (batch.errors[i] != null) {
+                counts.failed++;
+                if (errors.size() < MAX_REPORTED_ERRORS) errors.add(batch.errors[i]);
+            } else {
+                counts.skipped++;
             }
-            
-            reader.close();
-            
-            System.out.println("\n========================================");
-            System.out.println("Import Complete!");
-            System.out.println("Successfully imported: " + successCount + " grades");
-            System.out.println("Failed: " + failCount + " records");
-            System.out.println("========================================");
-            
-        } catch (FileNotFoundException e) {
-            System.out.println("Error: File not found - " + filename);
-        } catch (IOException e) {
-            System.out.println("Error reading file: " + e.getMessage());
         }
     }
     
+    private static void checkFailed(Future<?> stage) throws InterruptedException, java.util.concurrent.ExecutionException {
+        if (stage.isDone()) stage.get();
+    }
+    
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+    
     @Override
     public int getSuccessCount() {
         return successCount;
@@ -72,11 +72,14 @@ public class GradeManager {
         double totalGPA = 0;
         
         for (Grade grade : studentGrades) {
-            System.out.println(grade.getSubject().getSubjectName() + ": " + 
-                             grade.getScore() + " (" + grade.getGradeLevel() + ") - GPA: " + 
-                             String.format("%.2f", grade.getGpa()));
+            // grades imported without a level/GPA are graded with the student's rules
+            String level = grade.getGradeLevel() != null ? grade.getGradeLevel() : student.getGradeLevel(grade.getScore());
+            double gpa = grade.getGradeLevel() != null ? grade.getGpa() : student.calculateGPA(grade.getScore());
+            System.out.println(grade.getCourseName() + ": " + 
+                             grade.getScore() + " (" + level + ") - GPA: " + 
+                             String.format("%.2f", gpa));
             total += grade.getScore();
-            totalGPA += grade.getGpa();
+            totalGPA += gpa;
             gradeCount++;
         }
         
@@ -93,6 +96,15 @@ public class GradeManager {
         fileExporter.exportGradeReport(student, gradeRepository);
     }
     
+    /**
+     * Export the reports of many students into a directory or one combined file
+     * (delegate to exporter)
+     */
+    public int exportAllGradeReports(java.util.Collection<Student> students, java.nio.file.Path target, boolean combined)
+            throws java.io.IOException {
+        return fileExporter.exportAllGradeReports(students, gradeRepository, target, combined);
+    }
+    
     /**
      * Bulk import grades (delegate to importer)
      */
@@ -7,6 +7,11 @@ public class HonorsStudent extends Student {
         super(name, age);
     }
     
+    // Restore constructor used by persistence (see Student)
+    protected HonorsStudent(String id, int studentId, String name, int age) {
+        super(id, studentId, name, age);
+    }
+    
     @Override
     public String getStudentType() {
         return "Honors";
@@ -1,5 +1,9 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
 /**
  * DEPENDENCY INVERSION PRINCIPLE (DIP)
  * 
@@ -20,6 +24,18 @@ public interface IFileExporter {
      */
     void exportGradeReport(Student student, IGradeRepository repository);
     
+    /**
+     * Export the reports of many students, each exactly as
+     * {@link #exportGradeReport} would write it
+     * @param students the students whose grades to export
+     * @param repository the grade repository to read from
+     * @param target directory for one file per student, or the single file receiving all reports
+     * @param combined true to write all reports, in order, into the one target file
+     * @return number of reports written
+     */
+    int exportAllGradeReports(Collection<Student> students, IGradeRepository repository, Path target, boolean combined)
+            throws IOException;
+    
     /**
      * Get the name of the last exported file
      * @return filename that was created
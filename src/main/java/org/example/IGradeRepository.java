@@ -47,4 +47,64 @@ public interface IGradeRepository {
      * @return true if no more space for grades
      */
     boolean isFull();
+    
+    /**
+     * Get every stored score as a primitive array.
+     * The returned array is a fresh copy that the caller may sort or modify.
+     * Implementations that keep scores in a primitive column should override
+     * this to avoid walking Grade objects.
+     * @return scores in insertion order
+     */
+    default double[] getAllScores() {
+        Grade[] allGrades = getAllGrades();
+        double[] scores = new double[allGrades.length];
+        for (int i = 0; i < allGrades.length; i++) {
+            scores[i] = allGrades[i].getScore();
+        }
+        return scores;
+    }
+    
+    /**
+     * Count the grades flagged as passing
+     * @return number of passing grades
+     */
+    default int getPassingCount() {
+        int passing = 0;
+        for (Grade grade : getAllGrades()) {
+            if (grade.isPassing()) passing++;
+        }
+        return passing;
+    }
+    
+    /**
+     * Count grades per letter band, using the first letter of the grade level
+     * (so "A+" counts as "A"). Grades without a level are not counted.
+     * @return counts indexed A, B, C, D, E, F
+     */
+    default int[] getGradeDistribution() {
+        int[] distribution = new int[6];
+        for (Grade grade : getAllGrades()) {
+            int band = gradeBand(grade.getGradeLevel());
+            if (band >= 0) distribution[band]++;
+        }
+        return distribution;
+    }
+    
+    /**
+     * Map a grade level to its distribution band (A=0 ... F=5)
+     * @param gradeLevel level such as "A+", "B" or "F"
+     * @return band index, or -1 when the level is missing or unknown
+     */
+    static int gradeBand(String gradeLevel) {
+        if (gradeLevel == null || gradeLevel.isEmpty()) return -1;
+        switch (gradeLevel.charAt(0)) {
+            case 'A': return 0;
+            case 'B': return 1;
+            case 'C': return 2;
+            case 'D': return 3;
+            case 'E': return 4;
+            case 'F': return 5;
+            default: return -1;
+        }
+    }
 }
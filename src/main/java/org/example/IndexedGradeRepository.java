@@ -0,0 +1,69 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unbounded, student-indexed grade repository.
+ *
+ * Unlike {@link GradeRepository} this implementation never fills up: grades
+ * are kept in a growable list and, alongside it, a per-student index
+ * (`studentId -> grades`) is maintained on every write. That makes
+ * {@link #getStudentGrades(int)} cost O(grades for that student) instead of
+ * two full scans over every stored grade, which matters for report paths
+ * such as `GradeExporter.exportGradeReport` and `GradeManager.viewGradeReport`.
+ *
+ * Writes and reads are synchronized on the repository so the list and the
+ * index never disagree.
+ */
+public class IndexedGradeRepository implements IGradeRepository {
+    private static final Grade[] EMPTY = new Grade[0];
+
+    private final List<Grade> grades = new ArrayList<>();
+    private final Map<Integer, List<Grade>> gradesByStudent = new HashMap<>();
+
+    /**
+     * Add a grade to storage and to the owning student's index entry
+     */
+    @Override
+    public synchronized void addGrade(Grade grade) {
+        grades.add(grade);
+        gradesByStudent.computeIfAbsent(grade.getStudentId(), k -> new ArrayList<>()).add(grade);
+    }
+
+    /**
+     * Get all grades for a student (insertion order)
+     */
+    @Override
+    public synchronized Grade[] getStudentGrades(int studentId) {
+        List<Grade> studentGrades = gradesByStudent.get(studentId);
+        if (studentGrades == null) return EMPTY;
+        return studentGrades.toArray(EMPTY);
+    }
+
+    /**
+     * Get all grades stored (insertion order)
+     */
+    @Override
+    public synchronized Grade[] getAllGrades() {
+        return grades.toArray(EMPTY);
+    }
+
+    /**
+     * Get total number of grades
+     */
+    @Override
+    public synchronized int getGradeCount() {
+        return grades.size();
+    }
+
+    /**
+     * Storage grows on demand, so it is never full
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+}
@@ -0,0 +1,232 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watch-folder ingestion: keeps importing the CSV files that upstream systems
+ * drop into a directory (by default {@link FileService#CSV_DIR}).
+ *
+ * - A {@link WatchService} reports created and modified files. A periodic
+ *   task on the {@link SchedulerService} drains its events; the imports run
+ *   on the {@link TaskQueue}, so several files arriving together are
+ *   ingested in parallel while one file is never imported twice at once.
+ * - Every run goes through
+ *   {@link FileService#importStudentsFromCsvWithQuarantine} with resume on,
+ *   which starts at the file's last checkpoint (kept in the FileService's
+ *   checkpoint directory). A file that keeps growing is
+ *   therefore tailed: each change only reads the rows appended since.
+ * - A file modified within the last quiet period is treated as still being
+ *   written, and its unterminated last line is left for a later run. Such
+ *   files are re-checked on every tick until they settle.
+ * - Files already in the directory at start-up are scanned once; the
+ *   checkpoints make this cheap for files ingested before a restart.
+ * - Compressed extracts (*.csv.gz) are picked up too. They cannot be tailed
+ *   and are re-read in full when they change; rows seen before are skipped.
+ *
+ * Rejected rows go to the file's quarantine file
+ * ({@link FileService#quarantinePathFor(Path)}), which the watcher itself
+ * ignores; the rows are counted, the most recent messages are kept for
+ * display, and each run is written to the audit log.
+ */
+public class IngestionService {
+    private static final String TASK_NAME = "csv-ingest";
+    private static final int TASK_PRIORITY = 1; // below interactive work
+    private static final int MAX_RECENT_ERRORS = 100;
+
+    private final Path dir;
+    private final DataStore store;
+    private final FileService fileService;
+    private final SchedulerService scheduler;
+    private final TaskQueue taskQueue;
+    private final AuditLogger audit;
+    private final Map<Path, FileState> files = new ConcurrentHashMap<>();
+    private final ArrayDeque<String> recentErrors = new ArrayDeque<>(); // guarded by itself
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong rejectedRows = new AtomicLong();
+    private volatile WatchService watcher;
+    private volatile long quietMillis;
+
+    // Per-file scheduling state
+    private static final class FileState {
+        final AtomicBoolean queued = new AtomicBoolean();
+        volatile boolean unsettled; // last run stopped before an unterminated last line
+    }
+
+    public IngestionService(Path dir, DataStore store, FileService fileService, SchedulerService scheduler,
+                            TaskQueue taskQueue, AuditLogger audit) {
+        this.dir = dir;
+        this.store = store;
+        this.fileService = fileService;
+        this.scheduler = scheduler;
+        this.taskQueue = taskQueue;
+        this.audit = audit;
+    }
+
+    /**
+     * Start watching the directory
+     * @param period how often to look for changes
+     * @param quiet files modified more recently than this are treated as still being written
+     */
+    public synchronized void start(long period, long quiet, TimeUnit unit) throws IOException {
+        if (watcher != null) return;
+        Files.createDirectories(dir);
+        WatchService ws = FileSystems.getDefault().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = ws;
+        quietMillis = unit.toMillis(quiet);
+        scanDirectory();
+        scheduler.scheduleAtFixedRate(TASK_NAME, this::poll, period, period, unit);
+    }
+
+    public synchronized void stop() {
+        WatchService ws = watcher;
+        if (ws == null) return;
+        scheduler.cancel(TASK_NAME);
+        watcher = null;
+        try {
+            ws.close();
+        } catch (IOException ignored) {
+            // nothing left to release
+        }
+    }
+
+    public boolean isRunning() {
+        return watcher != null;
+    }
+
+    /** Number of import runs completed */
+    public long getRunCount() {
+        return runs.get();
+    }
+
+    /** Rows rejected across all runs */
+    public long getRejectedRowCount() {
+        return rejectedRows.get();
+    }
+
+    /** Most recent rejection messages, oldest first, each prefixed with the file name */
+    public List<String> getRecentErrors() {
+        synchronized (recentErrors) {
+            return new ArrayList<>(recentErrors);
+        }
+    }
+
+    // One scheduler tick: drain watch events, then re-check files still being written.
+    // Nothing may escape: an exception would silently cancel the fixed-rate task.
+    private void poll() {
+        WatchService ws = watcher;
+        if (ws == null) return;
+        try {
+            WatchKey key;
+            while ((key = ws.poll()) != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scanDirectory(); // events were lost
+                    } else {
+                        schedule(dir.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    System.err.println("Ingestion stopped: " + dir + " is no longer accessible");
+                    stop();
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            return; // stopped concurrently
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ingestion scan failed: " + e);
+        }
+        try {
+            files.forEach((file, state) -> {
+                if (state.unsettled) schedule(file);
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Ingestion scan failed: " + e); // e.g. the task queue was shut down
+        }
+    }
+
+    private void scanDirectory() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "*.{csv,csv.gz}")) {
+            for (Path file : entries) schedule(file);
+        }
+    }
+
+    private void schedule(Path file) {
+        String name = file.getFileName().toString();
+        String lower = name.toLowerCase();
+        if (!(lower.endsWith(".csv") || lower.endsWith(".csv.gz")) || name.startsWith(".")) return;
+        if (name.endsWith(FileService.QUARANTINE_SUFFIX)) return; // our own output; rename it to re-ingest
+        FileState state = files.computeIfAbsent(file, k -> new FileState());
+        // at most one queued run per file; a change during a run queues the next one
+        if (state.queued.compareAndSet(false, true)) {
+            try {
+                taskQueue.submit(() -> ingest(file, state), TASK_PRIORITY);
+            } catch (RuntimeException e) {
+                state.queued.set(false); // not queued after all; a later change may try again
+                throw e;
+            }
+        }
+    }
+
+    private void ingest(Path file, FileState state) {
+        synchronized (state) {
+            if (!Files.isRegularFile(file)) {
+                state.queued.set(false);
+                files.remove(file, state);
+                return;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                long size;
+                boolean growing;
+                try {
+                    size = Files.size(file);
+                    growing = start - Files.getLastModifiedTime(file).toMillis() < quietMillis;
+                } finally {
+                    // a change after this point queues another run; one before it is covered by this run
+                    state.queued.set(false);
+                }
+                int parallelism = size >= FileService.PARALLEL_IMPORT_THRESHOLD ? Runtime.getRuntime().availableProcessors() : 1;
+                FileService.ImportSummary summary = fileService.importStudentsFromCsvWithQuarantine(file, store, parallelism, true, growing);
+                state.unsettled = growing;
+                runs.incrementAndGet();
+                rejectedRows.addAndGet(summary.rowsRejected);
+                String name = file.getFileName().toString();
+                synchronized (recentErrors) {
+                    for (String error : summary.errors) {
+                        if (recentErrors.size() == MAX_RECENT_ERRORS) recentErrors.removeFirst();
+                        recentErrors.addLast(name + ": " + error);
+                    }
+                }
+                if (audit != null) {
+                    audit.log("Ingest", name + " (" + summary.rowsRead + " rows, " + summary.rowsRejected + " rejected"
+                                    + (summary.quarantine == null ? "" : ", see " + summary.quarantine.getFileName()) + ")",
+                            System.currentTimeMillis() - start, summary.rowsRejected == 0);
+                }
+            } catch (IOException | RuntimeException e) {
+                state.unsettled = true; // retry on the next tick
+                if (audit != null) {
+                    audit.log("Ingest", file.getFileName() + " failed: " + e.getMessage(), System.currentTimeMillis() - start, false);
+                }
+            }
+        }
+    }
+}
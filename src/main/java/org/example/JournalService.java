@@ -0,0 +1,536 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal and snapshot persistence for the {@link DataStore}.
+ *
+ * How it works:
+ * - Every student added to the store and every grade added to one of its
+ *   students is appended to a journal segment (`journal-N.log`) as a small
+ *   length-prefixed, CRC-checked record.
+ * - Appends are queued and written by a single background thread. Each batch
+ *   of queued records is written and then fsynced once (group commit), so
+ *   durability costs one `force` per batch rather than one per record.
+ * - {@link #snapshot(DataStore)} rotates to a new segment N, writes the whole
+ *   store to `snapshot-N.snap` in the {@link BinarySnapshotCodec} format
+ *   (temp file + atomic rename) and deletes the older segments and
+ *   snapshots. Journals therefore stay short.
+ * - {@link #recover(DataStore)} loads the newest snapshot and replays only
+ *   the segments written after it, so restart time is proportional to recent
+ *   activity rather than to the whole history.
+ *
+ * Grade records carry the grade's position in the student's history. Replay
+ * skips positions already contained in the snapshot, which keeps recovery
+ * correct even when a grade is captured by a snapshot and also journaled in
+ * the following segment. A torn record at the end of a segment (crash during
+ * write) fails its length/CRC check and ends replay of that segment.
+ */
+public class JournalService implements AutoCloseable {
+    public static final Path DEFAULT_DIR = FileService.DATA_DIR.resolve("journal");
+
+    private static final byte ADD_STUDENT = 1;
+    private static final byte ADD_GRADE = 2;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path dir;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Object snapshotLock = new Object();
+    private final Object queueLock = new Object(); // makes "still running?" and the add one step
+    private boolean running = true; // guarded by queueLock
+    private volatile boolean attached;
+
+    // Owned by the writer thread
+    private FileChannel segment;
+    private long segmentNumber;
+    private long committedBytes; // end of the last forced group in the current segment
+
+    public JournalService() throws IOException {
+        this(DEFAULT_DIR);
+    }
+
+    public JournalService(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        // Always start a fresh segment; a torn tail in an old one is simply where its replay stops
+        this.segmentNumber = Math.max(latestNumber(SEGMENT_PREFIX, SEGMENT_SUFFIX), latestNumber(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) + 1;
+        this.segment = openSegment(segmentNumber);
+        this.writer = new Thread(this::writerLoop, "JournalService-Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Load the latest snapshot and replay newer journal segments into the store.
+     * Must run before {@link #attach(DataStore)} so replayed data is not journaled again.
+     * @return number of journal records applied
+     */
+    public int recover(DataStore store) throws IOException {
+        long snapshotNumber = latestNumber(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        Map<String, Integer> baseline = new HashMap<>();
+        // rank and index every restored student once, after the last record
+        DataStore.BulkLoad load = store.beginBulkLoad();
+        try {
+            if (snapshotNumber > 0) {
+                readSnapshot(snapshotPath(snapshotNumber), store);
+                for (Student s : store.students()) baseline.put(s.getId(), s.getGradeCount());
+            }
+
+            int applied = 0;
+            Map<String, BitSet> replayed = new HashMap<>();
+            for (long n : numbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (n < snapshotNumber || n >= segmentNumber) continue;
+                applied += replaySegment(segmentPath(n), store, baseline, replayed);
+            }
+            return applied;
+        } finally {
+            load.commit();
+        }
+    }
+
+    /**
+     * Start journaling mutations of the store (students added from now on and
+     * grades added to any of its students)
+     */
+    public void attach(DataStore store) {
+        attached = true;
+        store.setJournal(this);
+    }
+
+    public boolean isAttached() {
+        return attached;
+    }
+
+    /**
+     * Journal a student together with any grades it already holds
+     */
+    public CompletableFuture<Void> logStudent(Student s) {
+        CompletableFuture<Void> last = enqueue(encodeStudent(s));
+        List<Grade> existing = s.getGradeHistory();
+        for (int i = 0; i < existing.size(); i++) {
+            last = enqueue(encodeGrade(s, existing.get(i), i));
+        }
+        return last;
+    }
+
+    public CompletableFuture<Void> logGrade(Student s, Grade g, int ordinal) {
+        return enqueue(encodeGrade(s, g, ordinal));
+    }
+
+    /**
+     * Block until every record queued so far is on disk
+     */
+    public void sync() throws IOException {
+        await(enqueue(Pending.barrier()));
+    }
+
+    /**
+     * Write a compacted snapshot of the store and drop the journal segments it covers
+     * @return path of the snapshot written
+     */
+    public Path snapshot(DataStore store) throws IOException {
+        synchronized (snapshotLock) {
+            // 1. rotate: everything queued before this point lands in older segments
+            Pending rotate = Pending.rotate();
+            await(enqueue(rotate));
+            long covered = rotate.newSegment;
+
+            // 2. write the store state; it contains every grade journaled in older segments
+            Path target = snapshotPath(covered);
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            writeSnapshot(tmp, store);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // 3. older segments and snapshots are now redundant
+            for (long n : numbers(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (n < covered) Files.deleteIfExists(segmentPath(n));
+            }
+            for (long n : numbers(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (n < covered) Files.deleteIfExists(snapshotPath(n));
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Take snapshots periodically through the shared scheduler
+     */
+    public void scheduleSnapshots(SchedulerService scheduler, DataStore store, long period, TimeUnit unit) {
+        scheduler.scheduleAtFixedRate("journal-snapshot", () -> {
+            try {
+                snapshot(store);
+            } catch (IOException e) {
+                System.err.println("Journal snapshot failed: " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Flush outstanding records and stop the writer thread. The writer is
+     * stopped by a marker queued behind every record accepted so far, not
+     * by an interrupt, which would close the segment channel under a write.
+     * Records offered after this call fail with an IOException.
+     */
+    @Override
+    public void close() throws IOException {
+        Pending stop = Pending.stop();
+        synchronized (queueLock) {
+            if (!running) return;
+            running = false;
+            queue.add(stop);
+        }
+        try {
+            await(stop.done);
+        } finally {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- writer
+
+    private CompletableFuture<Void> enqueue(byte[] payload) {
+        return enqueue(Pending.record(payload));
+    }
+
+    private CompletableFuture<Void> enqueue(Pending p) {
+        synchronized (queueLock) {
+            if (running) {
+                queue.add(p);
+                return p.done;
+            }
+        }
+        p.done.completeExceptionally(new IOException("Journal is closed"));
+        return p.done;
+    }
+
+    private void writerLoop() {
+        List<Pending> batch = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+        CRC32 crc = new CRC32();
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                buf = writeBatch(batch, buf, crc);
+            } catch (InterruptedException e) {
+                continue; // only close() stops the writer
+            } catch (Exception e) {
+                // records of the failed batch must not be written with the next one, nor
+                // leave a partial record in front of it, where replay would stop
+                buf.clear();
+                try { segment.truncate(committedBytes); } catch (IOException ignored) {}
+                for (Pending p : batch) p.done.completeExceptionally(e);
+            } finally {
+                // nothing is queued after the stop marker, so it ends its batch
+                stopped = !batch.isEmpty() && batch.get(batch.size() - 1).kind == Pending.STOP;
+                batch.clear();
+            }
+        }
+        try { segment.close(); } catch (IOException ignored) {}
+        // defensive: nothing left queued may wait forever
+        for (Pending p; (p = queue.poll()) != null; ) p.done.completeExceptionally(new IOException("Journal is closed"));
+    }
+
+    // Writes records up to each rotate marker, forces once per group, then completes futures
+    private ByteBuffer writeBatch(List<Pending> batch, ByteBuffer buf, CRC32 crc) throws IOException {
+        List<Pending> group = new ArrayList<>();
+        for (Pending p : batch) {
+            if (p.kind == Pending.ROTATE) {
+                commit(group, buf);
+                segment.close();
+                segmentNumber++;
+                segment = openSegment(segmentNumber);
+                committedBytes = 0;
+                p.newSegment = segmentNumber;
+                p.done.complete(null);
+                continue;
+            }
+            if (p.payload != null) {
+                int needed = 8 + p.payload.length;
+                if (buf.remaining() < needed) {
+                    flushBuffer(buf);
+                    if (buf.capacity() < needed) buf = ByteBuffer.allocateDirect(needed);
+                }
+                crc.reset();
+                crc.update(p.payload);
+                buf.putInt(p.payload.length);
+                buf.putInt((int) crc.getValue());
+                buf.put(p.payload);
+            }
+            group.add(p);
+        }
+        commit(group, buf);
+        return buf;
+    }
+
+    private void commit(List<Pending> group, ByteBuffer buf) throws IOException {
+        if (group.isEmpty()) return;
+        flushBuffer(buf);
+        segment.force(false); // one fsync for the whole group
+        committedBytes = segment.size();
+        for (Pending p : group) p.done.complete(null);
+        group.clear();
+    }
+
+    private void flushBuffer(ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) segment.write(buf);
+        buf.clear();
+    }
+
+    private FileChannel openSegment(long n) throws IOException {
+        return FileChannel.open(segmentPath(n), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void await(CompletableFuture<Void> f) throws IOException {
+        try {
+            f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for journal", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Journal write failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static final class Pending {
+        static final int RECORD = 0;
+        static final int BARRIER = 1;
+        static final int ROTATE = 2;
+        static final int STOP = 3; // like a barrier, and the writer exits after it
+
+        final int kind;
+        final byte[] payload;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        long newSegment;
+
+        private Pending(int kind, byte[] payload) {
+            this.kind = kind;
+            this.payload = payload;
+        }
+
+        static Pending record(byte[] payload) { return new Pending(RECORD, payload); }
+        static Pending barrier() { return new Pending(BARRIER, null); }
+        static Pending rotate() { return new Pending(ROTATE, null); }
+        static Pending stop() { return new Pending(STOP, null); }
+    }
+
+    // ---------------------------------------------------------------- replay
+
+    private int replaySegment(Path path, DataStore store, Map<String, Integer> baseline, Map<String, BitSet> replayed) throws IOException {
+        int applied = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            while (true) {
+                byte[] payload = readRecord(in, crc);
+                if (payload == null) break;
+                if (apply(payload, store, baseline, replayed)) applied++;
+            }
+        }
+        return applied;
+    }
+
+    // Returns null at end of segment or at the first torn/corrupt record
+    private static byte[] readRecord(DataInputStream in, CRC32 crc) throws IOException {
+        int length;
+        int checksum;
+        try {
+            length = in.readInt();
+            checksum = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0 || length > MAX_RECORD_BYTES) return null;
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue() == checksum ? payload : null;
+    }
+
+    private boolean apply(byte[] payload, DataStore store, Map<String, Integer> baseline, Map<String, BitSet> replayed) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        if (type == ADD_STUDENT) {
+            Student s = readStudent(in);
+            if (store.getStudent(s.getId()) != null) return false;
+            store.addStudent(s);
+            return true;
+        }
+        if (type == ADD_GRADE) {
+            String studentId = in.readUTF();
+            int ordinal = in.readInt();
+            Student s = store.getStudent(studentId);
+            if (s == null) return false;
+            if (ordinal < baseline.getOrDefault(studentId, 0)) return false; // already in the snapshot
+            BitSet seen = replayed.computeIfAbsent(studentId, k -> new BitSet());
+            if (seen.get(ordinal)) return false;
+            seen.set(ordinal);
+            s.addGrade(readGrade(in, s.getStudentId()));
+            return true;
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------- snapshot
+
+    private void writeSnapshot(Path path, DataStore store) throws IOException {
+        BinarySnapshotCodec.write(path, store.getAllStudents());
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+    }
+
+    private void readSnapshot(Path path, DataStore store) throws IOException {
+        BinarySnapshotCodec.read(path, store::addStudent);
+    }
+
+    // ---------------------------------------------------------------- codec
+
+    private static byte[] encodeStudent(Student s) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(ADD_STUDENT);
+            out.writeUTF(s.getStudentType());
+            out.writeUTF(s.getId());
+            out.writeInt(s.getStudentId());
+            out.writeUTF(s.getName());
+            out.writeInt(s.getAge());
+            writeNullable(out, s.getEmail());
+            writeNullable(out, s.getPhone());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream
+        }
+    }
+
+    private static byte[] encodeGrade(Student s, Grade g, int ordinal) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(ADD_GRADE);
+            out.writeUTF(s.getId());
+            out.writeInt(ordinal);
+            writeNullable(out, g.getCourseCode());
+            writeNullable(out, g.getCourseName());
+            out.writeDouble(g.getScore());
+            LocalDateTime ts = g.getTimestamp();
+            out.writeLong(ts == null ? Long.MIN_VALUE : GradeEncoding.toEpochMillis(ts));
+            out.writeByte(GradeEncoding.subjectType(g.getSubject()));
+            writeNullable(out, g.getGradeLevel());
+            out.writeBoolean(g.isPassing());
+            out.writeDouble(g.getGpa());
+            writeNullable(out, g.getSource());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream
+        }
+    }
+
+    private static Student readStudent(DataInputStream in) throws IOException {
+        String type = in.readUTF();
+        String id = in.readUTF();
+        int numericId = in.readInt();
+        String name = in.readUTF();
+        int age = in.readInt();
+        Student s = BinarySnapshotCodec.restoreStudent(type, id, numericId, name, age);
+        s.restoreContact(readNullable(in), readNullable(in));
+        Student.reserveId(numericId); // the record passed its CRC
+        return s;
+    }
+
+    private static Grade readGrade(DataInputStream in, int studentId) throws IOException {
+        String code = readNullable(in);
+        String name = readNullable(in);
+        double score = in.readDouble();
+        long millis = in.readLong();
+        LocalDateTime ts = millis == Long.MIN_VALUE ? null : GradeEncoding.fromEpochMillis(millis);
+        byte subjectType = in.readByte();
+        String level = readNullable(in);
+        boolean passing = in.readBoolean();
+        double gpa = in.readDouble();
+        String source = in.available() > 0 ? readNullable(in) : null; // absent in records written before sources
+        Subject subject = GradeEncoding.subjectOfType(subjectType, name, code);
+        return new Grade(studentId, subject, code, name, score, level, passing, gpa, ts, source);
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // ---------------------------------------------------------------- files
+
+    private Path segmentPath(long n) {
+        return dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, n, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long n) {
+        return dir.resolve(String.format("%s%06d%s", SNAPSHOT_PREFIX, n, SNAPSHOT_SUFFIX));
+    }
+
+    private long latestNumber(String prefix, String suffix) throws IOException {
+        List<Long> all = numbers(prefix, suffix);
+        return all.isEmpty() ? 0 : all.get(all.size() - 1);
+    }
+
+    // Sorted file sequence numbers for the given name pattern
+    private List<Long> numbers(String prefix, String suffix) throws IOException {
+        List<Long> out = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                 .filter(n -> n.startsWith(prefix) && n.endsWith(suffix))
+                 .forEach(n -> {
+                     try { out.add(Long.parseLong(n.substring(prefix.length(), n.length() - suffix.length()))); }
+                     catch (NumberFormatException ignored) {}
+                 });
+        }
+        out.sort(null);
+        return out;
+    }
+}
@@ -0,0 +1,272 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal streaming (pull) JSON parser.
+ *
+ * The caller asks for one token at a time with {@link #next()} and reads the
+ * current value with {@link #getString()} / {@link #getDouble()}. Input is
+ * read through a fixed-size buffer and only the current token is held, so
+ * memory use does not depend on the document size. Object keys are reported
+ * as {@link Token#NAME} tokens. Syntax errors are raised as
+ * {@link SyntaxException} (an IOException) with the line number.
+ *
+ * Not thread-safe; one parser per input.
+ */
+public final class JsonPullParser implements AutoCloseable {
+
+    public enum Token {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    /**
+     * Malformed JSON input
+     */
+    public static final class SyntaxException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public SyntaxException(String message) {
+            super(message);
+        }
+    }
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos;
+    private int limit;
+    private int line = 1;
+    private final StringBuilder text = new StringBuilder(); // value of the current STRING/NAME/NUMBER
+    private double number; // value of the current NUMBER
+    // Nesting: true for an object, false for an array
+    private boolean[] stack = new boolean[32];
+    private int depth;
+    private boolean expectValue = true; // a value (or closing bracket) may come next
+    private boolean afterName;          // inside an object, the last token was a key
+    private Token current;
+
+    public JsonPullParser(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Advance to the next token
+     */
+    public Token next() throws IOException {
+        int c = skipWhitespace();
+        if (c < 0) {
+            if (depth > 0) throw error("unexpected end of input");
+            return current = Token.END_DOCUMENT;
+        }
+        if (!expectValue) {
+            // between values: a separator or a closing bracket
+            if (c == ',') {
+                if (depth == 0) throw error("unexpected ','");
+                pos++;
+                expectValue = true;
+                c = skipWhitespace();
+                if (c == '}' || c == ']' || c < 0) throw error("value expected after ','");
+            } else if (c != '}' && c != ']') {
+                throw error("',' expected");
+            }
+        }
+        boolean inObject = depth > 0 && stack[depth - 1];
+        if (c == '}' || c == ']') {
+            if (depth == 0 || stack[depth - 1] != (c == '}') || afterName) throw error("unexpected '" + (char) c + "'");
+            pos++;
+            depth--;
+            expectValue = false;
+            return current = c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+        }
+        if (inObject && !afterName) {
+            // a key
+            if (c != '"') throw error("object key expected");
+            pos++;
+            readString();
+            if (skipWhitespace() != ':') throw error("':' expected");
+            pos++;
+            afterName = true;
+            expectValue = true;
+            return current = Token.NAME;
+        }
+        afterName = false;
+        expectValue = false;
+        switch (c) {
+            case '{':
+                pos++;
+                push(true);
+                expectValue = true;
+                return current = Token.START_OBJECT;
+            case '[':
+                pos++;
+                push(false);
+                expectValue = true;
+                return current = Token.START_ARRAY;
+            case '"':
+                pos++;
+                readString();
+                return current = Token.STRING;
+            case 't':
+                literal("true");
+                return current = Token.TRUE;
+            case 'f':
+                literal("false");
+                return current = Token.FALSE;
+            case 'n':
+                literal("null");
+                return current = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber();
+                    return current = Token.NUMBER;
+                }
+                throw error("unexpected character '" + (char) c + "'");
+        }
+    }
+
+    public Token current() {
+        return current;
+    }
+
+    /**
+     * Text of the current NAME, STRING or NUMBER token
+     */
+    public String getString() {
+        return text.toString();
+    }
+
+    /**
+     * Value of the current NUMBER token
+     */
+    public double getDouble() {
+        return number;
+    }
+
+    /**
+     * True if the current NAME or STRING token equals s, without creating a String
+     */
+    public boolean textEquals(String s) {
+        return text.length() == s.length() && text.indexOf(s) == 0;
+    }
+
+    /**
+     * Skip the value that starts at the current token (a whole object or
+     * array when the current token opens one)
+     */
+    public void skipValue() throws IOException {
+        if (current != Token.START_OBJECT && current != Token.START_ARRAY) return;
+        int target = depth - 1;
+        while (depth > target) {
+            if (next() == Token.END_DOCUMENT) throw error("unexpected end of input");
+        }
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void push(boolean object) {
+        if (depth == stack.length) stack = java.util.Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = object;
+    }
+
+    // Next non-whitespace character without consuming it, or -1 at end of input
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) return -1;
+            char c = buf[pos];
+            if (c == '\n') line++;
+            else if (c != ' ' && c != '\t' && c != '\r') return c;
+            pos++;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buf[pos++];
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            // copy plain runs straight from the buffer
+            int start = pos;
+            while (pos < limit && buf[pos] != '"' && buf[pos] != '\\' && buf[pos] >= ' ') pos++;
+            text.append(buf, start, pos - start);
+            if (pos == limit) {
+                // the run reached the end of the buffer, not a special character
+                if (!fill()) throw error("unterminated string");
+                continue;
+            }
+            int c = buf[pos++];
+            if (c == '"') return;
+            if (c < ' ') throw error("control character in string");
+            // backslash escape
+            int e = read();
+            switch (e) {
+                case '"': text.append('"'); break;
+                case '\\': text.append('\\'); break;
+                case '/': text.append('/'); break;
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u': {
+                    int v = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int h = Character.digit(read(), 16);
+                        if (h < 0) throw error("bad \\u escape");
+                        v = (v << 4) | h;
+                    }
+                    text.append((char) v);
+                    break;
+                }
+                default: throw error("bad escape");
+            }
+        }
+    }
+
+    private void readNumber() throws IOException {
+        text.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) break;
+            char c = buf[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                text.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        try {
+            number = Double.parseDouble(text.toString());
+        } catch (NumberFormatException ex) {
+            throw error("bad number '" + text + "'");
+        }
+    }
+
+    private void literal(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            if (read() != word.charAt(i)) throw error("bad literal, '" + word + "' expected");
+        }
+    }
+
+    private SyntaxException error(String message) {
+        return new SyntaxException("JSON syntax error at line " + line + ": " + message);
+    }
+}
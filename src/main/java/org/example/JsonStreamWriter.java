@@ -0,0 +1,261 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming JSON writer, the output-side counterpart of {@link JsonPullParser}.
+ *
+ * Values are encoded as UTF-8 straight into one reusable byte buffer, which
+ * is handed to the underlying stream only when it is full, so writing a
+ * document allocates nothing per value and memory use does not depend on
+ * the document size. Strings are escaped as JSON requires (quotes,
+ * backslashes and control characters); other characters are written as
+ * UTF-8. Commas and colons are inserted automatically.
+ *
+ * Output is compact, except that each element of the outermost array starts
+ * on its own line, so an exported file holds one record per line.
+ * NaN and infinite numbers, which JSON cannot represent, are written as null.
+ * Misuse (a value where a key is expected, unbalanced brackets) throws
+ * IllegalStateException.
+ *
+ * Not thread-safe; one writer per output.
+ */
+public final class JsonStreamWriter implements AutoCloseable {
+    /** Default buffer size; large writes keep the disk busy without many system calls */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 18;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    private static final int MAX_CHAR_BYTES = 6; // longest encoding of one char: an escaped control character
+
+    private final OutputStream out;
+    private final byte[] buf;
+    private int pos;
+    // Nesting: true for an object, false for an array; and whether the level has a value yet
+    private boolean[] objects = new boolean[32];
+    private boolean[] nonEmpty = new boolean[32];
+    private int depth;
+    private boolean afterName; // inside an object, a key was written and its value is due
+
+    public JsonStreamWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_BYTES);
+    }
+
+    public JsonStreamWriter(OutputStream out, int bufferBytes) {
+        this.out = out;
+        this.buf = new byte[Math.max(64, bufferBytes)];
+    }
+
+    public JsonStreamWriter beginObject() throws IOException {
+        beforeValue();
+        put('{');
+        push(true);
+        return this;
+    }
+
+    public JsonStreamWriter endObject() throws IOException {
+        if (depth == 0 || !objects[depth - 1] || afterName) throw new IllegalStateException("no object to end here");
+        depth--;
+        put('}');
+        return this;
+    }
+
+    public JsonStreamWriter beginArray() throws IOException {
+        beforeValue();
+        put('[');
+        push(false);
+        return this;
+    }
+
+    public JsonStreamWriter endArray() throws IOException {
+        if (depth == 0 || objects[depth - 1]) throw new IllegalStateException("no array to end here");
+        depth--;
+        if (depth == 0 && nonEmpty[0]) put('\n');
+        put(']');
+        return this;
+    }
+
+    /**
+     * Write an object key; the next call must write its value
+     */
+    public JsonStreamWriter name(String name) throws IOException {
+        if (depth == 0 || !objects[depth - 1] || afterName) throw new IllegalStateException("object key not expected here");
+        if (nonEmpty[depth - 1]) put(',');
+        nonEmpty[depth - 1] = true;
+        string(name);
+        put(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Write a string value, or null
+     */
+    public JsonStreamWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public JsonStreamWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return nullValue();
+        beforeValue();
+        if (value == Math.rint(value) && Math.abs(value) < 1e7 && !(value == 0 && 1 / value < 0)) {
+            // whole numbers below 10^7, the common case for scores: same text as Double.toString without the String
+            digits((long) value);
+            put('.');
+            put('0');
+        } else {
+            ascii(Double.toString(value));
+        }
+        return this;
+    }
+
+    public JsonStreamWriter value(long value) throws IOException {
+        beforeValue();
+        digits(value);
+        return this;
+    }
+
+    public JsonStreamWriter value(boolean value) throws IOException {
+        beforeValue();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonStreamWriter nullValue() throws IOException {
+        beforeValue();
+        ascii("null");
+        return this;
+    }
+
+    /**
+     * Hand buffered bytes to the stream and flush it
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Flush and close the underlying stream. Brackets left open are not closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void beforeValue() throws IOException {
+        if (depth == 0) return;
+        if (objects[depth - 1]) {
+            if (!afterName) throw new IllegalStateException("object key expected before a value");
+            afterName = false;
+            return;
+        }
+        if (nonEmpty[depth - 1]) put(',');
+        if (depth == 1) put('\n');
+        nonEmpty[depth - 1] = true;
+    }
+
+    private void push(boolean object) {
+        if (depth == objects.length) {
+            objects = java.util.Arrays.copyOf(objects, depth * 2);
+            nonEmpty = java.util.Arrays.copyOf(nonEmpty, depth * 2);
+        }
+        objects[depth] = object;
+        nonEmpty[depth] = false;
+        depth++;
+    }
+
+    private void string(String s) throws IOException {
+        put('"');
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            if (pos + MAX_CHAR_BYTES > buf.length) drain();
+            char c = s.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') buf[pos++] = '\\';
+                buf[pos++] = (byte) c;
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xc0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf[pos++] = (byte) (0xf0 | (cp >> 18));
+                buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buf[pos++] = '?'; // unpaired surrogate, not encodable (same as String.getBytes)
+            } else {
+                buf[pos++] = (byte) (0xe0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        put('"');
+    }
+
+    private void escapeControl(char c) {
+        buf[pos++] = '\\';
+        switch (c) {
+            case '\n': buf[pos++] = 'n'; break;
+            case '\r': buf[pos++] = 'r'; break;
+            case '\t': buf[pos++] = 't'; break;
+            case '\b': buf[pos++] = 'b'; break;
+            case '\f': buf[pos++] = 'f'; break;
+            default:
+                buf[pos++] = 'u';
+                buf[pos++] = '0';
+                buf[pos++] = '0';
+                buf[pos++] = HEX[c >> 4];
+                buf[pos++] = HEX[c & 0xf];
+        }
+    }
+
+    private void digits(long v) throws IOException {
+        if (pos + 20 > buf.length) drain();
+        if (v == Long.MIN_VALUE) {
+            ascii(Long.toString(v));
+            return;
+        }
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int start = pos;
+        do {
+            buf[pos++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        // digits were written least significant first
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    private void ascii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) put(s.charAt(i));
+    }
+
+    private void put(char c) throws IOException {
+        if (pos == buf.length) drain();
+        buf[pos++] = (byte) c;
+    }
+
+    private void drain() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -15,10 +15,29 @@ import java.util.Scanner;
 public class Main {
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
-        StudentManager studentManager = new StudentManager();
+        // One canonical store; StudentManager and the default grade repository are views over it
+        DataStore store = new DataStore();
+        SchedulerService scheduler = new SchedulerService();
+        // Durability: restore the last snapshot + journal tail, then journal new changes
+        JournalService journal = null;
+        try {
+            journal = new JournalService();
+            long recoverStart = System.currentTimeMillis();
+            int replayed = journal.recover(store);
+            if (store.getStudentCount() > 0) {
+                System.out.println("Restored " + store.getStudentCount() + " students (" + replayed + " journal records replayed) in "
+                        + (System.currentTimeMillis() - recoverStart) + " ms");
+            }
+            journal.attach(store);
+            journal.scheduleSnapshots(scheduler, store, 5, java.util.concurrent.TimeUnit.MINUTES);
+        } catch (java.io.IOException e) {
+            System.err.println("Journal unavailable, changes will not be persisted: " + e.getMessage());
+        }
+        boolean restored = store.getStudentCount() > 0;
+        StudentManager studentManager = new StudentManager(store);
         
         // DEPENDENCY INJECTION - Create all components and pass to GradeManager
-        IGradeRepository gradeRepository = new GradeRepository();
+        IGradeRepository gradeRepository = createGradeRepository(System.getProperty("grades.repository", "store"), store);
         IFileExporter fileExporter = new GradeExporter();
         IGradeImporter gradeImporter = new GradeImporter();
         IGradeStatisticsCalculator statisticsCalculator = new GradeStatisticsCalculator();
@@ -31,23 +50,23 @@ public class Main {
             statisticsCalculator
         );
         // Additional core services used by enhanced CLI
-        DataStore store = new DataStore();
         AuditLogger audit = new AuditLogger(java.nio.file.Paths.get("audit.log"));
         FileService fileService = null;
         try { fileService = new FileService(); } catch (java.io.IOException e) { System.err.println("FileService init failed: " + e.getMessage()); }
         LRUCache<String,Object> cache = new LRUCache<>(150);
         ReportGenerator reportGen = new ReportGenerator(store);
-        SchedulerService scheduler = new SchedulerService();
         StatsService stats = new StatsService(store, cache, audit);
         AdvancedSearch search = new AdvancedSearch(store);
         TaskQueue taskQueue = new TaskQueue(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        IngestionService ingestion = fileService == null ? null
+                : new IngestionService(FileService.CSV_DIR, store, fileService, scheduler, taskQueue, audit);
         // start background stats
         stats.start(5);
 
-        // Auto-load demo data for presentation when store is empty
+        // Auto-load demo data for presentation when nothing was restored
         try {
-            if (store.getAllStudents().isEmpty() || studentManager.getStudentCount() <= 5) {
-                DemoDataLoader.loadSampleData(studentManager, store);
+            if (!restored) {
+                DemoDataLoader.loadSampleData(studentManager);
             }
         } catch (Exception e) {
             System.err.println("Demo data load skipped: " + e.getMessage());
@@ -72,6 +91,9 @@ public class Main {
             System.out.println("\u001B[1;33m11\u001B[0m. Cache Stats");
             System.out.println("\u001B[1;33m13\u001B[0m. Load Demo Data (for presentation)");
             System.out.println("\u001B[1;33m12\u001B[0m. View Audit Log (tail)");
+            System.out.println("\u001B[1;33m14\u001B[0m. Watch-folder Ingestion (" + FileService.CSV_DIR + ")");
+            System.out.println("\u001B[1;33m15\u001B[0m. Sharded Export (" + FileService.SHARD_DIR + ")");
+            System.out.println("\u001B[1;33m16\u001B[0m. Columnar Analytics Export (" + FileService.COLUMNAR_DIR + ")");
             System.out.println("\u001B[1;33m9\u001B[0m. Exit");
             System.out.print("Choice: ");
             
@@ -96,11 +118,15 @@ public class Main {
                 int age = scanner.nextInt();
                 scanner.nextLine();
                 
-                if (type == 1) {
-                    // Use subtype to demonstrate Liskov Substitution Principle
-                    studentManager.addStudent(new RegularStudent(name, age));
-                } else {
-                    studentManager.addStudent(new HonorsStudent(name, age));
+                try {
+                    if (type == 1) {
+                        // Use subtype to demonstrate Liskov Substitution Principle
+                        studentManager.addStudent(new RegularStudent(name, age));
+                    } else {
+                        studentManager.addStudent(new HonorsStudent(name, age));
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Student not added: " + e.getMessage());
                 }
                 
             } else if (choice == 3) {
@@ -171,10 +197,26 @@ public class Main {
                 
             } else if (choice == 6) {
                 // Export grade report
-                System.out.print("Student ID: ");
+                System.out.print("Student ID (0 = all students): ");
                 int id = scanner.nextInt();
                 scanner.nextLine();
                 
+                if (id == 0) {
+                    // one pass over the repository for every report
+                    System.out.print("Output directory, or a .txt file for one combined report [reports]: ");
+                    String out = scanner.nextLine().trim();
+                    java.nio.file.Path target = java.nio.file.Paths.get(out.isEmpty() ? "reports" : out);
+                    try {
+                        long start = System.currentTimeMillis();
+                        int n = gradeManager.exportAllGradeReports(store.getAllStudents(), target, out.endsWith(".txt"));
+                        System.out.println("\n✓ " + n + " grade reports exported to " + target + " in "
+                                + (System.currentTimeMillis() - start) + " ms");
+                    } catch (java.io.IOException e) {
+                        System.out.println("Error exporting grade reports: " + e.getMessage());
+                    }
+                    continue;
+                }
+                
                 Student student = studentManager.findStudent(id);
                 if (student == null) {
                     System.out.println("Student not found!");
@@ -186,15 +228,32 @@ public class Main {
             } else if (choice == 7) {
                 // Bulk import grades
                 if (fileService != null) {
-                    System.out.print("CSV path (relative): ");
+                    System.out.print("CSV or JSON path (relative): ");
                     String path = scanner.nextLine().trim();
                     if (path.isEmpty()) path = "data/csv/import.csv";
                     long start = System.currentTimeMillis();
                     try {
-                        var errs = fileService.importStudentsFromCsv(java.nio.file.Paths.get(path), store);
-                        long took = System.currentTimeMillis() - start;
-                        System.out.println("Imported in " + took + " ms");
-                        if (!errs.isEmpty()) errs.forEach(System.out::println);
+                        Path csv = java.nio.file.Paths.get(path);
+                        if (path.toLowerCase().endsWith(".json")) {
+                            var errs = fileService.importStudentsFromJson(csv, store);
+                            System.out.println("Imported in " + (System.currentTimeMillis() - start) + " ms");
+                            if (!errs.isEmpty()) errs.forEach(System.out::println);
+                        } else {
+                            // large extracts are parsed on all cores; results are identical to the sequential import
+                            int parallelism = java.nio.file.Files.size(csv) >= FileService.PARALLEL_IMPORT_THRESHOLD
+                                    ? Runtime.getRuntime().availableProcessors() : 1;
+                            // with a journal the store survives restarts, so a re-sent file only needs its new rows;
+                            // rejected rows go to a quarantine file instead of the console
+                            boolean resume = journal != null && journal.isAttached();
+                            var summary = fileService.importStudentsFromCsvWithQuarantine(csv, store, parallelism, resume);
+                            System.out.println("Imported " + summary.rowsRead + " rows in " + (System.currentTimeMillis() - start)
+                                    + " ms, " + summary.rowsRejected + " rejected");
+                            summary.rejectedByCategory.forEach((category, n) -> System.out.println("  " + category + ": " + n));
+                            summary.errors.stream().limit(20).forEach(System.out::println);
+                            if (summary.quarantine != null) {
+                                System.out.println("Rejected rows written to " + summary.quarantine + " (fix and re-import)");
+                            }
+                        }
                     } catch (java.io.IOException e) {
                         System.out.println("Import failed: " + e.getMessage());
                     }
@@ -212,8 +271,8 @@ public class Main {
                 dashboard.runInteractive(5);
 
             } else if (choice == 13) {
-                // Load demo data into StudentManager and DataStore
-                DemoDataLoader.loadSampleData(studentManager, store);
+                // Load demo data (StudentManager writes through to the DataStore)
+                DemoDataLoader.loadSampleData(studentManager);
 
             } else if (choice == 10) {
                 System.out.print("Enter comma-separated student IDs (e.g. STU001,STU002) or leave empty for all: ");
@@ -227,11 +286,14 @@ public class Main {
                 System.out.print("Threads (2-8, default 4): ");
                 int th = 4;
                 try { th = Integer.parseInt(scanner.nextLine().trim()); } catch (Exception ignored) {}
+                System.out.print("Format (text/csv/html, default text): ");
+                String fmt = scanner.nextLine().trim().toLowerCase();
+                ReportTemplate template = fmt.equals("csv") ? ReportTemplate.CSV : fmt.equals("html") ? ReportTemplate.HTML : ReportTemplate.TEXT;
                 System.out.println("Generating " + ids.size() + " reports using " + th + " threads...");
                 Path reportsDir = java.nio.file.Paths.get("reports");
                 try {
                     // show simple progress bar via listener
-                    var result = reportGen.generateReports(ids, th, reportsDir, audit, (done, total, sid) -> {
+                    var result = reportGen.generateReports(ids, th, reportsDir, template, audit, (done, total, sid) -> {
                         int pct = (int) ((done * 100.0) / total);
                         System.out.print("\rGenerating reports: " + done + "/" + total + " (" + pct + "%)");
                     });
@@ -258,6 +320,70 @@ public class Main {
                     }
                 } catch (Exception e) { System.out.println("Unable to read audit log: " + e.getMessage()); }
                 
+            } else if (choice == 14) {
+                // Continuous ingestion of CSV files dropped into data/csv
+                if (ingestion == null) {
+                    System.out.println("FileService not available");
+                } else if (ingestion.isRunning()) {
+                    System.out.println("Ingestion running: " + ingestion.getRunCount() + " runs, "
+                            + ingestion.getRejectedRowCount() + " rows rejected");
+                    ingestion.getRecentErrors().forEach(System.out::println);
+                    System.out.print("Stop watching? (y/N): ");
+                    if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                        ingestion.stop();
+                        System.out.println("Ingestion stopped");
+                    }
+                } else {
+                    try {
+                        ingestion.start(5, 10, java.util.concurrent.TimeUnit.SECONDS);
+                        System.out.println("Watching " + FileService.CSV_DIR + " for new and growing CSV files");
+                    } catch (java.io.IOException e) {
+                        System.out.println("Unable to watch " + FileService.CSV_DIR + ": " + e.getMessage());
+                    }
+                }
+
+            } else if (choice == 15) {
+                // Export the whole store as N partitions written concurrently, plus a manifest
+                if (fileService == null) {
+                    System.out.println("FileService not available");
+                } else {
+                    System.out.print("Export name: ");
+                    String name = scanner.nextLine().trim();
+                    System.out.print("Number of shards: ");
+                    int shards = scanner.nextInt();
+                    scanner.nextLine();
+                    System.out.print("Format (json/csv/binary): ");
+                    String fmt = scanner.nextLine().trim().toUpperCase();
+                    try {
+                        long start = System.currentTimeMillis();
+                        FileService.ShardedExport export = fileService.exportSharded(store, name, shards, FileService.ExportFormat.valueOf(fmt));
+                        System.out.println("Exported " + export.getStudentCount() + " students to " + export.shards.size()
+                                + " shards in " + (System.currentTimeMillis() - start) + " ms; manifest: " + export.manifest);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid input: " + e.getMessage());
+                    } catch (java.io.IOException e) {
+                        System.out.println("Sharded export failed: " + e.getMessage());
+                    }
+                }
+
+            } else if (choice == 16) {
+                // One row per grade, stored column by column for the analytics team
+                if (fileService == null) {
+                    System.out.println("FileService not available");
+                } else {
+                    System.out.print("File name: ");
+                    String name = scanner.nextLine().trim();
+                    try {
+                        java.nio.file.Path out = fileService.exportColumnar(store, name);
+                        try (ColumnarGradeFile in = ColumnarGradeFile.open(out)) {
+                            System.out.println("Exported " + in.getRowCount() + " grades to " + out + " ("
+                                    + java.nio.file.Files.size(out) + " bytes)");
+                        }
+                    } catch (java.io.IOException e) {
+                        System.out.println("Columnar export failed: " + e.getMessage());
+                    }
+                }
+
             } else if (choice == 9) {
                 // Exit
                 System.out.println("\n========================================");
@@ -271,5 +397,39 @@ public class Main {
         }
         
         scanner.close();
+        if (ingestion != null) ingestion.stop();
+        taskQueue.shutdown(); // waits, so a running import is journaled before the final snapshot
+        if (journal != null) {
+            try {
+                journal.snapshot(store);
+                journal.close();
+            } catch (java.io.IOException e) { System.err.println("Final journal snapshot failed: " + e.getMessage()); }
+        }
+        scheduler.shutdown();
+        if (gradeRepository instanceof java.io.Closeable) {
+            try { ((java.io.Closeable) gradeRepository).close(); } catch (java.io.IOException e) { System.err.println("Closing grade repository failed: " + e.getMessage()); }
+        }
+    }
+
+    /**
+     * Select the grade storage backend (-Dgrades.repository=store|indexed|columnar|mapped|legacy).
+     * The default store backend keeps grades in the students' histories inside the shared
+     * DataStore; the others are standalone stores kept for comparison. The mapped backend
+     * keeps grades in a memory-mapped file that survives restarts.
+     */
+    private static IGradeRepository createGradeRepository(String mode, DataStore store) {
+        switch (mode.toLowerCase()) {
+            case "indexed": return new IndexedGradeRepository();
+            case "columnar": return new ColumnarGradeRepository();
+            case "legacy": return new GradeRepository();
+            case "mapped":
+                try {
+                    return new MappedGradeRepository();
+                } catch (java.io.IOException e) {
+                    System.err.println("Mapped grade repository unavailable (" + e.getMessage() + "), using in-memory storage");
+                    return new StoreGradeRepository(store);
+                }
+            default: return new StoreGradeRepository(store);
+        }
     }
 }
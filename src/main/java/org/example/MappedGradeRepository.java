@@ -0,0 +1,424 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-heap grade repository backed by a memory-mapped file.
+ *
+ * Every grade occupies one fixed-width slot inside a file mapped with
+ * {@link FileChannel#map}. The file is mapped in fixed-size segments, so the
+ * dataset can grow well beyond the Java heap and the OS page cache decides
+ * what stays resident. Because the slots live in the file, the data survives
+ * restarts: reopening the same path picks up every stored grade without an
+ * explicit reload step (only the small per-student slot index is rebuilt).
+ *
+ * File layout (all values big-endian):
+ * <pre>
+ *   header (64 bytes): magic, version, slot size, reserved, grade count
+ *   slot   (96 bytes): studentId, level code, flags, score, gpa,
+ *                      epoch-millis timestamp (UTC, 0 = none), course code
+ *                      (len + 15 bytes), course name (len + 47 bytes), UTF-8
+ * </pre>
+ * Level codes and flag bits are those of {@link GradeEncoding}.
+ *
+ * Course codes longer than 15 and course names longer than 47 UTF-8 bytes
+ * do not fit a slot; {@link #addGrade(Grade)} rejects them rather than
+ * storing a shortened value.
+ *
+ * Read paths:
+ * - {@link #getAllGrades()} / {@link #getStudentGrades(int)} keep the
+ *   interface contract and materialise a Grade[] copy.
+ * - {@link #allGradesView()} / {@link #studentGradesView(int)} return
+ *   lightweight lists that decode a slot only when an element is read.
+ * - {@link #cursor()} / {@link #studentCursor(int)} walk slots without
+ *   creating any objects at all.
+ *
+ * Writes are not forced to disk individually; call {@link #flush()} (or
+ * {@link #close()}) to make them durable.
+ */
+public class MappedGradeRepository implements IGradeRepository, Closeable {
+    public static final Path DEFAULT_PATH = FileService.BINARY_DIR.resolve("grades.mmap");
+
+    private static final int MAGIC = 0x53474d47; // "SGMG"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int COUNT_OFFSET = 16;
+
+    static final int SLOT_BYTES = 96;
+    private static final int SEGMENT_SLOTS = 1 << 16; // ~6MB per mapped segment
+    private static final long SEGMENT_BYTES = (long) SEGMENT_SLOTS * SLOT_BYTES;
+
+    // Slot field offsets
+    private static final int STUDENT_ID = 0;
+    private static final int LEVEL = 4;
+    private static final int FLAGS = 5;
+    private static final int SCORE = 8;
+    private static final int GPA = 16;
+    private static final int TIMESTAMP = 24;
+    private static final int CODE = 32;
+    private static final int CODE_MAX = 15;
+    private static final int NAME = 48;
+    private static final int NAME_MAX = 47;
+
+    private static final Grade[] EMPTY = new Grade[0];
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<Integer, SlotList> slotsByStudent = new HashMap<>();
+    private long count;
+    private boolean closed;
+
+    public MappedGradeRepository() throws IOException {
+        this(DEFAULT_PATH);
+    }
+
+    /**
+     * Open (or create) a mapped repository at the given path
+     */
+    public MappedGradeRepository(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_BYTES;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (fresh) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, SLOT_BYTES);
+            header.putLong(COUNT_OFFSET, 0);
+        } else {
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a mapped grade file: " + path);
+            if (header.getInt(4) != VERSION || header.getInt(8) != SLOT_BYTES) {
+                throw new IOException("Unsupported mapped grade file version in " + path);
+            }
+            this.count = header.getLong(COUNT_OFFSET);
+            rebuildIndex();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Write a grade into the next free slot
+     * @throws IllegalArgumentException if the course code or name is too long for a slot
+     */
+    @Override
+    public synchronized void addGrade(Grade grade) {
+        ensureOpen();
+        byte[] code = encodeString(grade.getCourseCode(), CODE_MAX, "course code");
+        byte[] name = encodeString(grade.getCourseName(), NAME_MAX, "course name");
+        long slot = count;
+        ByteBuffer seg = segmentFor(slot);
+        int base = offsetInSegment(slot);
+
+        seg.putInt(base + STUDENT_ID, grade.getStudentId());
+        seg.put(base + LEVEL, GradeEncoding.levelCode(grade.getGradeLevel()));
+        seg.put(base + FLAGS, GradeEncoding.flags(grade));
+        seg.putDouble(base + SCORE, grade.getScore());
+        seg.putDouble(base + GPA, grade.getGpa());
+        LocalDateTime ts = grade.getTimestamp();
+        seg.putLong(base + TIMESTAMP, ts == null ? 0L : GradeEncoding.toEpochMillis(ts));
+        putString(seg, base + CODE, code);
+        putString(seg, base + NAME, name);
+
+        count = slot + 1;
+        header.putLong(COUNT_OFFSET, count);
+        slotsByStudent.computeIfAbsent(grade.getStudentId(), k -> new SlotList()).add(slot);
+    }
+
+    @Override
+    public synchronized Grade[] getStudentGrades(int studentId) {
+        ensureOpen();
+        SlotList slots = slotsByStudent.get(studentId);
+        if (slots == null) return EMPTY;
+        Grade[] result = new Grade[slots.size];
+        for (int i = 0; i < slots.size; i++) {
+            result[i] = decode(slots.slots[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Grade[] getAllGrades() {
+        ensureOpen();
+        Grade[] result = new Grade[gradeCountAsInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = decode(i);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int getGradeCount() {
+        return gradeCountAsInt();
+    }
+
+    /**
+     * Slots are added by growing the mapped file, so this is never full
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    public synchronized double[] getAllScores() {
+        ensureOpen();
+        double[] scores = new double[gradeCountAsInt()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = segmentFor(i).getDouble(offsetInSegment(i) + SCORE);
+        }
+        return scores;
+    }
+
+    @Override
+    public synchronized int getPassingCount() {
+        ensureOpen();
+        int passing = 0;
+        for (long i = 0; i < count; i++) {
+            passing += segmentFor(i).get(offsetInSegment(i) + FLAGS) & GradeEncoding.PASSING;
+        }
+        return passing;
+    }
+
+    @Override
+    public synchronized int[] getGradeDistribution() {
+        ensureOpen();
+        int[] distribution = new int[6];
+        for (long i = 0; i < count; i++) {
+            byte level = segmentFor(i).get(offsetInSegment(i) + LEVEL);
+            if (level >= 0) {
+                int band = IGradeRepository.gradeBand(GradeEncoding.level(level));
+                if (band >= 0) distribution[band]++;
+            }
+        }
+        return distribution;
+    }
+
+    /**
+     * Read-only list over every stored grade. Elements are decoded from the
+     * mapped region on access; the size is fixed when the view is created.
+     */
+    public synchronized List<Grade> allGradesView() {
+        final int size = gradeCountAsInt();
+        return new AbstractList<Grade>() {
+            @Override
+            public Grade get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+                synchronized (MappedGradeRepository.this) { ensureOpen(); return decode(index); }
+            }
+
+            @Override
+            public int size() { return size; }
+        };
+    }
+
+    /**
+     * Read-only list over one student's grades, decoded lazily
+     */
+    public synchronized List<Grade> studentGradesView(int studentId) {
+        SlotList slots = slotsByStudent.get(studentId);
+        if (slots == null) return List.of();
+        final long[] snapshot = Arrays.copyOf(slots.slots, slots.size);
+        return new AbstractList<Grade>() {
+            @Override
+            public Grade get(int index) {
+                long slot = snapshot[index];
+                synchronized (MappedGradeRepository.this) { ensureOpen(); return decode(slot); }
+            }
+
+            @Override
+            public int size() { return snapshot.length; }
+        };
+    }
+
+    /**
+     * Allocation-free cursor over all slots
+     */
+    public synchronized GradeCursor cursor() {
+        return new GradeCursor(null, count);
+    }
+
+    /**
+     * Allocation-free cursor over one student's slots
+     */
+    public synchronized GradeCursor studentCursor(int studentId) {
+        SlotList slots = slotsByStudent.get(studentId);
+        if (slots == null) return new GradeCursor(new long[0], 0);
+        return new GradeCursor(Arrays.copyOf(slots.slots, slots.size), slots.size);
+    }
+
+    /**
+     * Force all mapped segments and the header to disk
+     */
+    public synchronized void flush() {
+        if (closed) return;
+        for (MappedByteBuffer seg : segments) seg.force();
+        header.force();
+    }
+
+    /**
+     * Flush and close the underlying channel. Mapped regions are released
+     * by the JVM once they become unreachable.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        flush();
+        closed = true;
+        segments.clear();
+        slotsByStudent.clear();
+        channel.close();
+    }
+
+    /**
+     * Flyweight reader positioned on one slot at a time. Accessors read
+     * straight from the mapped buffer; call {@link #toGrade()} only when a
+     * real Grade object is needed.
+     */
+    public final class GradeCursor {
+        private final long[] slots; // null means "every slot in order"
+        private final long limit;
+        private long position = -1;
+        private long slot;
+        private ByteBuffer seg;
+        private int base;
+
+        private GradeCursor(long[] slots, long limit) {
+            this.slots = slots;
+            this.limit = limit;
+        }
+
+        public boolean next() {
+            if (position + 1 >= limit) return false;
+            position++;
+            slot = slots == null ? position : slots[(int) position];
+            synchronized (MappedGradeRepository.this) {
+                ensureOpen();
+                seg = segmentFor(slot);
+            }
+            base = offsetInSegment(slot);
+            return true;
+        }
+
+        public int studentId() { return seg.getInt(base + STUDENT_ID); }
+        public double score() { return seg.getDouble(base + SCORE); }
+        public double gpa() { return seg.getDouble(base + GPA); }
+        public boolean passing() { return (seg.get(base + FLAGS) & GradeEncoding.PASSING) != 0; }
+        public long timestampMillis() { return seg.getLong(base + TIMESTAMP); }
+        public String gradeLevel() { return GradeEncoding.level(seg.get(base + LEVEL)); }
+        public String courseCode() { return getString(seg, base + CODE); }
+        public String courseName() { return getString(seg, base + NAME); }
+
+        public Grade toGrade() {
+            synchronized (MappedGradeRepository.this) { ensureOpen(); return decode(slot); }
+        }
+    }
+
+    private Grade decode(long slot) {
+        ByteBuffer seg = segmentFor(slot);
+        int base = offsetInSegment(slot);
+        int studentId = seg.getInt(base + STUDENT_ID);
+        byte level = seg.get(base + LEVEL);
+        byte flagBits = seg.get(base + FLAGS);
+        double score = seg.getDouble(base + SCORE);
+        long millis = seg.getLong(base + TIMESTAMP);
+        String code = getString(seg, base + CODE);
+        String name = getString(seg, base + NAME);
+
+        Subject subject = GradeEncoding.subjectOfType(GradeEncoding.subjectType(flagBits), name, code);
+
+        // restore path: keeps the recorded timestamp instead of stamping "now"
+        return new Grade(studentId, subject, code, name, score, GradeEncoding.level(level),
+                (flagBits & GradeEncoding.PASSING) != 0, seg.getDouble(base + GPA),
+                millis == 0 ? null : GradeEncoding.fromEpochMillis(millis));
+    }
+
+    private void rebuildIndex() throws IOException {
+        if (channel.size() < HEADER_BYTES + count * SLOT_BYTES) {
+            throw new IOException("Mapped grade file is truncated: " + path);
+        }
+        for (long i = 0; i < count; i++) {
+            int studentId = segmentFor(i).getInt(offsetInSegment(i) + STUDENT_ID);
+            slotsByStudent.computeIfAbsent(studentId, k -> new SlotList()).add(i);
+        }
+    }
+
+    private MappedByteBuffer segmentFor(long slot) {
+        int index = (int) (slot / SEGMENT_SLOTS);
+        while (segments.size() <= index) {
+            long position = HEADER_BYTES + segments.size() * SEGMENT_BYTES;
+            try {
+                // Mapping READ_WRITE past the end of the file extends it
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, SEGMENT_BYTES));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to map grade segment at " + position + ": " + e.getMessage(), e);
+            }
+        }
+        return segments.get(index);
+    }
+
+    private static int offsetInSegment(long slot) {
+        return (int) (slot % SEGMENT_SLOTS) * SLOT_BYTES;
+    }
+
+    private int gradeCountAsInt() {
+        if (count > Integer.MAX_VALUE) throw new IllegalStateException("Too many grades to return as an array: " + count);
+        return (int) count;
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Repository is closed: " + path);
+    }
+
+    private static byte[] encodeString(String value, int max, String what) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > max) {
+            throw new IllegalArgumentException("A " + what + " can be at most " + max + " bytes in a mapped grade file: " + value);
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer seg, int offset, byte[] bytes) {
+        seg.put(offset, (byte) bytes.length);
+        seg.put(offset + 1, bytes, 0, bytes.length);
+    }
+
+    private static String getString(ByteBuffer seg, int offset) {
+        int len = seg.get(offset) & 0xFF;
+        byte[] bytes = new byte[len];
+        seg.get(offset + 1, bytes, 0, len);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Growable primitive list of slot numbers for one student
+    private static final class SlotList {
+        long[] slots = new long[4];
+        int size;
+
+        void add(long slot) {
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+    }
+}
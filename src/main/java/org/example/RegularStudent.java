@@ -7,6 +7,11 @@ public class RegularStudent extends Student {
         super(name, age);
     }
     
+    // Restore constructor used by persistence (see Student)
+    protected RegularStudent(String id, int studentId, String name, int age) {
+        super(id, studentId, name, age);
+    }
+    
     @Override
     public String getStudentType() {
         return "Regular";
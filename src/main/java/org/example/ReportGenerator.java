@@ -1,8 +1,7 @@
 package org.example;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -29,6 +28,9 @@ import java.util.concurrent.atomic.AtomicInteger;
  *   a defensive copy or synchronization.
  * - The method collects per-report timings and logs success/failure to
  *   the `AuditLogger` for the audit trail feature.
+ * - Report layouts are {@link ReportTemplate}s compiled once (text, CSV or
+ *   HTML); each worker renders into its own reusable buffer and writes the
+ *   file in one call, so no format string is parsed per line.
  */
 public class ReportGenerator {
     private final DataStore store;
@@ -42,6 +44,15 @@ public class ReportGenerator {
     }
 
     public ReportResult generateReports(List<String> studentIds, int threads, Path outDir, AuditLogger logger, ProgressListener listener) throws InterruptedException {
+        return generateReports(studentIds, threads, outDir, ReportTemplate.TEXT, logger, listener);
+    }
+
+    /**
+     * Generate reports with the given template; files are named
+     * id + the template format's extension (e.g. STU001.report.html)
+     */
+    public ReportResult generateReports(List<String> studentIds, int threads, Path outDir, ReportTemplate template,
+                                        AuditLogger logger, ProgressListener listener) throws InterruptedException {
         if (threads <= 0) threads = Math.max(1, Runtime.getRuntime().availableProcessors());
         ExecutorService ex = Executors.newFixedThreadPool(threads);
         try {
@@ -58,15 +69,9 @@ public class ReportGenerator {
             try {
                 Student s = store.getStudent(id);
                 if (s == null) return null;
-                Path out = outDir.resolve(id + ".report.txt");
-                try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8,
-                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-                    w.write("Report for " + s.getName() + " (" + s.getId() + ")\n");
-                    w.write("GPA: " + s.computeGPA() + "\n");
-                    w.write("Grades:\n");
-                    for (Grade g : s.getGradeHistory()) {
-                        w.write(String.format(" - %s (%s): %.2f\n", g.getCourseCode(), g.getCourseName(), g.getScore()));
-                    }
+                Path out = outDir.resolve(id + template.getFormat().extension);
+                try (OutputStream w = Files.newOutputStream(out, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    template.writeTo(s, w);
                 }
                 long elapsed = Duration.between(start, Instant.now()).toMillis();
                 timings.put(id, elapsed);
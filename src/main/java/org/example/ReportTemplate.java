@@ -0,0 +1,442 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Precompiled per-student report layout, used by {@link ReportGenerator}.
+ *
+ * A template has three sections: a header and a footer rendered once per
+ * student and a row rendered once per grade. Each section is a layout
+ * string with placeholders such as {@code {name}} or {@code {score:.2f}};
+ * two opening braces stand for a literal one. {@link #compile} parses the layout once
+ * into pre-encoded UTF-8 literals and field references, so rendering is a
+ * walk over that list with no format-string parsing.
+ *
+ * - Output is built in a reusable byte buffer per thread and handed to the
+ *   stream in one write. Buffers that grew past 1 MB are not kept.
+ * - {@code :.Nf} formats a number with N decimals (0-6), like
+ *   {@code String.format("%.Nf")}: half-up rounding of the number's shortest
+ *   decimal form, in the default format locale. Digits are produced
+ *   directly for the common case (finite, non-negative, below 10^7 at two
+ *   decimals, a locale with ASCII digits and '.'); values within a hair of a rounding
+ *   tie, and everything else, go through String.format, so the output
+ *   is always the same. Without a precision a number is written as
+ *   Double.toString would.
+ * - Field values are escaped for the template's format (CSV quoting, HTML
+ *   entities); literals are written as given.
+ *
+ * Templates are immutable and can be shared between threads.
+ */
+public final class ReportTemplate {
+    /** Output formats; decide file extension and how field values are escaped */
+    public enum Format {
+        TEXT(".report.txt"), CSV(".report.csv"), HTML(".report.html");
+
+        public final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * Placeholder names. Grade fields can only be used in the row section;
+     * level and gradeGpa fall back to the student's rules for imported
+     * grades, as in the text grade report.
+     */
+    public enum Field {
+        ID(false), NAME(false), EMAIL(false), PHONE(false), TYPE(false), GPA(false), GRADE_COUNT(false),
+        COURSE_CODE(true), COURSE_NAME(true), SCORE(true), LEVEL(true), GRADE_GPA(true);
+
+        final boolean perGrade;
+
+        Field(boolean perGrade) {
+            this.perGrade = perGrade;
+        }
+
+        // {courseCode} for COURSE_CODE
+        String placeholder() {
+            StringBuilder sb = new StringBuilder();
+            boolean upper = false;
+            for (char c : name().toLowerCase(Locale.ROOT).toCharArray()) {
+                if (c == '_') {
+                    upper = true;
+                } else {
+                    sb.append(upper ? Character.toUpperCase(c) : c);
+                    upper = false;
+                }
+            }
+            return sb.toString();
+        }
+
+        static Field of(String placeholder) {
+            for (Field f : values()) if (f.placeholder().equals(placeholder)) return f;
+            throw new IllegalArgumentException("Unknown report field {" + placeholder + "}");
+        }
+    }
+
+    /** The layout ReportGenerator has always written */
+    public static final ReportTemplate TEXT = compile(Format.TEXT,
+            "Report for {name} ({id})\nGPA: {gpa}\nGrades:\n",
+            " - {courseCode} ({courseName}): {score:.2f}\n",
+            "");
+
+    /** One line per grade, student columns repeated */
+    public static final ReportTemplate CSV = compile(Format.CSV,
+            "id,name,gpa,courseCode,courseName,score,level\n",
+            "{id},{name},{gpa:.2f},{courseCode},{courseName},{score:.2f},{level}\n",
+            "");
+
+    public static final ReportTemplate HTML = compile(Format.HTML,
+            "<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Report for {name}</title></head><body>\n"
+                    + "<h1>Report for {name} ({id})</h1>\n<p>GPA: {gpa:.2f}</p>\n"
+                    + "<table>\n<tr><th>Course</th><th>Name</th><th>Score</th><th>Level</th></tr>\n",
+            "<tr><td>{courseCode}</td><td>{courseName}</td><td>{score:.2f}</td><td>{level}</td></tr>\n",
+            "</table>\n</body></html>\n");
+
+    private static final int MAX_PRECISION = 6;
+    private static final long[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final double FAST_LIMIT = 1e9; // scaled value; keeps binary error far below TIE_WINDOW
+    private static final double TIE_WINDOW = 1e-6; // in units of the last decimal
+    private static final int MAX_RETAINED_BUFFER = 1 << 20;
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(() -> new Buffer(4096));
+
+    // Default format locale last seen, published together with its answer so a
+    // reader never pairs one locale with another locale's result
+    private static volatile LocaleDigits localeDigits;
+
+    private final Format format;
+    private final Part[] header;
+    private final Part[] row;
+    private final Part[] footer;
+
+    // Whether a locale writes numbers as ASCII digits with '.'
+    private static final class LocaleDigits {
+        final Locale locale;
+        final boolean plain;
+
+        LocaleDigits(Locale locale, boolean plain) {
+            this.locale = locale;
+            this.plain = plain;
+        }
+    }
+
+    // A pre-encoded literal, or a field with its precision (-1 = as Double.toString)
+    private static final class Part {
+        final byte[] literal;
+        final Field field;
+        final int precision;
+
+        Part(byte[] literal, Field field, int precision) {
+            this.literal = literal;
+            this.field = field;
+            this.precision = precision;
+        }
+    }
+
+    private ReportTemplate(Format format, Part[] header, Part[] row, Part[] footer) {
+        this.format = format;
+        this.header = header;
+        this.row = row;
+        this.footer = footer;
+    }
+
+    /**
+     * Parse the three layout strings once
+     * @throws IllegalArgumentException for an unknown field, a bad precision,
+     *         an unclosed placeholder or a grade field outside the row
+     */
+    public static ReportTemplate compile(Format format, String header, String row, String footer) {
+        return new ReportTemplate(format, parse(header, false), parse(row, true), parse(footer, false));
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Render the student's report and write it to the stream in one call
+     */
+    public void writeTo(Student student, OutputStream out) throws IOException {
+        Buffer buf = renderToBuffer(student);
+        try {
+            out.write(buf.data, 0, buf.size);
+        } finally {
+            release(buf);
+        }
+    }
+
+    /**
+     * The student's report as a String
+     */
+    public String render(Student student) {
+        Buffer buf = renderToBuffer(student);
+        try {
+            return new String(buf.data, 0, buf.size, StandardCharsets.UTF_8);
+        } finally {
+            release(buf);
+        }
+    }
+
+    private Buffer renderToBuffer(Student student) {
+        Buffer buf = BUFFER.get();
+        buf.size = 0;
+        List<Grade> grades = student.getGradeHistory();
+        renderSection(header, student, null, grades.size(), buf);
+        for (Grade g : grades) renderSection(row, student, g, grades.size(), buf);
+        renderSection(footer, student, null, grades.size(), buf);
+        return buf;
+    }
+
+    private static void release(Buffer buf) {
+        if (buf.data.length > MAX_RETAINED_BUFFER) BUFFER.remove(); // do not pin one huge report's buffer
+    }
+
+    private void renderSection(Part[] parts, Student s, Grade g, int gradeCount, Buffer buf) {
+        for (Part p : parts) {
+            if (p.literal != null) {
+                buf.put(p.literal);
+                continue;
+            }
+            switch (p.field) {
+                case ID: text(buf, s.getId()); break;
+                case NAME: text(buf, s.getName()); break;
+                case EMAIL: text(buf, s.getEmail()); break;
+                case PHONE: text(buf, s.getPhone()); break;
+                case TYPE: text(buf, s.getStudentType()); break;
+                case GPA: number(buf, s.computeGPA(), p.precision); break;
+                case GRADE_COUNT: buf.putLong(gradeCount); break;
+                case COURSE_CODE: text(buf, g.getCourseCode()); break;
+                case COURSE_NAME: text(buf, g.getCourseName()); break;
+                case SCORE: number(buf, g.getScore(), p.precision); break;
+                case LEVEL: text(buf, g.getGradeLevel() != null ? g.getGradeLevel() : s.getGradeLevel(g.getScore())); break;
+                case GRADE_GPA: number(buf, g.getGradeLevel() != null ? g.getGpa() : s.calculateGPA(g.getScore()), p.precision); break;
+                default: throw new IllegalStateException("Unhandled field " + p.field);
+            }
+        }
+    }
+
+    // Field text, escaped for the output format; null is written as nothing
+    private void text(Buffer buf, String value) {
+        if (value == null) return;
+        switch (format) {
+            case CSV:
+                if (needsQuotes(value)) {
+                    buf.putAscii('"');
+                    for (int i = 0; i < value.length(); i++) {
+                        char c = value.charAt(i);
+                        if (c == '"') buf.putAscii('"');
+                        buf.putChar(value, i);
+                        if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) i++;
+                    }
+                    buf.putAscii('"');
+                    return;
+                }
+                break;
+            case HTML:
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    switch (c) {
+                        case '&': buf.putAscii("&amp;"); break;
+                        case '<': buf.putAscii("&lt;"); break;
+                        case '>': buf.putAscii("&gt;"); break;
+                        case '"': buf.putAscii("&quot;"); break;
+                        case '\'': buf.putAscii("&#39;"); break;
+                        default:
+                            buf.putChar(value, i);
+                            if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) i++;
+                    }
+                }
+                return;
+            default:
+                break;
+        }
+        buf.putString(value);
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private static void number(Buffer buf, double v, int precision) {
+        if (precision < 0) buf.putAscii(Double.toString(v));
+        else appendFixed(buf, v, precision);
+    }
+
+    /**
+     * Same text as String.format("%." + precision + "f", v)
+     */
+    static String formatFixed(double v, int precision) {
+        Buffer buf = new Buffer(32);
+        appendFixed(buf, v, precision);
+        return new String(buf.data, 0, buf.size, StandardCharsets.UTF_8);
+    }
+
+    private static void appendFixed(Buffer buf, double v, int precision) {
+        long scale = POW10[precision];
+        double x = v * scale;
+        if (x >= 0 && x < FAST_LIMIT && (v != 0 || 1 / v > 0) && localeHasPlainDigits()) {
+            long units = (long) x;
+            double frac = x - units;
+            // the formatter rounds the shortest decimal form; near a tie that can differ from the binary value
+            if (Math.abs(frac - 0.5) > TIE_WINDOW) {
+                if (frac > 0.5) units++;
+                buf.putLong(units / scale);
+                if (precision > 0) {
+                    buf.putAscii('.');
+                    long decimals = units % scale;
+                    for (long d = scale / 10; d > 0; d /= 10) buf.putAscii((char) ('0' + (decimals / d) % 10));
+                }
+                return;
+            }
+        }
+        buf.putString(String.format("%." + precision + "f", v));
+    }
+
+    private static boolean localeHasPlainDigits() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        LocaleDigits cached = localeDigits;
+        if (cached == null || cached.locale != locale) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            cached = new LocaleDigits(locale, symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.');
+            localeDigits = cached;
+        }
+        return cached.plain;
+    }
+
+    private static Part[] parse(String layout, boolean allowGradeFields) {
+        List<Part> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < layout.length()) {
+            char c = layout.charAt(i);
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 < layout.length() && layout.charAt(i + 1) == '{') {
+                literal.append('{');
+                i += 2;
+                continue;
+            }
+            int close = layout.indexOf('}', i);
+            if (close < 0) throw new IllegalArgumentException("Unclosed placeholder in report layout: " + layout.substring(i));
+            String spec = layout.substring(i + 1, close);
+            int colon = spec.indexOf(':');
+            Field field = Field.of(colon < 0 ? spec : spec.substring(0, colon));
+            if (field.perGrade && !allowGradeFields) {
+                throw new IllegalArgumentException("{" + field.placeholder() + "} can only be used in the row layout");
+            }
+            int precision = -1;
+            if (colon >= 0) {
+                String fmt = spec.substring(colon + 1);
+                if (!fmt.matches("\\.\\df") || fmt.charAt(1) - '0' > MAX_PRECISION) {
+                    throw new IllegalArgumentException("Unsupported number format '" + fmt + "' (use .0f to ." + MAX_PRECISION + "f)");
+                }
+                if (field != Field.GPA && field != Field.SCORE && field != Field.GRADE_GPA) {
+                    throw new IllegalArgumentException("{" + field.placeholder() + "} is not a number");
+                }
+                precision = fmt.charAt(1) - '0';
+            }
+            if (literal.length() > 0) {
+                parts.add(new Part(literal.toString().getBytes(StandardCharsets.UTF_8), null, -1));
+                literal.setLength(0);
+            }
+            parts.add(new Part(null, field, precision));
+            i = close + 1;
+        }
+        if (literal.length() > 0) parts.add(new Part(literal.toString().getBytes(StandardCharsets.UTF_8), null, -1));
+        return parts.toArray(new Part[0]);
+    }
+
+    // Growable byte array with a UTF-8 encoder
+    private static final class Buffer {
+        byte[] data;
+        int size;
+
+        Buffer(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void put(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void putAscii(char c) {
+            ensure(1);
+            data[size++] = (byte) c;
+        }
+
+        void putAscii(String s) {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) data[size++] = (byte) s.charAt(i);
+        }
+
+        void putLong(long v) {
+            if (v < 0) {
+                putAscii(Long.toString(v));
+                return;
+            }
+            ensure(20);
+            int start = size;
+            do {
+                data[size++] = (byte) ('0' + v % 10);
+                v /= 10;
+            } while (v != 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                byte t = data[i];
+                data[i] = data[j];
+                data[j] = t;
+            }
+        }
+
+        void putString(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                putChar(s, i);
+                if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) i++;
+            }
+        }
+
+        // UTF-8 for the char at i; a surrogate pair is written whole when c is its high half
+        void putChar(String s, int i) {
+            ensure(4);
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                data[size++] = (byte) c;
+            } else if (c < 0x800) {
+                data[size++] = (byte) (0xc0 | (c >> 6));
+                data[size++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(i + 1));
+                data[size++] = (byte) (0xf0 | (cp >> 18));
+                data[size++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                data[size++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                data[size++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                data[size++] = '?'; // unpaired surrogate, as String.getBytes
+            } else {
+                data[size++] = (byte) (0xe0 | (c >> 12));
+                data[size++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                data[size++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+
+        private void ensure(int n) {
+            if (size + n > data.length) data = java.util.Arrays.copyOf(data, Math.max(size + n, data.length * 2));
+        }
+    }
+}
@@ -38,8 +38,9 @@ public class StatsService {
         loading = true;
         Instant start = Instant.now();
         try {
-            double avg = store.getAllStudents().stream().mapToDouble(Student::computeGPA).average().orElse(0.0);
-            long totalStudents = store.getAllStudents().size();
+            var students = store.students();
+            double avg = students.stream().mapToDouble(Student::computeGPA).average().orElse(0.0);
+            long totalStudents = students.size();
             latest.put("averageGPA", avg);
             latest.put("totalStudents", totalStudents);
             latest.put("lastUpdate", Instant.now().toString());
@@ -0,0 +1,123 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grade repository backed by the students held in a {@link DataStore}.
+ *
+ * Grades are not copied into a separate collection: {@link #addGrade(Grade)}
+ * appends to the owning student's grade history, which the store already
+ * indexes, ranks and journals. Reports read through this repository therefore
+ * agree with rankings and statistics no matter which import path loaded the
+ * data (console entry, `GradeImporter`, `FileService` CSV import, snapshots).
+ *
+ * Grades created without a level or GPA (e.g. by the CSV import) are graded
+ * on the fly with the owning student's rules when computing pass counts and
+ * distributions. Grades for a numeric id the store does not know are kept in
+ * a small side list so nothing recorded through the repository is lost.
+ */
+public class StoreGradeRepository implements IGradeRepository {
+    private static final Grade[] EMPTY = new Grade[0];
+
+    private final DataStore store;
+    private final List<Grade> unmatched = new ArrayList<>(); // guarded by itself
+
+    public StoreGradeRepository(DataStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Append the grade to its student's history, or to the unmatched list
+     * when no student with that numeric id is stored
+     */
+    @Override
+    public void addGrade(Grade grade) {
+        Student student = store.getStudent(grade.getStudentId());
+        if (student != null) {
+            student.addGrade(grade);
+        } else {
+            synchronized (unmatched) {
+                unmatched.add(grade);
+            }
+        }
+    }
+
+    /**
+     * Get all grades for a student (insertion order)
+     */
+    @Override
+    public Grade[] getStudentGrades(int studentId) {
+        Student student = store.getStudent(studentId);
+        List<Grade> out = new ArrayList<>(student == null ? List.of() : student.getGradeHistory());
+        synchronized (unmatched) {
+            for (Grade g : unmatched) {
+                if (g.getStudentId() == studentId) out.add(g);
+            }
+        }
+        return out.toArray(EMPTY);
+    }
+
+    /**
+     * Get all grades, student by student in store order
+     */
+    @Override
+    public Grade[] getAllGrades() {
+        List<Grade> out = new ArrayList<>();
+        for (Student s : store.getAllStudents()) out.addAll(s.getGradeHistory());
+        synchronized (unmatched) {
+            out.addAll(unmatched);
+        }
+        return out.toArray(EMPTY);
+    }
+
+    @Override
+    public int getGradeCount() {
+        int count = 0;
+        for (Student s : store.students()) count += s.getGradeCount();
+        synchronized (unmatched) {
+            return count + unmatched.size();
+        }
+    }
+
+    /**
+     * Student histories grow on demand, so it is never full
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    @Override
+    public int getPassingCount() {
+        int passing = 0;
+        for (Student s : store.students()) {
+            for (Grade g : s.getGradeHistory()) {
+                if (g.getGradeLevel() != null ? g.isPassing() : s.isPassing(g.getScore())) passing++;
+            }
+        }
+        synchronized (unmatched) {
+            for (Grade g : unmatched) if (g.isPassing()) passing++;
+        }
+        return passing;
+    }
+
+    @Override
+    public int[] getGradeDistribution() {
+        int[] distribution = new int[6];
+        for (Student s : store.students()) {
+            for (Grade g : s.getGradeHistory()) {
+                String level = g.getGradeLevel() != null ? g.getGradeLevel() : s.getGradeLevel(g.getScore());
+                int band = IGradeRepository.gradeBand(level);
+                if (band >= 0) distribution[band]++;
+            }
+        }
+        synchronized (unmatched) {
+            for (Grade g : unmatched) {
+                int band = IGradeRepository.gradeBand(g.getGradeLevel());
+                if (band >= 0) distribution[band]++;
+            }
+        }
+        return distribution;
+    }
+}
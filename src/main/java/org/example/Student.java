@@ -1,22 +1,36 @@
 package org.example;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Student {
-    private final String id; // STU\d{3}
+    private final String id; // STU\d{3}, or STU1000 and up
     private final int studentId; // compatibility numeric id
     private String name;
     private int age; // compatibility
     private String email;
     private String phone;
-    private final Deque<Grade> gradeHistory = new LinkedList<>(); // LinkedList for frequent insert/remove
+    // Append-only, array-backed grade history. Slots below gradeCount never
+    // change once written, so readers can share the array without copying.
+    private Grade[] gradeHistory = new Grade[4];
+    private int gradeCount;
+    // Running aggregates maintained by addGrade so GPA reads are O(1)
+    private double scoreSum;
+    private final Map<String, CourseAggregate> courseAggregates = new HashMap<>();
     private final Set<String> courses = new ConcurrentSkipListSet<>();
+    // Imported grades by source row, so re-importing a file does not add them twice; created on first use.
+    // One entry per imported grade for the life of the student (roughly the source string plus a map node).
+    private Map<String, Grade> importedGrades;
+    private final CopyOnWriteArrayList<StudentListener> listeners = new CopyOnWriteArrayList<>();
     private static final java.util.concurrent.atomic.AtomicInteger ID_COUNTER = new java.util.concurrent.atomic.AtomicInteger(0);
 
     // Compatibility constructor used by legacy callers that construct students by name/age
@@ -37,9 +51,47 @@ public class Student {
         int parsed = 0;
         try { parsed = Integer.parseInt(id.replaceAll("^\\D+", "")); } catch (Exception e) { parsed = ID_COUNTER.incrementAndGet(); }
         this.studentId = parsed;
+        // keep generated ids ahead of explicit ones, as the restore constructor does
+        ID_COUNTER.accumulateAndGet(parsed, Math::max);
         this.name = name;
     }
 
+    // Restore constructor for persisted students: identifiers were validated when
+    // the student was first created, so they are trusted here. The numeric id
+    // counter is not touched; the reader calls reserveId once its data is verified.
+    protected Student(String id, int studentId, String name, int age) {
+        this.id = Objects.requireNonNull(id);
+        this.studentId = studentId;
+        this.name = name;
+        this.age = age;
+    }
+
+    // Keep generated ids ahead of a restored one so new students do not collide with it
+    static void reserveId(int studentId) {
+        ID_COUNTER.accumulateAndGet(studentId, Math::max);
+    }
+
+    /**
+     * Callbacks fired after a student changes. Listeners are invoked outside the
+     * student's lock, on the thread that made the change.
+     */
+    public interface StudentListener {
+        /**
+         * A grade was appended; `ordinal` is its 0-based position in the history
+         */
+        void onGradeAdded(Student student, Grade grade, int ordinal);
+
+        default void onEmailChanged(Student student, String oldEmail, String newEmail) {}
+    }
+
+    public void addListener(StudentListener listener) {
+        listeners.addIfAbsent(Objects.requireNonNull(listener));
+    }
+
+    public void removeListener(StudentListener listener) {
+        listeners.remove(listener);
+    }
+
     public String getId() { return id; }
 
     // Compatibility numeric id
@@ -58,7 +110,13 @@ public class Student {
 
     public void setEmail(String email) {
         if (email != null && !ValidationUtils.isValidEmail(email)) throw new IllegalArgumentException("Invalid email: " + email);
+        String old = this.email;
         this.email = email;
+        if (!Objects.equals(old, email)) {
+            for (StudentListener listener : listeners) {
+                listener.onEmailChanged(this, old, email);
+            }
+        }
     }
 
     public String getPhone() { return phone; }
@@ -68,25 +126,120 @@ public class Student {
         this.phone = phone;
     }
 
-    public void addGrade(Grade g) {
+    // Used by persistence when restoring trusted, previously validated contact details
+    void restoreContact(String email, String phone) {
+        this.email = email;
+        this.phone = phone;
+    }
+
+    /**
+     * Append a grade. A grade with a {@link Grade#getSource() source} is
+     * skipped if a grade from the same source row, with the same course and
+     * score, is already recorded, which makes re-running an import of an
+     * append-only file harmless. Every imported grade keeps its source in a
+     * per-student map for that, so imported grades cost one map entry each
+     * on top of the history.
+     * @return false if the grade was skipped as a duplicate
+     */
+    public boolean addGrade(Grade g) {
         Objects.requireNonNull(g);
-        gradeHistory.addLast(g);
+        int ordinal;
+        synchronized (this) {
+            if (g.getSource() != null) {
+                if (importedGrades == null) importedGrades = new HashMap<>();
+                Grade previous = importedGrades.put(g.getSource(), g);
+                if (previous != null && previous.isSameImport(g)) {
+                    importedGrades.put(g.getSource(), previous);
+                    return false;
+                }
+            }
+            if (gradeCount == gradeHistory.length) {
+                // grow into a new array; views handed out earlier keep the old one
+                gradeHistory = Arrays.copyOf(gradeHistory, gradeCount * 2);
+            }
+            ordinal = gradeCount;
+            gradeHistory[gradeCount++] = g;
+            scoreSum += g.getScore();
+            courseAggregates.computeIfAbsent(g.getCourseCode(), k -> new CourseAggregate()).add(g.getScore());
+        }
         courses.add(g.getCourseCode());
         // update grade's studentId if missing
         if (g.getStudentId() == 0) {
             g.setStudentId(this.studentId);
         }
+        // notify outside the lock so listeners may take their own locks
+        for (StudentListener listener : listeners) {
+            listener.onGradeAdded(this, g, ordinal);
+        }
+        return true;
+    }
+
+    /**
+     * Read-only view of the grades recorded so far, oldest first. The view
+     * shares the history array instead of copying it and is not affected by
+     * grades added after the call.
+     */
+    public synchronized List<Grade> getGradeHistory() {
+        if (gradeCount == 0) return Collections.emptyList();
+        return new GradeHistoryView(gradeHistory, gradeCount);
+    }
+
+    public synchronized int getGradeCount() { return gradeCount; }
+
+    public synchronized double computeGPA() {
+        if (gradeCount == 0) return 0.0;
+        return scoreSum / gradeCount;
+    }
+
+    /**
+     * Average score for one course, or 0.0 if the student has no grade in it
+     */
+    public synchronized double getCourseAverage(String courseCode) {
+        CourseAggregate agg = courseAggregates.get(courseCode);
+        return agg == null ? 0.0 : agg.sum / agg.count;
+    }
+
+    public synchronized int getCourseGradeCount(String courseCode) {
+        CourseAggregate agg = courseAggregates.get(courseCode);
+        return agg == null ? 0 : agg.count;
     }
 
-    public List<Grade> getGradeHistory() {
-        return Collections.unmodifiableList(new LinkedList<>(gradeHistory));
+    public synchronized double getCourseBestScore(String courseCode) {
+        CourseAggregate agg = courseAggregates.get(courseCode);
+        return agg == null ? 0.0 : agg.max;
     }
 
-    public double computeGPA() {
-        if (gradeHistory.isEmpty()) return 0.0;
-        double sum = 0.0;
-        for (Grade g : gradeHistory) sum += g.getScore();
-        return sum / gradeHistory.size();
+    // Per-course running totals
+    private static final class CourseAggregate {
+        int count;
+        double sum;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(double score) {
+            count++;
+            sum += score;
+            if (score > max) max = score;
+        }
+    }
+
+    // Fixed-size window over the first `size` slots of a history array
+    private static final class GradeHistoryView extends AbstractList<Grade> implements RandomAccess {
+        private final Grade[] grades;
+        private final int size;
+
+        GradeHistoryView(Grade[] grades, int size) {
+            this.grades = grades;
+            this.size = size;
+        }
+
+        @Override
+        public Grade get(int index) {
+            Objects.checkIndex(index, size);
+            return grades[index];
+        }
+
+        @Override
+        public int size() { return size; }
     }
 
     // Compatibility hooks used by older code
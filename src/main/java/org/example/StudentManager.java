@@ -1,48 +1,62 @@
 package org.example;
 
 // Manages students
+// Thin adapter over a DataStore: the store owns the students (insertion order
+// for listings plus indexes by numeric id and by "STUxxx" id), so anything
+// added here is visible to reports, rankings and the journal, and vice versa.
 public class StudentManager {
-    private Student[] students;
-    private int count;
+    private final DataStore store;
     
     public StudentManager() {
-        students = new Student[50];
-        count = 0;
+        this(new DataStore());
+    }
+    
+    // Shares the given store; the default students are only added to an empty store
+    public StudentManager(DataStore store) {
+        this.store = store;
         
-        // Add some default students
-        students[count++] = new RegularStudent("Alice", 18);
-        students[count++] = new RegularStudent("Bob", 17);
-        students[count++] = new RegularStudent("Charlie", 19);
-        students[count++] = new HonorsStudent("Diana", 18);
-        students[count++] = new HonorsStudent("Edward", 17);
+        if (store.getStudentCount() == 0) {
+            // Add some default students
+            store.addStudent(new RegularStudent("Alice", 18));
+            store.addStudent(new RegularStudent("Bob", 17));
+            store.addStudent(new RegularStudent("Charlie", 19));
+            store.addStudent(new HonorsStudent("Diana", 18));
+            store.addStudent(new HonorsStudent("Edward", 17));
+        }
+    }
+    
+    public DataStore getStore() {
+        return store;
     }
     
+    /**
+     * @throws IllegalArgumentException if a student with the same "STUxxx" or
+     *         numeric id is already in the store
+     */
     public void addStudent(Student student) {
-        if (count < students.length) {
-            students[count++] = student;
-            System.out.println("Student added! ID: " + student.getStudentId());
-        } else {
-            System.out.println("Student list is full!");
+        if (store.getStudent(student.getId()) != null || store.getStudent(student.getStudentId()) != null) {
+            throw new IllegalArgumentException("Student ID already exists: " + student.getId());
         }
+        store.addStudent(student);
+        System.out.println("Student added! ID: " + student.getStudentId());
     }
     
     public void viewAllStudents() {
         System.out.println("\n\u001B[1;36m--- All Students ---\u001B[0m");
         System.out.printf("% -6s | %-20s | %-3s | %-8s | %-6s\n", "ID", "Name", "Age", "Type", "GPA");
         System.out.println("---------------------------------------------------------------");
-        for (int i = 0; i < count; i++) {
-            Student s = students[i];
+        for (Student s : store.getAllStudents()) {
             System.out.printf("% -6s | %-20s | %-3d | %-8s | %5.2f\n", s.getId(), s.getName(), s.getAge(), s.getStudentType(), s.computeGPA());
         }
     }
     
     public Student findStudent(int id) {
-        for (int i = 0; i < count; i++) {
-            if (students[i].getStudentId() == id) {
-                return students[i];
-            }
-        }
-        return null;
+        return store.getStudent(id);
+    }
+    
+    // Lookup by "STUxxx" identifier
+    public Student findStudent(String id) {
+        return id == null ? null : store.getStudent(id);
     }
     
     // Search students by name or ID with partial matching (case-insensitive)
@@ -58,21 +72,22 @@ public class StudentManager {
             // Not a number, search by name
         }
         
-        for (int i = 0; i < count; i++) {
+        String lowerQuery = query.toLowerCase();
+        for (Student student : store.getAllStudents()) {
             boolean match = false;
             
             // Check if ID matches
-            if (searchId != -1 && students[i].getStudentId() == searchId) {
+            if (searchId != -1 && student.getStudentId() == searchId) {
                 match = true;
             }
             
             // Check if name contains query (case-insensitive partial match)
-            if (students[i].getName().toLowerCase().contains(query.toLowerCase())) {
+            if (student.getName().toLowerCase().contains(lowerQuery)) {
                 match = true;
             }
             
             if (match) {
-                students[i].displayStudentDetails();
+                student.displayStudentDetails();
                 found = true;
             }
         }
@@ -84,14 +99,10 @@ public class StudentManager {
     
     // Return array of all students (snapshot) for statistics and reporting
     public Student[] getAllStudents() {
-        Student[] result = new Student[count];
-        for (int i = 0; i < count; i++) {
-            result[i] = students[i];
-        }
-        return result;
+        return store.getAllStudents().toArray(new Student[0]);
     }
     
     public int getStudentCount() {
-        return count;
+        return store.getStudentCount();
     }
 }
@@ -4,6 +4,8 @@ import java.util.Comparator;
 import java.util.PriorityQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -23,20 +25,29 @@ public class TaskQueue {
         synchronized (queue) {
             queue.add(t);
         }
-        ex.submit(() -> {
-            PrioritizedTask next;
-            synchronized (queue) { next = queue.poll(); }
-            if (next != null) {
-                running.incrementAndGet();
-                try { next.r.run(); } finally { running.decrementAndGet(); }
-            }
-        });
+        try {
+            ex.submit(() -> {
+                PrioritizedTask next;
+                synchronized (queue) { next = queue.poll(); }
+                if (next != null) {
+                    running.incrementAndGet();
+                    try { next.r.run(); } finally { running.decrementAndGet(); }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (queue) { queue.remove(t); } // after shutdown
+            throw e;
+        }
     }
 
     public int activeCount() { return running.get(); }
 
+    /**
+     * Stop accepting tasks and wait (up to a minute) for queued and running ones to finish
+     */
     public void shutdown() {
         ex.shutdown();
+        try { ex.awaitTermination(1, TimeUnit.MINUTES); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
     }
 
     private static class PrioritizedTask implements Comparable<PrioritizedTask> {
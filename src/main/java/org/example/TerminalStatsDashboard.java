@@ -2,7 +2,6 @@ package org.example;
 
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.Executors;
@@ -142,9 +141,8 @@ public class TerminalStatsDashboard {
     }
 
     private void printDistributionAndTopPerformers() {
-        List<Student> students = store.getAllStudents();
         int a=0,b=0,c=0,d=0,f=0;
-        for (Student s : students) {
+        for (Student s : store.students()) {
             double gpa = s.computeGPA();
             if (gpa >= 90) a++;
             else if (gpa >= 80) b++;
@@ -154,10 +152,8 @@ public class TerminalStatsDashboard {
         }
         System.out.println("Grade distribution (A/B/C/D/F): " + a + "/" + b + "/" + c + "/" + d + "/" + f);
 
-        // top performers
-        students.stream()
-                .sorted((x,y) -> Double.compare(y.computeGPA(), x.computeGPA()))
-                .limit(5)
+        // top performers (read from the store's GPA ranking index instead of sorting everyone)
+        store.getTopStudents(5)
                 .forEach(s -> System.out.printf("%s - GPA: %.2f\n", s.getId(), s.computeGPA()));
     }
 
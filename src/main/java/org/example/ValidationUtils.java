@@ -2,10 +2,20 @@ package org.example;
 
 import java.util.regex.Pattern;
 
+/**
+ * Field validators. The patterns below define the accepted formats.
+ *
+ * Student id, name, date, course code and grade are checked by hand-written
+ * scanners with exactly the semantics of their patterns (no Matcher per call;
+ * these run several times per imported row). The slice overloads validate
+ * `s[start, end)` of any CharSequence, e.g. a field inside a CSV line,
+ * without creating a substring. Email and phone still use their patterns.
+ */
 public final class ValidationUtils {
     private ValidationUtils() {}
 
-    public static final Pattern STUDENT_ID = Pattern.compile("^STU\\d{3}$");
+    // Three digits, or more once the generated ids pass 999 (STU1000, no leading zero; at most 9 digits so it fits an int)
+    public static final Pattern STUDENT_ID = Pattern.compile("^STU(\\d{3}|[1-9]\\d{3,8})$");
     public static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
     public static final Pattern PHONE = Pattern.compile("^(\\(\\d{3}\\) \\\\d{3}-\\d{4}|\\d{3}-\\d{3}-\\d{4}|\\+1-\\d{3}-\\d{3}-\\d{4}|\\d{10})$");
     public static final Pattern NAME = Pattern.compile("^[a-zA-Z]+(['\\-\\s][a-zA-Z]+)*$");
@@ -14,7 +24,17 @@ public final class ValidationUtils {
     public static final Pattern GRADE = Pattern.compile("^(100|[1-9]?\\d)$");
 
     public static boolean isValidStudentId(String s) {
-        return s != null && STUDENT_ID.matcher(s).matches();
+        return s != null && isValidStudentId(s, 0, s.length());
+    }
+
+    // STU(\d{3}|[1-9]\d{3,8})
+    public static boolean isValidStudentId(CharSequence s, int start, int end) {
+        int digits = end - start - 3;
+        if (digits < 3 || digits > 9) return false;
+        if (s.charAt(start) != 'S' || s.charAt(start + 1) != 'T' || s.charAt(start + 2) != 'U') return false;
+        if (digits > 3 && s.charAt(start + 3) == '0') return false;
+        for (int i = start + 3; i < end; i++) if (!isDigit(s.charAt(i))) return false;
+        return true;
     }
 
     public static boolean isValidEmail(String s) {
@@ -26,19 +46,84 @@ public final class ValidationUtils {
     }
 
     public static boolean isValidName(String s) {
-        return s != null && NAME.matcher(s).matches();
+        return s != null && isValidName(s, 0, s.length());
+    }
+
+    // [a-zA-Z]+(['\-\s][a-zA-Z]+)* : runs of letters joined by single separators
+    public static boolean isValidName(CharSequence s, int start, int end) {
+        if (start >= end) return false;
+        boolean afterLetter = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (isLetter(c)) {
+                afterLetter = true;
+            } else if (afterLetter && isNameSeparator(c)) {
+                afterLetter = false;
+            } else {
+                return false;
+            }
+        }
+        return afterLetter;
     }
 
     public static boolean isValidDate(String s) {
-        return s != null && DATE.matcher(s).matches();
+        return s != null && isValidDate(s, 0, s.length());
+    }
+
+    // \d{4}-\d{2}-\d{2}
+    public static boolean isValidDate(CharSequence s, int start, int end) {
+        if (end - start != 10) return false;
+        for (int i = 0; i < 10; i++) {
+            char c = s.charAt(start + i);
+            if (i == 4 || i == 7 ? c != '-' : !isDigit(c)) return false;
+        }
+        return true;
     }
 
     public static boolean isValidCourseCode(String s) {
-        return s != null && COURSE_CODE.matcher(s).matches();
+        return s != null && isValidCourseCode(s, 0, s.length());
+    }
+
+    // [A-Z]{3}\d{3}
+    public static boolean isValidCourseCode(CharSequence s, int start, int end) {
+        if (end - start != 6) return false;
+        for (int i = 0; i < 3; i++) {
+            char c = s.charAt(start + i);
+            if (c < 'A' || c > 'Z') return false;
+        }
+        return isDigit(s.charAt(start + 3)) && isDigit(s.charAt(start + 4)) && isDigit(s.charAt(start + 5));
     }
 
     public static boolean isValidGrade(String s) {
-        return s != null && GRADE.matcher(s).matches();
+        return s != null && isValidGrade(s, 0, s.length());
+    }
+
+    // 100|[1-9]?\d : 0-100 without leading zeros
+    public static boolean isValidGrade(CharSequence s, int start, int end) {
+        switch (end - start) {
+            case 1:
+                return isDigit(s.charAt(start));
+            case 2:
+                return s.charAt(start) >= '1' && s.charAt(start) <= '9' && isDigit(s.charAt(start + 1));
+            case 3:
+                return s.charAt(start) == '1' && s.charAt(start + 1) == '0' && s.charAt(start + 2) == '0';
+            default:
+                return false;
+        }
+    }
+
+    // \d without UNICODE_CHARACTER_CLASS is ASCII only
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // ' - or \s, which is [ \t\n\x0B\f\r]
+    private static boolean isNameSeparator(char c) {
+        return c == '\'' || c == '-' || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
     public static String examplesFor(String field) {
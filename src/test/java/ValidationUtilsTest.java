@@ -1,6 +1,10 @@
 import org.example.ValidationUtils;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ValidationUtilsTest {
@@ -8,6 +12,9 @@ public class ValidationUtilsTest {
     void testStudentIdValid() {
         assertTrue(ValidationUtils.isValidStudentId("STU001"));
         assertFalse(ValidationUtils.isValidStudentId("stu001"));
+        // generated ids past 999 keep growing without a leading zero
+        assertTrue(ValidationUtils.isValidStudentId("STU1000"));
+        assertFalse(ValidationUtils.isValidStudentId("STU0999"));
     }
 
     @Test
@@ -15,4 +22,47 @@ public class ValidationUtilsTest {
         assertTrue(ValidationUtils.isValidEmail("alice@example.edu"));
         assertFalse(ValidationUtils.isValidEmail("alice@.edu"));
     }
+
+    @Test
+    void testFastValidatorsMatchPatterns() {
+        String[] edge = {"", "STU001", "STU1234", "STU0123", "STU999999999", "STU1000000000", "STU01", "stu001", "STU00a", "STU\u0661\u0662\u0663", "STU001\n",
+                "MAT101", "MAt101", "MA101", "ABC1234", "0", "00", "05", "9", "10", "99", "100", "101", "1000", "-1",
+                "John", "John Doe", "Anne-Marie O'Neill", "John  Doe", "-John", "John-", "J\tD", "\u00c9mile",
+                "2025-12-31", "2025-1-31", "2025/12/31"};
+        for (String s : edge) assertAllAgree(s);
+
+        // random strings over the characters the patterns care about
+        String alphabet = "STUMAZaz019 -'\t\n.@";
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = random.nextInt(11);
+            for (int j = 0; j < len; j++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            assertAllAgree(sb.toString());
+        }
+    }
+
+    @Test
+    void testSliceValidators() {
+        String line = "x,STU042,CSC105,100,Anne O'Neill,2025-01-02";
+        assertTrue(ValidationUtils.isValidStudentId(line, 2, 8));
+        assertTrue(ValidationUtils.isValidCourseCode(line, 9, 15));
+        assertTrue(ValidationUtils.isValidGrade(line, 16, 19));
+        assertTrue(ValidationUtils.isValidName(line, 20, 32));
+        assertTrue(ValidationUtils.isValidDate(line, 33, 43));
+        assertFalse(ValidationUtils.isValidGrade(line, 16, 20));
+        assertFalse(ValidationUtils.isValidStudentId(line, 1, 8));
+    }
+
+    private static void assertAllAgree(String s) {
+        assertAgrees(ValidationUtils.STUDENT_ID, ValidationUtils::isValidStudentId, s);
+        assertAgrees(ValidationUtils.COURSE_CODE, ValidationUtils::isValidCourseCode, s);
+        assertAgrees(ValidationUtils.GRADE, ValidationUtils::isValidGrade, s);
+        assertAgrees(ValidationUtils.NAME, ValidationUtils::isValidName, s);
+        assertAgrees(ValidationUtils.DATE, ValidationUtils::isValidDate, s);
+    }
+
+    private static void assertAgrees(Pattern pattern, Predicate<String> validator, String s) {
+        assertEquals(pattern.matcher(s).matches(), validator.test(s), () -> pattern + " disagrees on \"" + s + "\"");
+    }
 }
@@ -0,0 +1,177 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySnapshotCodecTest {
+    @Test
+    void roundTripKeepsStudentsGradesAndSharedCourses() throws Exception {
+        List<Student> students = sampleStudents(true);
+        Path file = Files.createTempFile("codec", ".snap");
+        try {
+            assertEquals(3, BinarySnapshotCodec.write(file, students));
+            List<Student> read = BinarySnapshotCodec.read(file);
+            assertSameStudents(students, read);
+
+            // one Subject per dictionary entry; same code and name with another type is its own entry
+            List<Grade> ada = read.get(0).getGradeHistory();
+            assertSame(ada.get(0).getSubject(), read.get(1).getGradeHistory().get(0).getSubject());
+            assertTrue(ada.get(0).getSubject() instanceof CoreSubject);
+            assertTrue(ada.get(1).getSubject() instanceof ElectiveSubject);
+            assertNull(ada.get(2).getSubject());
+            assertEquals("grades.csv@120", ada.get(2).getSource());
+            assertNull(ada.get(2).getTimestamp());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void corruptOrTruncatedSnapshotHandsNothingToTheSink() throws Exception {
+        Path file = Files.createTempFile("codec", ".snap");
+        try {
+            BinarySnapshotCodec.write(file, sampleStudents(true));
+            byte[] intact = Files.readAllBytes(file);
+            List<Student> sink = new ArrayList<>();
+
+            // a flipped bit in the last student's data still decodes, but fails the CRC
+            byte[] corrupt = intact.clone();
+            int at = indexOf(corrupt, "Grace".getBytes());
+            corrupt[at] ^= 0x20;
+            Files.write(file, corrupt);
+            IOException e = assertThrows(IOException.class, () -> BinarySnapshotCodec.read(file, sink::add));
+            assertEquals("Snapshot checksum mismatch", e.getMessage());
+            assertTrue(sink.isEmpty());
+
+            for (int cut : new int[] {2, intact.length / 2, intact.length - 1}) {
+                Files.write(file, Arrays.copyOf(intact, cut));
+                assertThrows(IOException.class, () -> BinarySnapshotCodec.read(file, sink::add));
+                assertTrue(sink.isEmpty());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void damageAtAnyPositionFailsWithAnIOException() throws Exception {
+        List<Student> students = new ArrayList<>(sampleStudents(true));
+        Student high = BinarySnapshotCodec.restoreStudent("Regular", "STU944", 50_944, "High Number", 30);
+        high.addGrade(new Grade(50_944, new CoreSubject("Physics", "PHY105"), "PHY105", "Physics", 65, "D", true, 1.2,
+                LocalDateTime.of(2024, 1, 1, 0, 0)));
+        students.add(high);
+        Path file = Files.createTempFile("codec", ".snap");
+        try {
+            BinarySnapshotCodec.write(file, students);
+            byte[] intact = Files.readAllBytes(file);
+            List<Student> sink = new ArrayList<>();
+            for (int i = 0; i < intact.length; i++) {
+                for (int mask : new int[] {0x01, 0x80, 0xFF}) {
+                    byte[] damaged = intact.clone();
+                    damaged[i] ^= (byte) mask;
+                    Files.write(file, damaged);
+                    try {
+                        BinarySnapshotCodec.read(file, sink::add);
+                        fail("damage at byte " + i + " was not detected");
+                    } catch (IOException expected) {
+                        // every decode failure, not only the CRC check, surfaces as an IOException
+                    }
+                    assertTrue(sink.isEmpty());
+                }
+            }
+            // nothing from the damaged files moved the id counter
+            assertTrue(new RegularStudent("After Damage", 20).getStudentId() < 50_944);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void versionOneSnapshotsAreStillRead() throws Exception {
+        // version 1 is version 2 without import sources: same bytes apart from
+        // the version number (byte 4) and therefore the CRC
+        List<Student> students = sampleStudents(false);
+        Path file = Files.createTempFile("codec-v1", ".snap");
+        try {
+            BinarySnapshotCodec.write(file, students);
+            byte[] bytes = Files.readAllBytes(file);
+            assertEquals(2, bytes[4]);
+            bytes[4] = 1;
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            ByteBuffer.wrap(bytes).putInt(bytes.length - 4, (int) crc.getValue());
+            Files.write(file, bytes);
+
+            assertSameStudents(students, BinarySnapshotCodec.read(file));
+
+            bytes[4] = 3;
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> BinarySnapshotCodec.read(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<Student> sampleStudents(boolean withSources) {
+        LocalDateTime t = LocalDateTime.of(2024, 5, 6, 7, 8, 9, 10_000_000);
+        Student ada = BinarySnapshotCodec.restoreStudent("Regular", "STU941", 941, "Ada Lovelace", 28);
+        ada.restoreContact("ada@uni.edu", "555-100-0941");
+        ada.addGrade(new Grade(941, new CoreSubject("Mathematics", "MAT101"), "MAT101", "Mathematics", 91.5, "A", true, 3.66, t));
+        ada.addGrade(new Grade(941, new ElectiveSubject("Mathematics", "MAT101"), "MAT101", "Mathematics", 48, "F", false, 0, t.minusDays(3)));
+        ada.addGrade(new Grade(941, null, "ENG203", "English – Literatur", 77, null, false, 0, null,
+                withSources ? "grades.csv@120" : null));
+        Student alan = BinarySnapshotCodec.restoreStudent("Honors", "STU942", 942, "Alan Turing", 41);
+        alan.addGrade(new Grade(942, new CoreSubject("Mathematics", "MAT101"), "MAT101", "Mathematics", 99, "A+", true, 4.0, t.plusHours(1)));
+        Student grace = BinarySnapshotCodec.restoreStudent("", "STU943", 943, "Grace Hopper", 35); // no grades
+        return List.of(ada, alan, grace);
+    }
+
+    private static void assertSameStudents(List<Student> expected, List<Student> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Student e = expected.get(i);
+            Student a = actual.get(i);
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getStudentId(), a.getStudentId());
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getAge(), a.getAge());
+            assertEquals(e.getEmail(), a.getEmail());
+            assertEquals(e.getPhone(), a.getPhone());
+            assertEquals(e.getGradeCount(), a.getGradeCount());
+            for (int k = 0; k < e.getGradeCount(); k++) {
+                Grade eg = e.getGradeHistory().get(k);
+                Grade ag = a.getGradeHistory().get(k);
+                assertEquals(eg.getCourseCode(), ag.getCourseCode());
+                assertEquals(eg.getCourseName(), ag.getCourseName());
+                assertEquals(eg.getScore(), ag.getScore(), 0.0);
+                assertEquals(eg.getGradeLevel(), ag.getGradeLevel());
+                assertEquals(eg.isPassing(), ag.isPassing());
+                assertEquals(eg.getGpa(), ag.getGpa(), 0.0);
+                assertEquals(eg.getTimestamp(), ag.getTimestamp());
+                assertEquals(eg.getSource(), ag.getSource());
+                assertEquals(e.getStudentId(), ag.getStudentId());
+            }
+        }
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i + needle.length <= haystack.length; i++) {
+            for (int k = 0; k < needle.length; k++) if (haystack[i + k] != needle[k]) continue outer;
+            return i;
+        }
+        throw new AssertionError("not found");
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarGradeFileTest {
+    @Test
+    void columnsReadBackAndScansTouchOnlyTheirColumn() throws Exception {
+        // 800 students x 100 grades: two row groups; only the second has high scores
+        List<Student> students = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            String type = i % 4 == 0 ? "Honors" : "Regular";
+            Student s = BinarySnapshotCodec.restoreStudent(type, String.format("STU%05d", i), i, "Column Student", 20);
+            for (int k = 0; k < 100; k++) {
+                double score = i < 656 ? 40 + (i + k) % 20 : 90 + k % 11;
+                s.addGrade(new Grade(k % 2 == 0 ? "MAT101" : "ENG203", k % 2 == 0 ? "Mathematics" : "English", score));
+                scores.add(score);
+            }
+            students.add(s);
+        }
+        // a grade with a recorded level and GPA keeps them
+        Student graded = BinarySnapshotCodec.restoreStudent("Regular", "STU99999", 99999, "Graded Student", 20);
+        graded.addGrade(new Grade(99999, new CoreSubject("Physics", "PHY105"), 77, "B", true, 3.5));
+        students.add(graded);
+        scores.add(77.0);
+
+        Path file = Files.createTempFile("columnar", ".sgc");
+        try {
+            assertEquals(80_001, ColumnarGradeFile.write(file, students));
+            try (ColumnarGradeFile in = ColumnarGradeFile.open(file)) {
+                assertEquals(80_001, in.getRowCount());
+                long footer = in.getBytesRead();
+
+                double[] read = in.readDoubles(ColumnarGradeFile.SCORE);
+                for (int i = 0; i < read.length; i++) assertEquals(scores.get(i), read[i], 0.0);
+                ColumnarGradeFile.Column score = in.getColumn(ColumnarGradeFile.SCORE);
+                assertEquals(2, score.blocks.size());
+                long scoreBytes = score.blocks.get(0).length + score.blocks.get(1).length;
+                assertEquals(footer + scoreBytes, in.getBytesRead());
+
+                // the first block's max is 59, so a range scan over high scores only reads the second block
+                long before = in.getBytesRead();
+                long high = in.scanDoubles(ColumnarGradeFile.SCORE, 90, 100, v -> { });
+                assertEquals(144 * 100, high);
+                assertEquals(score.blocks.get(1).length, in.getBytesRead() - before);
+                assertEquals(59.0, score.blocks.get(0).max, 0.0);
+
+                Map<String, Long> types = in.countValues(ColumnarGradeFile.STUDENT_TYPE);
+                assertEquals(20_000L, types.get("Honors").longValue());
+                assertEquals(60_001L, types.get("Regular").longValue());
+                assertEquals(ColumnarGradeFile.Encoding.RLE, in.getColumn(ColumnarGradeFile.STUDENT_ID).blocks.get(0).encoding);
+                assertEquals(ColumnarGradeFile.Encoding.DICTIONARY, in.getColumn(ColumnarGradeFile.COURSE_CODE).blocks.get(0).encoding);
+                assertEquals("ENG203", in.getColumn(ColumnarGradeFile.COURSE_CODE).blocks.get(0).minValue);
+                assertEquals("PHY105", in.getColumn(ColumnarGradeFile.COURSE_CODE).blocks.get(1).maxValue);
+
+                String[] codes = in.readStrings(ColumnarGradeFile.COURSE_CODE);
+                assertEquals("MAT101", codes[0]);
+                assertEquals("ENG203", codes[1]);
+                assertEquals("PHY105", codes[80_000]);
+                String[] levels = in.readStrings(ColumnarGradeFile.GRADE_LEVEL);
+                // imported grades are graded with the student's rules, recorded ones keep their level
+                assertEquals(students.get(0).getGradeLevel(scores.get(0)), levels[0]);
+                assertEquals("B", levels[80_000]);
+                assertEquals(3.5, in.readDoubles(ColumnarGradeFile.GPA)[80_000], 0.0);
+
+                assertThrows(IllegalArgumentException.class, () -> in.readDoubles(ColumnarGradeFile.COURSE_CODE));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
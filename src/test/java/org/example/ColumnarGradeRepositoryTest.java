@@ -0,0 +1,62 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarGradeRepositoryTest {
+    @Test
+    void statisticsAndLookupsMatchTheIndexedRepository() {
+        ColumnarGradeRepository columnar = new ColumnarGradeRepository();
+        IndexedGradeRepository indexed = new IndexedGradeRepository();
+        Subject math = new CoreSubject("Mathematics", "MAT101");
+        Subject music = new ElectiveSubject("Music", "MUS101");
+        Student regular = new RegularStudent("Columnar Regular", 20);
+        Student honors = new HonorsStudent("Columnar Honors", 20);
+        LocalDateTime recorded = LocalDateTime.of(2024, 9, 2, 14, 5, 30, 123_000_000);
+        for (int i = 0; i < 600; i++) { // grows past the initial column capacity
+            Student s = i % 3 == 0 ? honors : regular;
+            double score = (i * 37) % 101 + (i % 4) * 0.25;
+            Subject subject = i % 2 == 0 ? math : music;
+            Grade g = new Grade(i % 7, subject, subject.getSubjectCode(), subject.getSubjectName(), score,
+                    s.getGradeLevel(score), s.isPassing(score), s.calculateGPA(score), recorded.plusMinutes(i));
+            columnar.addGrade(g);
+            indexed.addGrade(g);
+        }
+        // an imported grade without a subject or level
+        Grade imported = new Grade("ENG203", "English", 71);
+        imported.setStudentId(3);
+        columnar.addGrade(imported);
+        indexed.addGrade(imported);
+
+        assertEquals(indexed.getGradeCount(), columnar.getGradeCount());
+        assertArrayEquals(indexed.getAllScores(), columnar.getAllScores(), 0.0);
+        assertEquals(indexed.getPassingCount(), columnar.getPassingCount());
+        assertArrayEquals(indexed.getGradeDistribution(), columnar.getGradeDistribution());
+        assertEquals(3, columnar.getCourseDictionarySize());
+
+        for (int student = 0; student < 8; student++) {
+            Grade[] expected = indexed.getStudentGrades(student);
+            Grade[] actual = columnar.getStudentGrades(student);
+            assertEquals(expected.length, actual.length);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i].getStudentId(), actual[i].getStudentId());
+                assertEquals(expected[i].getCourseCode(), actual[i].getCourseCode());
+                assertEquals(expected[i].getScore(), actual[i].getScore(), 0.0);
+                assertEquals(expected[i].getGradeLevel(), actual[i].getGradeLevel());
+                assertEquals(expected[i].isPassing(), actual[i].isPassing());
+                assertEquals(expected[i].getGpa(), actual[i].getGpa(), 0.0);
+                // stored, so every read returns the recorded time
+                assertEquals(GradeEncoding.toEpochMillis(expected[i].getTimestamp()),
+                        GradeEncoding.toEpochMillis(actual[i].getTimestamp()));
+            }
+        }
+        assertEquals(0, columnar.getStudentGrades(99).length);
+        Grade first = columnar.getAllGrades()[0];
+        assertEquals(recorded, first.getTimestamp());
+        assertEquals(first.getTimestamp(), columnar.getAllGrades()[0].getTimestamp());
+        assertNull(columnar.getStudentGrades(3)[columnar.getStudentGrades(3).length - 1].getSubject());
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvTokenizerTest {
+    @Test
+    void splitsTrimsAndHandlesQuotes() {
+        CsvTokenizer tok = new CsvTokenizer();
+        assertEquals(5, tok.reset(" STU001 ,\"O'Neill, Anne\",\"say \"\"hi\"\"\",,MAT101"));
+        assertEquals("STU001", tok.getString(0));
+        assertEquals("O'Neill, Anne", tok.getString(1));
+        assertEquals("say \"hi\"", tok.getString(2));
+        assertTrue(tok.isEmpty(3));
+        assertTrue(tok.fieldEquals(4, "mat101", true));
+        assertFalse(tok.fieldEquals(4, "mat101", false));
+
+        // same field count as split(",", -1) for unquoted lines
+        assertEquals("a,,b,".split(",", -1).length, tok.reset("a,,b,"));
+        assertEquals(1, tok.reset(""));
+    }
+
+    @Test
+    void parsesNumbersLikeTheJdk() {
+        CsvTokenizer tok = new CsvTokenizer();
+        String[] samples = {"85", "85.5", "-3.25", "+7", "0.1", "99.99", "1e3", "007", ".5", "5.", "-0", "123456789012345678"};
+        for (String s : samples) {
+            tok.reset(s);
+            assertEquals(Double.parseDouble(s), tok.parseDouble(0), 0.0, s);
+        }
+        tok.reset(" 42 ,-17,2147483647");
+        assertEquals(42, tok.parseInt(0));
+        assertEquals(-17, tok.parseInt(1));
+        assertEquals(Integer.MAX_VALUE, tok.parseInt(2));
+        tok.reset("12x,,2147483648");
+        assertThrows(NumberFormatException.class, () -> tok.parseInt(0));
+        assertThrows(NumberFormatException.class, () -> tok.parseDouble(1));
+        assertThrows(NumberFormatException.class, () -> tok.parseInt(2));
+    }
+
+    @Test
+    void internReusesRepeatedValues() {
+        CsvTokenizer tok = new CsvTokenizer();
+        tok.reset("MAT101,Mathematics");
+        String code = tok.intern(0);
+        tok.reset("MAT101,Physics");
+        assertSame(code, tok.intern(0));
+        assertEquals("Physics", tok.intern(1));
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataStoreRankingTest {
+    @Test
+    void rankingFollowsGradeUpdates() {
+        DataStore store = new DataStore();
+        Student a = new Student("STU101", "Alice Example");
+        Student b = new Student("STU102", "Bob Example");
+        Student c = new Student("STU103", "Carol Example");
+        a.addGrade(new Grade("MAT101", "Mathematics", 70));
+        b.addGrade(new Grade("MAT101", "Mathematics", 80));
+        c.addGrade(new Grade("MAT101", "Mathematics", 90));
+        store.addStudent(a);
+        store.addStudent(b);
+        store.addStudent(c);
+
+        assertEquals(List.of(c, b, a), store.getTopStudents(3));
+        assertEquals(1, store.getRank(c));
+        assertEquals(3, store.getRank(a));
+
+        // Alice moves up to second place (GPA 85); her old entry must be replaced, not duplicated
+        a.addGrade(new Grade("CS105", "Computer Science", 100));
+        store.updateRankingFor(a);
+
+        assertEquals(3, store.getRankedCount());
+        assertEquals(List.of(c, a), store.getTopStudents(2));
+        assertEquals(List.of(b), store.getBottomStudents(1));
+        assertEquals(3, store.getRank(b));
+        assertEquals(100.0, store.getPercentile(c), 1e-9);
+        assertEquals(3, store.getGpaRankingsSnapshot().values().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void secondaryIndexesTrackStudentChanges() {
+        DataStore store = new DataStore();
+        Student a = new Student("STU201", "Alice Example");
+        Student b = new Student("STU202", "Bob Example");
+        a.setEmail("alice@uni.edu");
+        b.setEmail("bob@mail.com");
+        a.addGrade(new Grade("MAT101", "Mathematics", 95));
+        store.addStudent(a);
+        store.addStudent(b);
+
+        // grades added after the student is stored are indexed and ranked without an explicit update
+        b.addGrade(new Grade("MAT101", "Mathematics", 75));
+        b.addGrade(new Grade("ENG101", "English", 75));
+        assertEquals(Set.of(a, b), store.getStudentsInCourse("MAT101"));
+        assertEquals(Set.of(b), store.getStudentsInCourse("ENG101"));
+        assertEquals(List.of(a, b), store.getTopStudents(2));
+
+        assertEquals(Set.of(a), store.getStudentsByEmailDomain("UNI.edu"));
+        b.setEmail("bob@uni.edu");
+        assertEquals(Set.of(a, b), store.getStudentsByEmailDomain("uni.edu"));
+        assertTrue(store.getStudentsByEmailDomain("mail.com").isEmpty());
+
+        assertEquals(List.of(a, b), store.getStudentsInGpaRange(75, 95));
+        assertEquals(List.of(b), store.getStudentsInGpaRange(70, 80));
+        assertTrue(store.getStudentsInGpaRange(80, 90).isEmpty());
+    }
+
+    @Test
+    void bulkLoadDefersMaintenanceUntilCommit() {
+        DataStore store = new DataStore();
+        Student a = new Student("STU301", "Alice Example");
+        a.addGrade(new Grade("MAT101", "Mathematics", 60));
+        store.addStudent(a);
+
+        Student b = new Student("STU302", "Bob Example");
+        DataStore.BulkLoad load = store.beginBulkLoad();
+        try {
+            store.addStudent(b);
+            b.addGrade(new Grade("MAT101", "Mathematics", 90));
+            a.addGrade(new Grade("ENG101", "English", 40));
+
+            // readers still see the last committed state, id lookups see the new student
+            assertSame(b, store.getStudent("STU302"));
+            assertEquals(List.of(a), store.getTopStudents(5));
+            assertEquals(Set.of(a), store.getStudentsInCourse("MAT101"));
+            assertTrue(store.getStudentsInCourse("ENG101").isEmpty());
+        } finally {
+            load.commit();
+        }
+
+        assertEquals(List.of(b, a), store.getTopStudents(5));
+        assertEquals(Set.of(a, b), store.getStudentsInCourse("MAT101"));
+        assertEquals(Set.of(a), store.getStudentsInCourse("ENG101"));
+        assertEquals(List.of(a), store.getStudentsInGpaRange(45, 55));
+    }
+
+    @Test
+    void bulkLoadRebuildMatchesIncrementalRanking() {
+        DataStore incremental = new DataStore();
+        DataStore bulk = new DataStore();
+        java.util.Random random = new java.util.Random(7);
+        DataStore.BulkLoad load = bulk.beginBulkLoad();
+        try {
+            for (int i = 0; i < 500; i++) {
+                String id = String.format("STU%03d", i);
+                Student x = new Student(id, "Student Example");
+                Student y = new Student(id, "Student Example");
+                incremental.addStudent(x);
+                bulk.addStudent(y);
+                for (int g = 0; g < 3; g++) {
+                    int score = random.nextInt(10) * 10; // plenty of ties
+                    x.addGrade(new Grade("MAT101", "Mathematics", score));
+                    y.addGrade(new Grade("MAT101", "Mathematics", score));
+                }
+            }
+        } finally {
+            load.commit();
+        }
+        assertEquals(incremental.getRankedCount(), bulk.getRankedCount());
+        assertEquals(incremental.getTopStudents(500), bulk.getTopStudents(500));
+        Student probe = bulk.getStudent("STU123");
+        assertEquals(incremental.getRank(incremental.getStudent("STU123")), bulk.getRank(probe));
+    }
+}
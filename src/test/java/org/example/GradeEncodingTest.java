@@ -0,0 +1,49 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradeEncodingTest {
+    @Test
+    void varintsLevelsAndSubjectsRoundTrip() {
+        byte[] data = new byte[GradeEncoding.MAX_VARLONG_BYTES * 8];
+        long[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+        int pos = 0;
+        ByteBuffer in = ByteBuffer.wrap(data);
+        for (long v : values) {
+            pos = GradeEncoding.putVarLong(data, 0, GradeEncoding.zigZag(v));
+            in.clear();
+            assertEquals(v, GradeEncoding.unZigZag(GradeEncoding.getVarLong(in)));
+            assertEquals(pos, in.position());
+        }
+        assertEquals(1, GradeEncoding.putVarLong(data, 0, 127));
+        assertEquals(10, GradeEncoding.putVarLong(data, 0, -1L)); // unsigned: a negative value takes all ten bytes
+
+        for (int code = 0; code < GradeEncoding.LEVELS.length; code++) {
+            assertEquals(code, GradeEncoding.levelCode(GradeEncoding.level(code)));
+        }
+        assertEquals(-1, GradeEncoding.levelCode(null));
+        assertEquals(-1, GradeEncoding.levelCode("Z"));
+        assertNull(GradeEncoding.level(-1));
+
+        Grade core = new Grade(1, new CoreSubject("Mathematics", "MAT101"), 91, "A", true, 3.6);
+        Grade elective = new Grade(1, new ElectiveSubject("Music", "MUS101"), 40, "F", false, 0);
+        assertEquals(GradeEncoding.PASSING | GradeEncoding.CORE, GradeEncoding.flags(core));
+        assertEquals(GradeEncoding.ELECTIVE, GradeEncoding.flags(elective));
+        assertEquals(1, GradeEncoding.subjectType(GradeEncoding.flags(core)));
+        assertTrue(GradeEncoding.subjectOfType(2, "Music", "MUS101") instanceof ElectiveSubject);
+        assertNull(GradeEncoding.subjectOfType(0, "English", "ENG203"));
+
+        assertEquals(0, GradeEncoding.lengthPrefix(null));
+        assertEquals(-1, GradeEncoding.lengthOf(GradeEncoding.lengthPrefix(null)));
+        assertEquals(3, GradeEncoding.lengthOf(GradeEncoding.lengthPrefix(new byte[3])));
+
+        LocalDateTime t = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000); // before the epoch
+        assertEquals(-1, GradeEncoding.toEpochMillis(t));
+        assertEquals(t, GradeEncoding.fromEpochMillis(GradeEncoding.toEpochMillis(t)));
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradeExporterTest {
+    @Test
+    void bulkExportMatchesSingleStudentReports() throws Exception {
+        IndexedGradeRepository repo = new IndexedGradeRepository();
+        List<Student> students = new ArrayList<>();
+        Subject physics = new CoreSubject("Physics", "PHY105");
+        for (int i = 0; i < 4; i++) {
+            Student s = i % 2 == 0 ? new HonorsStudent("Bulk Export", 20) : new Student(String.format("STU%03d", 960 + i), "Bulk Export");
+            students.add(s);
+            for (int k = 0; k < i * 2; k++) {
+                double score = 45 + k * 9.125;
+                repo.addGrade(new Grade(s.getStudentId(), physics, score, s.getGradeLevel(score), s.isPassing(score), s.calculateGPA(score)));
+            }
+        }
+
+        GradeExporter exporter = new GradeExporter();
+        Path dir = Files.createTempDirectory("reports");
+        Path combined = dir.resolve("all.txt");
+        try {
+            assertEquals(4, exporter.exportAllGradeReports(students, repo, dir, false));
+            assertEquals(4, exporter.exportAllGradeReports(students, repo, combined, true));
+            StringBuilder expectedCombined = new StringBuilder();
+            for (Student s : students) {
+                exporter.exportGradeReport(s, repo);
+                Path single = Paths.get(exporter.getLastExportedFilename());
+                try {
+                    String expected = Files.readString(single);
+                    assertEquals(expected, Files.readString(dir.resolve(single.getFileName())));
+                    expectedCombined.append(expected);
+                } finally {
+                    Files.deleteIfExists(single);
+                }
+            }
+            assertEquals(expectedCombined.toString(), Files.readString(combined));
+            assertTrue(expectedCombined.indexOf("No grades recorded yet.") >= 0);
+            assertTrue(expectedCombined.indexOf("Total Subjects: 6") >= 0);
+        } finally {
+            for (Student s : students) Files.deleteIfExists(dir.resolve(GradeExporter.reportFileName(s)));
+            Files.deleteIfExists(combined);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
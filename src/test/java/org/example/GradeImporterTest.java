@@ -0,0 +1,108 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradeImporterTest {
+    @Test
+    void pipelineImportsInFileOrderAndReportsSkippedLines() throws Exception {
+        StudentManager students = new StudentManager();
+        Student s = new RegularStudent("Pipeline Example", 20);
+        students.addStudent(s);
+        int id = s.getStudentId();
+
+        StringBuilder csv = new StringBuilder("StudentID,SubjectName,SubjectCode,SubjectType,Score\n");
+        int expectedGrades = 0;
+        for (int i = 0; i < 5000; i++) {
+            if (i % 1000 == 999) {
+                csv.append(id).append(",Math,MATH101,Lab,50\n");          // bad subject type
+            } else if (i % 1000 == 500) {
+                csv.append("\n");                                          // blank, skipped silently
+            } else {
+                csv.append(id).append(",\"Math, Applied\",MATH").append(i).append(",Core,").append(i % 101).append('\n');
+                expectedGrades++;
+            }
+        }
+        csv.append("999999,Math,MATH101,Core,50\n").append("oops\n").append(id).append(",Math,MATH101,Core,abc");
+
+        IndexedGradeRepository repository = new IndexedGradeRepository();
+        GradeImporter importer = new GradeImporter(3);
+        GradeImporter.ImportResult result = importer.importGrades(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), repository, students);
+
+        assertEquals(5004, result.linesRead);
+        assertEquals(expectedGrades, result.imported);
+        assertEquals(8, result.failed);
+        assertEquals(6, result.skipped);
+        assertEquals(expectedGrades, importer.getSuccessCount());
+        assertEquals("Line 1001 skipped - invalid subject type: Lab", result.errors.get(0));
+        assertEquals("Line 5002 skipped - student ID 999999 not found", result.errors.get(5));
+        assertEquals("Line 5003 skipped - invalid format: oops", result.errors.get(6));
+        assertEquals("Line 5004 skipped - invalid number format: " + id + ",Math,MATH101,Core,abc", result.errors.get(7));
+
+        // grades arrive in file order even though batches are parsed in parallel
+        Grade[] grades = repository.getStudentGrades(id);
+        assertEquals(expectedGrades, grades.length);
+        assertEquals("Math, Applied", grades[0].getSubject().getSubjectName());
+        assertEquals("MATH0", grades[0].getCourseCode());
+        assertEquals("MATH4998", grades[grades.length - 1].getCourseCode());
+        for (int i = 1; i < grades.length; i++) {
+            int prev = Integer.parseInt(grades[i - 1].getCourseCode().substring(4));
+            assertTrue(Integer.parseInt(grades[i].getCourseCode().substring(4)) > prev);
+        }
+    }
+
+    @Test
+    void trailingEmptyFieldsAreIgnoredAsBefore() throws Exception {
+        StudentManager students = new StudentManager();
+        Student s = new RegularStudent("Trailing Comma", 22);
+        students.addStudent(s);
+        int id = s.getStudentId();
+        String csv = "StudentID,SubjectName,SubjectCode,SubjectType,Score\n"
+                + id + ",Math,MATH101,Core,85,\n"          // spreadsheet export with a trailing comma
+                + id + ",Math,MATH102,Core,86,,\n"
+                + id + ",Math,MATH103,Core,,\n"            // the score itself is missing
+                + id + ",Math,MATH104,Core,87,extra\n";
+
+        IndexedGradeRepository repository = new IndexedGradeRepository();
+        GradeImporter.ImportResult result = new GradeImporter(1).importGrades(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), repository, students);
+        assertEquals(2, result.imported);
+        assertEquals(2, result.failed);
+        assertEquals("Line 4 skipped - invalid format: " + id + ",Math,MATH103,Core,,", result.errors.get(0));
+        assertEquals("Line 5 skipped - invalid format: " + id + ",Math,MATH104,Core,87,extra", result.errors.get(1));
+        Grade[] grades = repository.getStudentGrades(id);
+        assertEquals(85.0, grades[0].getScore(), 0.0);
+        assertEquals("MATH102", grades[1].getCourseCode());
+    }
+
+    @Test
+    void gzipInputIsDecompressedOnTheFly() throws Exception {
+        StudentManager students = new StudentManager();
+        Student s = new RegularStudent("Gzip Example", 21);
+        students.addStudent(s);
+        StringBuilder csv = new StringBuilder("StudentID,SubjectName,SubjectCode,SubjectType,Score\n");
+        for (int i = 0; i < 3000; i++) {
+            csv.append(s.getStudentId()).append(",Physics,PHY").append(i).append(",Elective,").append(i % 101).append('\n');
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(csv.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        IndexedGradeRepository repository = new IndexedGradeRepository();
+        GradeImporter.ImportResult result = new GradeImporter(2).importGrades(
+                new ByteArrayInputStream(compressed.toByteArray()), repository, students);
+        assertEquals(3000, result.imported);
+        assertEquals(0, result.failed);
+        Grade[] grades = repository.getStudentGrades(s.getStudentId());
+        assertEquals("PHY0", grades[0].getCourseCode());
+        assertEquals("PHY2999", grades[2999].getCourseCode());
+    }
+}
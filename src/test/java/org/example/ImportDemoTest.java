@@ -2,9 +2,17 @@ package org.example;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ImportDemoTest {
@@ -17,4 +25,162 @@ public class ImportDemoTest {
         System.out.println("Import errors: " + errs);
         assertTrue(store.getAllStudents().size() >= 1, "At least one student should be imported");
     }
+
+    @Test
+    void parallelImportMatchesSequential() throws Exception {
+        Path csv = Files.createTempFile("import-parallel", ".csv");
+        try {
+            Files.writeString(csv, "id,name,email,phone,courseCode,courseName,score\n"
+                    + "STU901,Ada Lovelace,ada@uni.edu,,MAT101,Mathematics,91\r\n"
+                    + "STU902,Alan Turing,alan@uni.edu,,PHY105,Physics,88\n"
+                    + "\n"
+                    + "STU901,Ada Lovelace,,,PHY105,Physics,77\n"
+                    + "STU903,Bad Mail,not-an-email,,MAT101,Mathematics,60\n"
+                    + "STU902,Alan Turing,,,BAD,Nowhere,50\n"
+                    + "STU901,Ada Lovelace,,,ENG203,English,64");
+            FileService fs = new FileService();
+            DataStore sequential = new DataStore();
+            DataStore parallel = new DataStore();
+            List<String> expected = fs.importStudentsFromCsv(csv, sequential);
+            // tiny chunks force every line boundary case through the chunk alignment
+            List<String> actual = fs.importStudentsFromCsvParallel(csv, parallel, 4, 16);
+
+            assertEquals(expected, actual);
+            assertEquals(3, expected.size());
+            assertEquals(sequential.getAllStudents(), parallel.getAllStudents());
+            Student ada = parallel.getStudent("STU901");
+            assertEquals(List.of("MAT101", "PHY105", "ENG203"),
+                    ada.getGradeHistory().stream().map(Grade::getCourseCode).toList());
+            assertEquals(sequential.getStudent("STU901").computeGPA(), ada.computeGPA(), 1e-9);
+
+            // the same file gzip-compressed, read sequentially and in parallel
+            Path gz = Files.createTempFile("import-parallel", ".csv.gz");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+                    Files.copy(csv, out);
+                }
+                DataStore fromGzip = new DataStore();
+                assertEquals(expected, fs.importStudentsFromCsv(gz, fromGzip));
+                DataStore fromGzipParallel = new DataStore();
+                assertEquals(expected, fs.importStudentsFromCsvParallel(gz, fromGzipParallel, 4, 16));
+                for (DataStore store : List.of(fromGzip, fromGzipParallel)) {
+                    assertEquals(sequential.getAllStudents(), store.getAllStudents());
+                    assertEquals(List.of("MAT101", "PHY105", "ENG203"),
+                            store.getStudent("STU901").getGradeHistory().stream().map(Grade::getCourseCode).toList());
+                }
+                // rows of the compressed file are at the same offsets as in the plain one
+                assertEquals(sequential.getStudent("STU902").getGradeHistory().get(0).getSource().replace(csv.getFileName().toString(), ""),
+                        fromGzip.getStudent("STU902").getGradeHistory().get(0).getSource().replace(gz.getFileName().toString(), ""));
+            } finally {
+                Files.deleteIfExists(gz);
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    void reimportIsIdempotentAndResumeReadsOnlyAppendedRows() throws Exception {
+        Path csv = Files.createTempFile("import-resume", ".csv");
+        Path snapshot = Files.createTempFile("import-resume", ".snap");
+        FileService fs = new FileService();
+        String header = "id,name,email,phone,courseCode,courseName,score\n";
+        try {
+            // the last line is still being written (no newline yet)
+            Files.writeString(csv, header
+                    + "STU911,Grace Hopper,grace@uni.edu,,MAT101,Mathematics,80\n"
+                    + "STU911,Grace Hopper,,,BAD,Nowhere,1\n"
+                    + "STU912,Edsger Dijkstra,,,PHY105,Physics,70");
+            DataStore store = new DataStore();
+            assertEquals(1, fs.importStudentsFromCsvResumable(csv, store, 1).size());
+            // a plain re-import reads every row again but adds no grade twice
+            assertEquals(List.of("STU911: invalid course or grade -> BAD,1"), fs.importStudentsFromCsv(csv, store));
+            assertEquals(1, store.getStudent("STU911").getGradeCount());
+            assertEquals(1, store.getStudent("STU912").getGradeCount());
+
+            // appended: the unterminated line is read again (and skipped), the rejected row is not
+            Files.writeString(csv, "\nSTU911,Grace Hopper,,,ENG203,English,90\n", StandardOpenOption.APPEND);
+            assertEquals(List.of(), fs.importStudentsFromCsvResumable(csv, store, 2));
+            assertEquals(2, store.getStudent("STU911").getGradeCount());
+            assertEquals(1, store.getStudent("STU912").getGradeCount());
+            assertEquals(List.of(), fs.importStudentsFromCsvResumable(csv, store, 1));
+            assertEquals(2, store.getStudent("STU911").getGradeCount());
+
+            // sources survive a snapshot, so a restored store still recognises the rows
+            BinarySnapshotCodec.write(snapshot, store.getAllStudents());
+            DataStore restored = new DataStore();
+            BinarySnapshotCodec.read(snapshot, restored::addStudent);
+            assertEquals(1, fs.importStudentsFromCsv(csv, restored).size());
+            assertEquals(2, restored.getStudent("STU911").getGradeCount());
+            assertEquals("MAT101", restored.getStudent("STU911").getGradeHistory().get(0).getCourseCode());
+
+            // a rewritten file is read from the start; a row still at its old offset is recognised
+            Files.writeString(csv, header
+                    + "STU911,Grace Hopper,,,MAT101,Mathematics,80\n"
+                    + "STU913,Barbara Liskov,,,MAT101,Mathematics,55\n");
+            assertEquals(List.of(), fs.importStudentsFromCsvResumable(csv, store, 1));
+            assertEquals(2, store.getStudent("STU911").getGradeCount());
+            assertEquals(1, store.getStudent("STU913").getGradeCount());
+            // sources are positions, so a row that moved is imported again: only appending is safe
+            Files.writeString(csv, header
+                    + "STU913,Barbara Liskov,,,MAT101,Mathematics,55\n"
+                    + "STU911,Grace Hopper,,,MAT101,Mathematics,80\n");
+            assertEquals(List.of(), fs.importStudentsFromCsv(csv, store));
+            assertEquals(3, store.getStudent("STU911").getGradeCount());
+        } finally {
+            fs.resetCheckpoint(csv);
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    void rejectedRowsAreQuarantinedAndCanBeReimported() throws Exception {
+        Path csv = Files.createTempFile("import-quarantine", ".csv");
+        Path quarantine = FileService.quarantinePathFor(csv);
+        try {
+            Files.writeString(csv, "id,name,email,phone,courseCode,courseName,score\n"
+                    + "STU931,Ada Lovelace,,,MAT101,Mathematics,91\n"
+                    + "\n"
+                    + "STU931,Ada Lovelace,,,PHY105,Physics,x\n"
+                    + "STU932,\"Grace Hopper\",,,BAD1,Nowhere,50\n"
+                    + "STU933,Bad Mail,not-an-email,,MAT101,Mathematics,60\n"
+                    + "oops,short\n");
+            FileService fs = new FileService();
+            DataStore store = new DataStore();
+            FileService.ImportSummary summary = fs.importStudentsFromCsvWithQuarantine(csv, store, 1, false);
+
+            assertEquals(6, summary.rowsRead);
+            assertEquals(5, summary.rowsRejected);
+            assertEquals(Map.of("blank line", 1L, "invalid course or grade", 2L, "invalid email or phone", 1L, "missing fields", 1L),
+                    summary.rejectedByCategory);
+            assertEquals(fs.importStudentsFromCsv(csv, new DataStore()), summary.errors);
+            assertEquals(quarantine, summary.quarantine);
+            List<String> lines = Files.readAllLines(quarantine);
+            assertEquals(List.of(
+                    "id,name,email,phone,courseCode,courseName,score,reason",
+                    "STU931,Ada Lovelace,,,PHY105,Physics,x,\"invalid course or grade\"",
+                    "STU932,\"Grace Hopper\",,,BAD1,Nowhere,50,\"invalid course or grade\"",
+                    "STU933,Bad Mail,not-an-email,,MAT101,Mathematics,60,\"Invalid email: not-an-email\"",
+                    "oops,short,,,,,,\"expected 7 fields, found 2\""), lines);
+
+            // fix the quarantined rows and import the quarantine file as it is
+            Files.writeString(quarantine, String.join("\n", lines).replace(",x,", ",77,").replace("BAD1", "ENG203")
+                    .replace("not-an-email", "bad@mail.edu"));
+            FileService.ImportSummary fixedRun = fs.importStudentsFromCsvWithQuarantine(quarantine, store, 1, false);
+            assertEquals(1, fixedRun.rowsRejected);
+            assertEquals(2, store.getStudent("STU931").getGradeCount());
+            assertEquals("Grace Hopper", store.getStudent("STU932").getName());
+            assertEquals("bad@mail.edu", store.getStudent("STU933").getEmail());
+            Files.deleteIfExists(FileService.quarantinePathFor(quarantine));
+
+            // a clean run removes the stale quarantine file
+            Files.writeString(csv, "id,name,email,phone,courseCode,courseName,score\nSTU931,Ada Lovelace,,,MAT101,Mathematics,91\n");
+            assertEquals(null, fs.importStudentsFromCsvWithQuarantine(csv, store, 1, false).quarantine);
+            assertFalse(Files.exists(quarantine));
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(quarantine);
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedGradeRepositoryTest {
+    @Test
+    void growsPastLegacyCapacityAndIndexesByStudent() {
+        IndexedGradeRepository repo = new IndexedGradeRepository();
+        Subject math = new CoreSubject("Mathematics", "MAT101");
+        for (int i = 0; i < 250; i++) {
+            repo.addGrade(new Grade(i % 5, math, 50 + (i % 50), "E", true, 0.5));
+        }
+
+        assertFalse(repo.isFull());
+        assertEquals(250, repo.getGradeCount());
+        assertEquals(250, repo.getAllGrades().length);
+        Grade[] forStudent3 = repo.getStudentGrades(3);
+        assertEquals(50, forStudent3.length);
+        for (Grade g : forStudent3) assertEquals(3, g.getStudentId());
+        assertEquals(0, repo.getStudentGrades(99).length);
+    }
+}
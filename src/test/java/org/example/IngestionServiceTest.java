@@ -0,0 +1,74 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestionServiceTest {
+    @Test
+    void importsDroppedFilesAndTailsAppends() throws Exception {
+        Path dir = Files.createTempDirectory("ingest");
+        Path checkpoints = Files.createTempDirectory("ingest-checkpoints");
+        Path early = dir.resolve("ingest-test-early.csv");
+        Path dropped = dir.resolve("ingest-test-dropped.csv");
+        String header = "id,name,email,phone,courseCode,courseName,score\n";
+        Files.writeString(early, header + "STU921,Early Bird,,,MAT101,Mathematics,70\n");
+
+        FileService fs = new FileService(checkpoints);
+        DataStore store = new DataStore();
+        SchedulerService scheduler = new SchedulerService();
+        TaskQueue tasks = new TaskQueue(2);
+        IngestionService ingestion = new IngestionService(dir, store, fs, scheduler, tasks, null);
+        try {
+            ingestion.start(50, 0, TimeUnit.MILLISECONDS);
+            // files present at start-up are picked up by the initial scan
+            awaitTrue(() -> store.getStudent("STU921") != null);
+
+            Files.writeString(dropped, header + "STU922,Dropped File,,,PHY105,Physics,80\n"
+                    + "STU922,Dropped File,,,BAD,Nowhere,1\n");
+            awaitTrue(() -> store.getStudent("STU922") != null && ingestion.getRejectedRowCount() == 1);
+
+            // appended rows are read from the checkpoint; earlier rows are not applied or reported again
+            Files.writeString(dropped, "STU922,Dropped File,,,ENG203,English,90\n", StandardOpenOption.APPEND);
+            awaitTrue(() -> store.getStudent("STU922").getGradeCount() == 2);
+            assertTrue(Files.isRegularFile(checkpoints.resolve("ingest-test-dropped.csv.ckpt")));
+
+            // the next append is read from the new checkpoint; the rejected row is not reported again
+            awaitTrue(() -> tasks.activeCount() == 0);
+            Files.writeString(dropped, "STU923,Later Row,,,MAT101,Mathematics,75\n", StandardOpenOption.APPEND);
+            awaitTrue(() -> store.getStudent("STU923") != null);
+            awaitTrue(() -> tasks.activeCount() == 0);
+            assertEquals(1, store.getStudent("STU923").getGradeCount());
+            assertEquals(2, store.getStudent("STU922").getGradeCount());
+            assertEquals(1, store.getStudent("STU921").getGradeCount());
+            assertEquals(1, ingestion.getRejectedRowCount());
+            assertEquals("ingest-test-dropped.csv: STU922: invalid course or grade -> BAD,1", ingestion.getRecentErrors().get(0));
+        } finally {
+            ingestion.stop();
+            scheduler.shutdown();
+            tasks.shutdown();
+            fs.resetCheckpoint(early);
+            fs.resetCheckpoint(dropped);
+            Files.deleteIfExists(early);
+            Files.deleteIfExists(dropped);
+            Files.deleteIfExists(FileService.quarantinePathFor(dropped));
+            Files.deleteIfExists(dir);
+            Files.deleteIfExists(checkpoints);
+        }
+        assertFalse(ingestion.isRunning());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("condition not met within 10s");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalServiceTest {
+    @Test
+    void recoveryRestoresSnapshotPlusNewerSegmentsWithoutDuplicates() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            DataStore store = new DataStore();
+            JournalService journal = new JournalService(dir);
+            assertEquals(0, journal.recover(store));
+            journal.attach(store);
+            Student grace = new Student("STU931", "Grace Hopper");
+            grace.addGrade(new Grade("MAT101", "Mathematics", 81.5, "grades.csv@40")); // journaled with the student
+            store.addStudent(grace);
+            Student alan = new HonorsStudent("Alan Turing", 22);
+            store.addStudent(alan);
+            alan.addGrade(new Grade("PHY105", "Physics", 92));
+
+            Path snapshot = journal.snapshot(store);
+            assertTrue(Files.exists(snapshot));
+            assertEquals(1, segments(dir).size()); // the segments the snapshot covers are gone
+
+            grace.addGrade(new Grade("ENG203", "English", 67));
+            alan.addGrade(new Grade(alan.getStudentId(), new CoreSubject("Chemistry", "CHE110"), 74, "C", true, 2.9));
+            // records a crashed snapshot or a retry can leave behind: a grade the snapshot
+            // already holds, and the same position journaled twice
+            journal.logGrade(alan, alan.getGradeHistory().get(0), 0);
+            journal.logGrade(grace, grace.getGradeHistory().get(1), 1);
+            journal.close();
+
+            DataStore recovered = new DataStore();
+            JournalService reopened = new JournalService(dir);
+            try {
+                assertEquals(2, reopened.recover(recovered));
+            } finally {
+                reopened.close();
+            }
+            assertSameStudents(store, recovered);
+            assertEquals(List.of("MAT101", "ENG203"), courses(recovered.getStudent("STU931")));
+            assertEquals("grades.csv@40", recovered.getStudent("STU931").getGradeHistory().get(0).getSource());
+            assertEquals("C", recovered.getStudent(alan.getId()).getGradeHistory().get(1).getGradeLevel());
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test
+    void tornOrCorruptTailEndsReplayAtTheLastGoodRecord() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            DataStore store = new DataStore();
+            JournalService journal = new JournalService(dir);
+            journal.attach(store);
+            Student s = new Student("STU932", "Edsger Dijkstra");
+            store.addStudent(s);
+            for (int i = 0; i < 5; i++) s.addGrade(new Grade("MAT101", "Mathematics", 60 + i));
+            journal.close();
+
+            Path segment = segments(dir).get(0);
+            byte[] intact = Files.readAllBytes(segment);
+            // crash in the middle of the last record
+            Files.write(segment, Arrays.copyOf(intact, intact.length - 3));
+            assertEquals(List.of(60.0, 61.0, 62.0, 63.0), scores(recover(dir).getStudent("STU932")));
+
+            // a damaged last record fails its CRC
+            byte[] corrupt = intact.clone();
+            corrupt[corrupt.length - 2] ^= 0x55;
+            Files.write(segment, corrupt);
+            assertEquals(List.of(60.0, 61.0, 62.0, 63.0), scores(recover(dir).getStudent("STU932")));
+
+            Files.write(segment, intact);
+            assertEquals(List.of(60.0, 61.0, 62.0, 63.0, 64.0), scores(recover(dir).getStudent("STU932")));
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    @Test
+    void recordsRacingCloseAreWrittenOrFailedNeverLeftPending() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try {
+            JournalService journal = new JournalService(dir);
+            Student s = new Student("STU933", "Barbara Liskov");
+            Grade g = new Grade("MAT101", "Mathematics", 70);
+            List<List<CompletableFuture<Void>>> futures = new ArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            AtomicInteger offered = new AtomicInteger();
+            for (int t = 0; t < 4; t++) {
+                List<CompletableFuture<Void>> mine = new ArrayList<>();
+                futures.add(mine);
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        mine.add(journal.logGrade(s, g, i));
+                        offered.incrementAndGet();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            while (offered.get() < 500) Thread.yield();
+            journal.close();
+            for (Thread thread : threads) thread.join();
+
+            BitSet written = new BitSet(); // ordinals of acknowledged records
+            for (List<CompletableFuture<Void>> mine : futures) {
+                for (int i = 0; i < mine.size(); i++) {
+                    try {
+                        mine.get(i).get(5, TimeUnit.SECONDS); // a TimeoutException here is the bug
+                        written.set(i);
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof IOException);
+                    }
+                }
+            }
+            assertThrows(IOException.class, journal::sync);
+
+            // every acknowledged record is readable
+            DataStore recovered = new DataStore();
+            recovered.addStudent(new Student("STU933", "Barbara Liskov"));
+            JournalService reopened = new JournalService(dir);
+            try {
+                assertEquals(written.cardinality(), reopened.recover(recovered));
+                assertEquals(written.cardinality(), recovered.getStudent("STU933").getGradeCount());
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    private static DataStore recover(Path dir) throws IOException {
+        DataStore store = new DataStore();
+        JournalService journal = new JournalService(dir);
+        try {
+            journal.recover(store);
+        } finally {
+            journal.close();
+        }
+        return store;
+    }
+
+    private static void assertSameStudents(DataStore expected, DataStore actual) {
+        assertEquals(expected.getStudentCount(), actual.getStudentCount());
+        for (Student e : expected.getAllStudents()) {
+            Student a = actual.getStudent(e.getId());
+            assertNotNull(a, e.getId());
+            assertEquals(e.getStudentId(), a.getStudentId());
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getStudentType(), a.getStudentType());
+            assertEquals(e.getGradeCount(), a.getGradeCount());
+            for (int i = 0; i < e.getGradeCount(); i++) {
+                Grade eg = e.getGradeHistory().get(i);
+                Grade ag = a.getGradeHistory().get(i);
+                assertEquals(eg.getCourseCode(), ag.getCourseCode());
+                assertEquals(eg.getScore(), ag.getScore(), 0.0);
+                assertEquals(GradeEncoding.toEpochMillis(eg.getTimestamp()), GradeEncoding.toEpochMillis(ag.getTimestamp()));
+            }
+        }
+    }
+
+    private static List<String> courses(Student s) {
+        List<String> out = new ArrayList<>();
+        for (Grade g : s.getGradeHistory()) out.add(g.getCourseCode());
+        return out;
+    }
+
+    private static List<Double> scores(Student s) {
+        List<Double> out = new ArrayList<>();
+        for (Grade g : s.getGradeHistory()) out.add(g.getScore());
+        return out;
+    }
+
+    // Journal segments, oldest first
+    private static List<Path> segments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> out = new ArrayList<>();
+            for (Path p : (Iterable<Path>) files.sorted()::iterator) {
+                String name = p.getFileName().toString();
+                if (name.startsWith("journal-") && name.endsWith(".log")) out.add(p);
+            }
+            return out;
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonImportTest {
+    @Test
+    void importSampleJson() throws Exception {
+        FileService fs = new FileService();
+        DataStore store = new DataStore();
+        List<String> errs = fs.importStudentsFromJson(Paths.get("data/json/dummy_students_20.json"), store);
+        assertEquals(20, store.getStudentCount());
+        Student alice = store.getStudent("STU201");
+        assertEquals("alice@example.edu", alice.getEmail());
+        assertEquals(89.0, alice.getCourseAverage("MAT101"), 1e-9);
+        // course codes such as CS105 do not match the course code format and are reported like CSV rows
+        assertTrue(errs.contains("STU201: invalid course or grade -> CS105,94"), errs.toString());
+    }
+
+    @Test
+    void exportedJsonImportsBackAndErrorsAreReported() throws Exception {
+        FileService fs = new FileService();
+        DataStore original = new DataStore();
+        Student s = new Student("STU777", "Round Trip");
+        s.setEmail("round@trip.edu");
+        s.addGrade(new Grade("MAT101", "Mathematics", 88.5));
+        s.addGrade(new Grade("ENG101", "English", 70));
+        original.addStudent(s);
+        Path exported = fs.exportStudentsToJson(original, "json-import-test");
+        Path broken = Files.createTempFile("json-import", ".json");
+        try {
+            DataStore restored = new DataStore();
+            assertTrue(fs.importStudentsFromJson(exported, restored).isEmpty());
+            Student back = restored.getStudent("STU777");
+            assertEquals(2, back.getGradeCount());
+            assertEquals(s.computeGPA(), back.computeGPA(), 1e-9);
+            assertEquals(List.of(back), restored.getTopStudents(1));
+
+            // names with quotes, backslashes, control characters and non-ASCII text survive the round trip,
+            // plain and gzip-compressed
+            s.addGrade(new Grade("PHY105", "Physics \"Honours\" \\ Lab\n\u00e9\u20ac", 91));
+            for (boolean gzip : new boolean[] {false, true}) {
+                Path file = fs.exportStudentsToJson(original, "json-import-escape-test", gzip);
+                try {
+                    DataStore copy = new DataStore();
+                    assertTrue(fs.importStudentsFromJson(file, copy).isEmpty());
+                    assertEquals("Physics \"Honours\" \\ Lab\n\u00e9\u20ac",
+                            copy.getStudent("STU777").getGradeHistory().get(2).getCourseName());
+                    assertEquals(3, copy.getStudent("STU777").getGradeCount());
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            }
+
+            // students are written in the order they were added, not in hash order
+            DataStore ordered = new DataStore();
+            List<String> ids = List.of("STU905", "STU131", "STU909", "STU120", "STU901", "STU555");
+            for (String id : ids) ordered.addStudent(new Student(id, "Ordered Student"));
+            Path file = fs.exportStudentsToJson(ordered, "json-import-order-test");
+            try {
+                DataStore copy = new DataStore();
+                assertTrue(fs.importStudentsFromJson(file, copy).isEmpty());
+                assertEquals(ids, copy.getAllStudents().stream().map(Student::getId).toList());
+            } finally {
+                Files.deleteIfExists(file);
+            }
+
+            // a score is checked by one rule whether it is a JSON number or a string
+            Files.writeString(broken, "[{\"id\":\"STU781\",\"name\":\"Score Forms\",\"courses\":["
+                    + "{\"courseCode\":\"MAT101\",\"score\":89.5},{\"courseCode\":\"ENG203\",\"score\":\"89.5\"},"
+                    + "{\"courseCode\":\"PHY105\",\"score\":\"100\"},{\"courseCode\":\"BIO110\",\"score\":\"100.5\"},"
+                    + "{\"courseCode\":\"CHE101\",\"score\":\"8,5\"},{\"courseCode\":\"HIS101\",\"score\":\" 70\"},"
+                    + "{\"courseCode\":\"ART101\",\"score\":-1}]}]");
+            DataStore scores = new DataStore();
+            assertEquals(List.of(
+                    "STU781: invalid course or grade -> BIO110,100.5",
+                    "STU781: invalid course or grade -> CHE101,8,5",
+                    "STU781: invalid course or grade -> HIS101, 70",
+                    "STU781: invalid course or grade -> ART101,-1"), fs.importStudentsFromJson(broken, scores));
+            Student forms = scores.getStudent("STU781");
+            assertEquals(3, forms.getGradeCount());
+            assertEquals(89.5, forms.getCourseAverage("MAT101"), 0.0);
+            assertEquals(89.5, forms.getCourseAverage("ENG203"), 0.0);
+            assertEquals(100.0, forms.getCourseAverage("PHY105"), 0.0);
+
+            Files.writeString(broken, "[{\"id\":\"bad\",\"name\":\"X\"}, 42,\n"
+                    + "{\"id\":\"STU778\",\"name\":\"Ok Name\",\"email\":\"nope\"},\n"
+                    + "{\"id\":\"STU779\",\"name\":\"Ok Name\",\"courses\":[{\"courseCode\":\"MAT101\",\"score\":101}]},\n"
+                    + "{\"id\":\"STU780\" \"name\":\"Missing Comma\"}]");
+            DataStore partial = new DataStore();
+            List<String> errs = fs.importStudentsFromJson(broken, partial);
+            assertEquals(List.of(
+                    "bad: invalid student id",
+                    "Invalid JSON record 2: student object expected",
+                    "Exception parsing record 3 (STU778) -> Invalid email: nope",
+                    "STU779: invalid course or grade -> MAT101,101",
+                    "JSON syntax error at line 4: ',' expected"), errs);
+            assertEquals(1, partial.getStudentCount());
+        } finally {
+            Files.deleteIfExists(exported);
+            Files.deleteIfExists(broken);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonStreamWriterTest {
+    @Test
+    void escapesStringsAndFormatsNumbers() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        String tricky = "say \"hi\" \\ tab\t nl\n \u0001 café € 😀";
+        // a tiny buffer forces drains in the middle of strings
+        try (JsonStreamWriter w = new JsonStreamWriter(bytes, 8)) {
+            w.beginArray();
+            w.beginObject().name("s").value(tricky).name("n").value((String) null).endObject();
+            w.beginArray().value(88.0).value(88.5).value(-3).value(1e7).value(Double.NaN).value(true).endArray();
+            w.endArray();
+        }
+        String json = bytes.toString(StandardCharsets.UTF_8);
+        assertEquals("[\n{\"s\":\"say \\\"hi\\\" \\\\ tab\\t nl\\n \\u0001 café € 😀\",\"n\":null},"
+                + "\n[88.0,88.5,-3,1.0E7,null,true]\n]", json);
+
+        // and the parser reads the string back unchanged
+        try (JsonPullParser p = new JsonPullParser(new StringReader(json))) {
+            p.next();
+            p.next();
+            p.next();
+            assertEquals(JsonPullParser.Token.STRING, p.next());
+            assertEquals(tricky, p.getString());
+        }
+    }
+
+    @Test
+    void longEscapedStringsSurviveParserBufferBoundaries() throws Exception {
+        // the parser reads 8192 chars at a time; move the escape across that boundary
+        for (int n = 8180; n <= 8195; n++) {
+            String s = "x".repeat(n) + "\"y";
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (JsonStreamWriter w = new JsonStreamWriter(bytes)) {
+                w.beginArray().beginObject().name("a").value(s).endObject().endArray();
+            }
+            try (JsonPullParser p = new JsonPullParser(new StringReader(bytes.toString(StandardCharsets.UTF_8)))) {
+                p.next();
+                p.next();
+                p.next();
+                assertEquals(JsonPullParser.Token.STRING, p.next());
+                assertEquals(s, p.getString(), "length " + n);
+                assertEquals(JsonPullParser.Token.END_OBJECT, p.next());
+            }
+        }
+    }
+
+    @Test
+    void rejectsMisuse() throws Exception {
+        JsonStreamWriter w = new JsonStreamWriter(new ByteArrayOutputStream());
+        w.beginObject();
+        assertThrows(IllegalStateException.class, () -> w.value("no key"));
+        assertThrows(IllegalStateException.class, w::endArray);
+        w.name("k");
+        assertThrows(IllegalStateException.class, () -> w.name("k2"));
+    }
+}
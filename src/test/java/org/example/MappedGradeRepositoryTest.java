@@ -0,0 +1,74 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedGradeRepositoryTest {
+    @Test
+    void gradesSurviveReopenAcrossSegments() throws Exception {
+        Path file = Files.createTempFile("grades", ".mmap");
+        Files.delete(file); // the repository creates the file itself
+        int n = 70_000; // more than one mapped segment of 65536 slots
+        LocalDateTime recorded = LocalDateTime.of(2024, 3, 14, 9, 26, 53, 589_000_000);
+        try {
+            try (MappedGradeRepository repo = new MappedGradeRepository(file)) {
+                for (int i = 0; i < n; i++) repo.addGrade(grade(i, recorded));
+                // imported grades have no subject, level or GPA
+                Grade imported = new Grade("ENG203", "English Literatüre", 48.5);
+                imported.setStudentId(7);
+                repo.addGrade(imported);
+                // too long for a slot: rejected, nothing written
+                Grade longName = new Grade(7, new CoreSubject("Advanced Topics in Distributed Systems Engineering", "CSE401"),
+                        70, "C", true, 2.8);
+                assertThrows(IllegalArgumentException.class, () -> repo.addGrade(longName));
+                assertEquals(n + 1, repo.getGradeCount());
+            }
+
+            try (MappedGradeRepository repo = new MappedGradeRepository(file)) {
+                assertEquals(n + 1, repo.getGradeCount());
+                Grade[] all = repo.getAllGrades();
+                for (int i = 0; i < n; i++) {
+                    Grade expected = grade(i, recorded);
+                    Grade g = all[i];
+                    assertEquals(expected.getStudentId(), g.getStudentId());
+                    assertEquals(expected.getCourseCode(), g.getCourseCode());
+                    assertEquals(expected.getCourseName(), g.getCourseName());
+                    assertEquals(expected.getScore(), g.getScore(), 0.0);
+                    assertEquals(expected.getGradeLevel(), g.getGradeLevel());
+                    assertEquals(expected.isPassing(), g.isPassing());
+                    assertEquals(expected.getGpa(), g.getGpa(), 0.0);
+                    assertEquals(expected.getSubject().getClass(), g.getSubject().getClass());
+                    assertEquals(recorded, g.getTimestamp()); // millisecond precision
+                }
+                Grade imported = all[n];
+                assertEquals("English Literatüre", imported.getCourseName());
+                assertNull(imported.getSubject());
+                assertNull(imported.getGradeLevel());
+                assertNotNull(imported.getTimestamp());
+                assertEquals(imported.getTimestamp(), repo.getAllGrades()[n].getTimestamp()); // not re-stamped on read
+
+                // the per-student index is rebuilt from the slots, including those in the second segment
+                Grade[] student = repo.getStudentGrades(3);
+                assertEquals(n / 100, student.length);
+                assertEquals(grade(69_903, recorded).getScore(), student[student.length - 1].getScore(), 0.0);
+                assertEquals(n / 100 + 1, repo.getStudentGrades(7).length);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // grade i belongs to student i % 100
+    private static Grade grade(int i, LocalDateTime timestamp) {
+        Subject subject = i % 3 == 0 ? new ElectiveSubject("Music", "MUS101") : new CoreSubject("Mathematics", "MAT101");
+        double score = (i * 7) % 101;
+        String level = score >= 90 ? "A" : score >= 80 ? "B" : score >= 70 ? "C" : score >= 60 ? "D" : score >= 50 ? "E" : "F";
+        return new Grade(i % 100, subject, subject.getSubjectCode(), subject.getSubjectName(), score, level,
+                score >= 50, score / 25.0, timestamp);
+    }
+}
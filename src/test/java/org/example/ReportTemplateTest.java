@@ -0,0 +1,69 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportTemplateTest {
+    @Test
+    void fixedPrecisionMatchesStringFormat() {
+        Random random = new Random(7);
+        for (int p = 0; p <= 6; p++) {
+            // exact ties, values just around them, random scores and a few special values
+            for (int i = 0; i < 20_000; i++) {
+                double[] values = {i / 1000.0, i * 0.005, i * 1.005, random.nextDouble() * 100, random.nextDouble() * 1e7};
+                for (double v : values) assertEquals(String.format("%." + p + "f", v), ReportTemplate.formatFixed(v, p), v + " at " + p);
+            }
+            for (double v : new double[] {-1.5, -0.0, Double.NaN, Double.POSITIVE_INFINITY, 1e20, 2.675, 0.125}) {
+                assertEquals(String.format("%." + p + "f", v), ReportTemplate.formatFixed(v, p), v + " at " + p);
+            }
+        }
+        Locale previous = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+            assertEquals("3,14", ReportTemplate.formatFixed(3.14159, 2));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, previous);
+        }
+    }
+
+    @Test
+    void templatesRenderTextCsvAndHtml() throws Exception {
+        Student s = new Student("STU940", "Anne O'Neill");
+        s.addGrade(new Grade("MAT101", "Maths, \"Pure\" & <Applied>", 88.456));
+        s.addGrade(new Grade("ENG203", "English", 70));
+
+        // the text layout ReportGenerator wrote with String.format
+        String expected = "Report for Anne O'Neill (STU940)\nGPA: " + s.computeGPA() + "\nGrades:\n"
+                + String.format(" - %s (%s): %.2f\n", "MAT101", "Maths, \"Pure\" & <Applied>", 88.456)
+                + String.format(" - %s (%s): %.2f\n", "ENG203", "English", 70.0);
+        assertEquals(expected, ReportTemplate.TEXT.render(s));
+        assertTrue(ReportTemplate.CSV.render(s).contains("STU940,Anne O'Neill,79.23,MAT101,\"Maths, \"\"Pure\"\" & <Applied>\",88.46,"));
+        assertTrue(ReportTemplate.HTML.render(s).contains("<td>Maths, &quot;Pure&quot; &amp; &lt;Applied&gt;</td><td>88.46</td>"));
+
+        ReportTemplate custom = ReportTemplate.compile(ReportTemplate.Format.TEXT, "{id} {{{gradeCount}}\n", "{level}/{gradeGpa:.1f};", "");
+        assertEquals("STU940 {2}\nB/3.5;C/2.8;", custom.render(s));
+        assertThrows(IllegalArgumentException.class, () -> ReportTemplate.compile(ReportTemplate.Format.TEXT, "{score}", "", ""));
+        assertThrows(IllegalArgumentException.class, () -> ReportTemplate.compile(ReportTemplate.Format.TEXT, "", "{name:.2f}", ""));
+        assertThrows(IllegalArgumentException.class, () -> ReportTemplate.compile(ReportTemplate.Format.TEXT, "{nope}", "", ""));
+
+        DataStore store = new DataStore();
+        store.addStudent(s);
+        Path dir = Files.createTempDirectory("templated-reports");
+        Path html = dir.resolve("STU940.report.html");
+        try {
+            ReportGenerator.ReportResult result = new ReportGenerator(store).generateReports(List.of("STU940"), 2, dir, ReportTemplate.HTML, null, null);
+            assertEquals(1, result.completed);
+            assertEquals(ReportTemplate.HTML.render(s), Files.readString(html));
+        } finally {
+            Files.deleteIfExists(html);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
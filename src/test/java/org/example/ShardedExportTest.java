@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedExportTest {
+    @Test
+    void shardsPartitionTheStoreAndReadBackInEveryFormat() throws Exception {
+        FileService fs = new FileService();
+        DataStore original = new DataStore();
+        for (int i = 0; i < 50; i++) {
+            Student s = new Student(String.format("STU%03d", 100 + i), "Shard Student");
+            if (i % 7 != 0) { // some students have no grades
+                s.addGrade(new Grade("MAT101", "Mathematics, Applied", 60 + i % 40));
+                s.addGrade(new Grade("ENG203", "English \"Lit\"", 50 + i % 30));
+            }
+            original.addStudent(s);
+        }
+
+        Path root = Files.createTempDirectory("shards");
+        for (FileService.ExportFormat format : FileService.ExportFormat.values()) {
+            FileService.ShardedExport export = fs.exportSharded(original, root, "shard-test", 4, format, 3);
+            try {
+                assertEquals(4, export.shards.size());
+                assertEquals(50, export.getStudentCount());
+                assertTrue(Files.isRegularFile(export.manifest));
+
+                DataStore restored = new DataStore();
+                for (int i = 0; i < 4; i++) {
+                    FileService.Shard shard = export.shards.get(i);
+                    CRC32 crc = new CRC32();
+                    crc.update(Files.readAllBytes(shard.file));
+                    assertEquals(crc.getValue(), shard.crc32);
+                    assertEquals(Files.size(shard.file), shard.bytes);
+
+                    List<Student> students;
+                    if (format == FileService.ExportFormat.BINARY) {
+                        students = fs.importBinary(shard.file);
+                        students.forEach(restored::addStudent);
+                    } else {
+                        DataStore part = new DataStore();
+                        if (format == FileService.ExportFormat.JSON) {
+                            assertTrue(fs.importStudentsFromJson(shard.file, part).isEmpty());
+                        } else {
+                            // students without grades come back, their empty grade row is reported
+                            fs.importStudentsFromCsv(shard.file, part);
+                        }
+                        students = part.getAllStudents();
+                        students.forEach(restored::addStudent);
+                    }
+                    assertEquals(shard.students, students.size());
+                    for (Student s : students) assertEquals(i, FileService.shardOf(s.getId(), 4));
+                }
+                assertEquals(50, restored.getStudentCount());
+                for (Student s : original.students()) {
+                    Student back = restored.getStudent(s.getId());
+                    assertEquals(s.getGradeCount(), back.getGradeCount(), format + " " + s.getId());
+                    assertEquals(s.computeGPA(), back.computeGPA(), 1e-9);
+                }
+                if (format != FileService.ExportFormat.BINARY) {
+                    assertEquals("English \"Lit\"", restored.getStudent("STU101").getGradeHistory().get(1).getCourseName());
+                }
+            } finally {
+                for (FileService.Shard shard : export.shards) Files.deleteIfExists(shard.file);
+                Files.deleteIfExists(export.manifest);
+                Files.deleteIfExists(export.dir);
+            }
+        }
+        Files.delete(root);
+    }
+
+    @Test
+    void exportNamesCannotLeaveTheOutputRoot() throws Exception {
+        FileService fs = new FileService();
+        DataStore store = new DataStore();
+        store.addStudent(new Student("STU150", "Shard Student"));
+        Path root = Files.createTempDirectory("shards");
+        try {
+            for (String name : new String[] {"", "  ", ".", "..", "../escape", "a/b", "a\\b", "/tmp/abs"}) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> fs.exportSharded(store, root, name, 2, FileService.ExportFormat.CSV, 1));
+            }
+            assertThrows(IllegalArgumentException.class,
+                    () -> fs.exportSharded(store, null, 2, FileService.ExportFormat.CSV));
+            try (var entries = Files.list(root)) {
+                assertEquals(0, entries.count());
+            }
+            assertFalse(Files.exists(root.resolveSibling("escape")));
+        } finally {
+            Files.delete(root);
+        }
+    }
+}
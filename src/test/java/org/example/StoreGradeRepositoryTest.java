@@ -0,0 +1,39 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoreGradeRepositoryTest {
+    @Test
+    void managerRepositoryAndStoreShareStudents() {
+        DataStore store = new DataStore();
+        StudentManager manager = new StudentManager(store);
+        StoreGradeRepository repository = new StoreGradeRepository(store);
+        assertEquals(5, store.getStudentCount());
+
+        Student s = new RegularStudent("Grace Example", 20);
+        manager.addStudent(s);
+        assertSame(s, store.getStudent(s.getStudentId()));
+        assertSame(s, store.getStudent(s.getId()));
+        assertEquals(6, manager.getStudentCount());
+
+        // a grade recorded through the repository lands in the student's history and ranking
+        repository.addGrade(new Grade(s.getStudentId(), new CoreSubject("Math", "MATH101"), 95, "A", true, 3.8));
+        s.addGrade(new Grade("ENG101", "English", 45));
+        assertEquals(2, s.getGradeCount());
+        assertEquals(2, repository.getStudentGrades(s.getStudentId()).length);
+        assertEquals(2, repository.getGradeCount());
+        assertEquals(1, repository.getPassingCount());
+        assertArrayEquals(new int[] {1, 0, 0, 0, 0, 1}, repository.getGradeDistribution());
+        assertEquals(s, store.getTopStudents(1).get(0));
+
+        // grades for unknown students are still kept
+        repository.addGrade(new Grade(-42, new CoreSubject("Math", "MATH101"), 70, "C", true, 2.8));
+        assertEquals(1, repository.getStudentGrades(-42).length);
+        assertEquals(3, repository.getAllGrades().length);
+
+        // a second manager over the same store does not add the default students again
+        assertEquals(6, new StudentManager(store).getStudentCount());
+    }
+}
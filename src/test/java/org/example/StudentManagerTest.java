@@ -0,0 +1,104 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StudentManagerTest {
+    @Test
+    void looksUpByBothIdsAndSeedsOnlyAnEmptyStore() {
+        StudentManager manager = new StudentManager();
+        assertEquals(5, manager.getStudentCount()); // the default students
+        Student alice = manager.getAllStudents()[0];
+        assertEquals("Alice", alice.getName());
+
+        // lookups go through the store's hash indexes, so they do not depend on list position
+        List<Student> added = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Student s = new RegularStudent("Lookup Student", 20);
+            manager.addStudent(s);
+            added.add(s);
+        }
+        for (Student s : added) {
+            assertSame(s, manager.findStudent(s.getStudentId()));
+            assertSame(s, manager.findStudent(s.getId()));
+        }
+        assertSame(alice, manager.findStudent(alice.getId()));
+        assertNull(manager.findStudent(-1));
+        assertNull(manager.findStudent("STU000"));
+        assertNull(manager.findStudent((String) null));
+        assertEquals(2_005, manager.getStudentCount());
+        assertEquals(added.get(1_999), manager.getAllStudents()[2_004]); // insertion order
+
+        // a store that already has students is not seeded again
+        DataStore store = new DataStore();
+        Student only = new Student("STU998", "Only Student");
+        store.addStudent(only);
+        StudentManager shared = new StudentManager(store);
+        assertEquals(1, shared.getStudentCount());
+        assertSame(only, shared.findStudent("STU998"));
+        assertEquals(2_005, new StudentManager(manager.getStore()).getStudentCount());
+    }
+
+    @Test
+    void studentsAddedAfterAnImportGetFreshIds() {
+        DataStore store = new DataStore();
+        StudentManager manager = new StudentManager(store);
+        Student imported = new Student("STU999", "Imported Student");
+        manager.addStudent(imported);
+
+        // the generated id must not land on the imported student's numeric id
+        Student added = new RegularStudent("Added Later", 19);
+        assertTrue(added.getStudentId() > imported.getStudentId());
+        manager.addStudent(added);
+        assertSame(imported, manager.findStudent(999));
+        assertSame(added, manager.findStudent(added.getStudentId()));
+
+        // an existing id is rejected instead of replacing the student
+        int count = manager.getStudentCount();
+        assertThrows(IllegalArgumentException.class, () -> manager.addStudent(new Student("STU999", "Someone Else")));
+        assertSame(imported, manager.findStudent("STU999"));
+        assertEquals(count, manager.getStudentCount());
+    }
+
+    @Test
+    void idsPastStu999SurviveExportAndImport() throws Exception {
+        DataStore store = new DataStore();
+        Student imported = new Student("STU999", "Imported Student");
+        imported.addGrade(new Grade("ENG203", "English", 74));
+        store.addStudent(imported);
+        StudentManager manager = new StudentManager(store); // not seeded: the store has a student
+        Student added = new RegularStudent("Added Later", 19);
+        added.addGrade(new Grade("MAT101", "Mathematics", 81));
+        manager.addStudent(added);
+        assertTrue(added.getStudentId() >= 1000);
+        assertEquals("STU" + added.getStudentId(), added.getId());
+
+        FileService fs = new FileService();
+        Path root = Files.createTempDirectory("ids");
+        try {
+            for (FileService.ExportFormat format : new FileService.ExportFormat[] {FileService.ExportFormat.CSV, FileService.ExportFormat.JSON}) {
+                FileService.ShardedExport export = fs.exportSharded(store, root, "ids-" + format, 1, format, 1);
+                Path file = export.shards.get(0).file;
+                DataStore copy = new DataStore();
+                List<String> errors = format == FileService.ExportFormat.CSV
+                        ? fs.importStudentsFromCsv(file, copy) : fs.importStudentsFromJson(file, copy);
+                assertTrue(errors.isEmpty(), errors.toString());
+                Student back = copy.getStudent(added.getId());
+                assertNotNull(back, format.toString());
+                assertEquals(added.getStudentId(), back.getStudentId());
+                assertEquals(1, back.getGradeCount());
+            }
+        } finally {
+            try (var paths = Files.walk(root)) {
+                for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+            }
+        }
+    }
+}
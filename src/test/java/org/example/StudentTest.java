@@ -0,0 +1,83 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StudentTest {
+    @Test
+    void runningAggregatesMatchARecomputation() {
+        Student s = new Student("STU951", "Aggregate Student");
+        String[] courses = {"MAT101", "ENG203", "PHY105"};
+        double total = 0;
+        double[] sums = new double[3];
+        int[] counts = new int[3];
+        double[] best = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < 1_000; i++) {
+            int c = (i * 7) % 3;
+            double score = (i * 31) % 101 + 0.5 * (i % 2);
+            assertTrue(s.addGrade(new Grade(courses[c], "Course " + c, score)));
+            total += score;
+            sums[c] += score;
+            counts[c]++;
+            best[c] = Math.max(best[c], score);
+        }
+        assertEquals(1_000, s.getGradeCount());
+        assertEquals(total / 1_000, s.computeGPA(), 1e-9);
+        for (int c = 0; c < 3; c++) {
+            assertEquals(sums[c] / counts[c], s.getCourseAverage(courses[c]), 1e-9);
+            assertEquals(counts[c], s.getCourseGradeCount(courses[c]));
+            assertEquals(best[c], s.getCourseBestScore(courses[c]), 0.0);
+        }
+        assertEquals(0.0, s.getCourseAverage("BIO110"), 0.0);
+        assertEquals(0, s.getCourseGradeCount("BIO110"));
+        assertEquals(0.0, new Student("STU952", "No Grades").computeGPA(), 0.0);
+    }
+
+    @Test
+    void historyViewIsASnapshotWhenTheArrayGrows() {
+        Student s = new Student("STU953", "History Student");
+        assertTrue(s.getGradeHistory().isEmpty());
+        for (int i = 0; i < 4; i++) s.addGrade(new Grade("MAT101", "Mathematics", 60 + i));
+        List<Grade> view = s.getGradeHistory();
+        Grade first = view.get(0);
+
+        // the fifth grade outgrows the initial array; the view keeps its size and elements
+        for (int i = 0; i < 20; i++) s.addGrade(new Grade("ENG203", "English", 70 + i));
+        assertEquals(4, view.size());
+        assertSame(first, view.get(0));
+        assertEquals(63.0, view.get(3).getScore(), 0.0);
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(4));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(first));
+        assertEquals(24, s.getGradeHistory().size());
+        assertEquals(89.0, s.getGradeHistory().get(23).getScore(), 0.0);
+    }
+
+    @Test
+    void gradesFromTheSameSourceRowAreAddedOnce() {
+        Student s = new Student("STU954", "Import Student");
+        assertTrue(s.addGrade(new Grade("MAT101", "Mathematics", 80, "grades.csv@64")));
+        assertFalse(s.addGrade(new Grade("MAT101", "Mathematics", 80, "grades.csv@64")));
+        assertEquals(1, s.getGradeCount());
+        assertEquals(80.0, s.computeGPA(), 0.0);
+
+        // another row, or the same row with different content, is a new grade
+        assertTrue(s.addGrade(new Grade("MAT101", "Mathematics", 80, "grades.csv@128")));
+        assertTrue(s.addGrade(new Grade("MAT101", "Mathematics", 90, "grades.csv@64")));
+        // grades without a source are never deduplicated
+        assertTrue(s.addGrade(new Grade("MAT101", "Mathematics", 80)));
+        assertTrue(s.addGrade(new Grade("MAT101", "Mathematics", 80)));
+        assertEquals(5, s.getGradeCount());
+        assertEquals(5, s.getCourseGradeCount("MAT101"));
+
+        // a skipped duplicate notifies no listener
+        int[] notified = {0};
+        s.addListener((student, grade, ordinal) -> notified[0]++);
+        assertFalse(s.addGrade(new Grade("MAT101", "Mathematics", 80, "grades.csv@128")));
+        assertTrue(s.addGrade(new Grade("ENG203", "English", 70, "grades.csv@192")));
+        assertEquals(1, notified[0]);
+        assertEquals(6, s.getGradeCount());
+    }
+}
@@ -0,0 +1,33 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskQueueTest {
+    @Test
+    void shutdownWaitsForQueuedAndRunningTasks() {
+        TaskQueue tasks = new TaskQueue(2);
+        AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < 6; i++) {
+            tasks.submit(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.incrementAndGet();
+            }, i);
+        }
+        tasks.shutdown();
+        assertEquals(6, done.get());
+        assertEquals(0, tasks.activeCount());
+
+        // a task submitted afterwards is refused rather than silently dropped
+        assertThrows(RejectedExecutionException.class, () -> tasks.submit(done::incrementAndGet, 0));
+        assertEquals(6, done.get());
+    }
+}